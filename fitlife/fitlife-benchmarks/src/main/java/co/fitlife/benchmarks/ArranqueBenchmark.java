@@ -0,0 +1,72 @@
+package co.fitlife.benchmarks;
+
+import co.fitlife.services.GimnasioService;
+import co.fitlife.services.ModoAlmacen;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo de arranque: el constructor de {@link GimnasioService} cargando una base existente
+ * (instantáneas, repositorios con índices y reproducción del diario).
+ *
+ * Cada medición es un arranque completo (SingleShotTime); la primera corresponde al arranque en frío.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ArranqueBenchmark {
+
+    @Param({"PEQUENA", "MEDIANA", "GRANDE"})
+    private DatosSinteticos.Escala escala;
+
+    @Param({"MEMORIA", "MAPEADO"})
+    private ModoAlmacen modo;
+
+    private Path directorio;
+    private GimnasioService servicio;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        directorio = DatosSinteticos.directorioTemporal("arranque");
+        DatosSinteticos.escribir(directorio, DatosSinteticos.socios(escala.socios, 0.2),
+                DatosSinteticos.clases(escala.clases, 20));
+        // En modo MAPEADO el primer arranque importa socios.dat; se hace aquí para medir arranques normales
+        new GimnasioService(modo, directorio.toString()).cerrar();
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrarServicio() {
+        if (servicio != null) {
+            servicio.cerrar();
+            servicio = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() {
+        DatosSinteticos.borrarDirectorio(directorio);
+    }
+
+    @Benchmark
+    public GimnasioService arrancar() {
+        servicio = new GimnasioService(modo, directorio.toString());
+        return servicio;
+    }
+}
@@ -0,0 +1,79 @@
+package co.fitlife.benchmarks;
+
+import co.fitlife.model.Socio;
+import co.fitlife.services.GimnasioService;
+import co.fitlife.services.ModoAlmacen;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Búsqueda de socios mientras se escribe ({@link GimnasioService#buscarSocios}): lo que lleva
+ * escrito el recepcionista, con y sin tildes, cédulas parciales y errores de tipeo. El índice se
+ * construye en el setup; se mide solo la consulta de una página.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Threads(4)
+public class BusquedaSociosBenchmark {
+
+    private static final String[] CONSULTAS = {"m", "mar", "maria", "María Gó", "jose perez", "munoz",
+            "Rodrigues", "sanchez diaz luis", "1000", "10.000.123", "zzz"};
+    private static final int TAMANO_PAGINA = 20;
+
+    @Param({"PEQUENA", "MEDIANA", "GRANDE"})
+    private DatosSinteticos.Escala escala;
+
+    private Path directorio;
+    private GimnasioService servicio;
+    private final AtomicInteger siguiente = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException, InterruptedException {
+        directorio = DatosSinteticos.directorioTemporal("busqueda");
+        DatosSinteticos.escribir(directorio, DatosSinteticos.socios(escala.socios, 0.2), DatosSinteticos.clases(0, 0));
+        servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        // El índice se construye en segundo plano al abrir el servicio
+        if (!servicio.esperarIndiceBusqueda(TimeUnit.MINUTES.toMillis(5))) {
+            throw new IllegalStateException("El índice de búsqueda no terminó de construirse");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() {
+        servicio.cerrar();
+        DatosSinteticos.borrarDirectorio(directorio);
+    }
+
+    @Benchmark
+    public List<Socio> primeraPagina() {
+        return servicio.buscarSocios(CONSULTAS[Math.floorMod(siguiente.getAndIncrement(), CONSULTAS.length)],
+                0, TAMANO_PAGINA);
+    }
+
+    @Benchmark
+    public List<Socio> terceraPagina() {
+        return servicio.buscarSocios(CONSULTAS[Math.floorMod(siguiente.getAndIncrement(), CONSULTAS.length)],
+                2 * TAMANO_PAGINA, TAMANO_PAGINA);
+    }
+}
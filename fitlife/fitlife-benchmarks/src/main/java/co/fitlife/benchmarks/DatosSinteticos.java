@@ -0,0 +1,128 @@
+package co.fitlife.benchmarks;
+
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.Socio;
+import co.fitlife.persistence.ClaseGrupalCodec;
+import co.fitlife.persistence.GestorArchivos;
+import co.fitlife.persistence.SocioCodec;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Datos sintéticos deterministas (misma semilla, mismos datos) para los benchmarks.
+ */
+public final class DatosSinteticos {
+
+    /**
+     * Tamaños de gimnasio: de una sede pequeña a una cadena grande.
+     */
+    public enum Escala {
+        PEQUENA(1_000, 100),
+        MEDIANA(100_000, 10_000),
+        GRANDE(1_000_000, 100_000);
+
+        public final int socios;
+        public final int clases;
+
+        Escala(int socios, int clases) {
+            this.socios = socios;
+            this.clases = clases;
+        }
+    }
+
+    private static final long SEMILLA = 20240601L;
+
+    private static final String[] NOMBRES = {"Ana", "Luis", "María", "José", "Camila", "Andrés", "Valentina",
+            "Santiago", "Daniela", "Juan", "Laura", "Carlos", "Sofía", "Felipe", "Paula", "Mateo"};
+    private static final String[] APELLIDOS = {"Gómez", "Rodríguez", "Martínez", "López", "García", "Pérez",
+            "Hernández", "Sánchez", "Ramírez", "Torres", "Díaz", "Vargas", "Castro", "Rojas", "Muñoz", "Ortiz"};
+    private static final String[] CLASES = {"Yoga", "CrossFit", "Spinning", "Pilates", "Zumba", "Funcional",
+            "Boxeo", "Natación", "TRX", "Stretching"};
+
+    private DatosSinteticos() {
+    }
+
+    /**
+     * Socios con cédulas únicas y consecutivas a partir de 10.000.000.
+     * @param fraccionVencidos Proporción de socios con la membresía vencida (0 a 1).
+     */
+    public static List<Socio> socios(int cantidad, double fraccionVencidos) {
+        Random random = new Random(SEMILLA);
+        LocalDate hoy = LocalDate.now();
+        List<Socio> socios = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            String nombre = NOMBRES[random.nextInt(NOMBRES.length)] + " "
+                    + APELLIDOS[random.nextInt(APELLIDOS.length)] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)];
+            LocalDate vence = random.nextDouble() < fraccionVencidos
+                    ? hoy.minusDays(1 + random.nextInt(365))
+                    : hoy.plusDays(1 + random.nextInt(365));
+            socios.add(new Socio(new UUID(SEMILLA, i), cedula(i), nombre, vence));
+        }
+        return socios;
+    }
+
+    public static String cedula(int indice) {
+        return String.valueOf(10_000_000 + indice);
+    }
+
+    /**
+     * Clases sin reservas repartidas cada 30 minutos desde mañana a las 6:00.
+     * @param capacidad Cupo de cada clase.
+     */
+    public static List<ClaseGrupal> clases(int cantidad, int capacidad) {
+        Random random = new Random(SEMILLA + 1);
+        LocalDateTime inicio = LocalDate.now().plusDays(1).atTime(6, 0);
+        List<ClaseGrupal> clases = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            String nombre = CLASES[random.nextInt(CLASES.length)];
+            clases.add(new ClaseGrupal(new UUID(SEMILLA + 1, i), nombre, inicio.plusMinutes(30L * i), capacidad, 0));
+        }
+        return clases;
+    }
+
+    /**
+     * Escribe socios.dat y clases.dat de la escala en el directorio, como los dejaría la aplicación.
+     */
+    public static void escribir(Path directorio, List<Socio> socios, List<ClaseGrupal> clases) throws IOException {
+        Files.createDirectories(directorio);
+        GestorArchivos.guardarDatos(new File(directorio.toFile(), "socios.dat").getPath(), socios, new SocioCodec());
+        GestorArchivos.guardarDatos(new File(directorio.toFile(), "clases.dat").getPath(), clases, new ClaseGrupalCodec());
+    }
+
+    public static Path directorioTemporal(String prefijo) {
+        try {
+            return Files.createTempDirectory("fitlife-" + prefijo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Borra un archivo del directorio de datos si existe.
+     */
+    public static void borrar(Path directorio, String nombre) throws IOException {
+        Files.deleteIfExists(directorio.resolve(nombre));
+    }
+
+    public static void borrarDirectorio(Path directorio) {
+        if (directorio == null || !Files.exists(directorio)) {
+            return;
+        }
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("No se pudo borrar " + directorio + ": " + e.getMessage());
+        }
+    }
+}
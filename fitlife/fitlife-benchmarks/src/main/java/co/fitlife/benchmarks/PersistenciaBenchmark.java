@@ -0,0 +1,102 @@
+package co.fitlife.benchmarks;
+
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.Socio;
+import co.fitlife.persistence.ClaseGrupalCodec;
+import co.fitlife.persistence.GestorArchivos;
+import co.fitlife.persistence.SocioCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guardado y carga de las instantáneas con {@link GestorArchivos}: formato binario por codec y,
+ * como referencia, la serialización Java original.
+ *
+ * Modo SampleTime para ver percentiles (p50, p99...) y Throughput para operaciones por segundo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class PersistenciaBenchmark {
+
+    private static final SocioCodec CODEC_SOCIO = new SocioCodec();
+    private static final ClaseGrupalCodec CODEC_CLASE = new ClaseGrupalCodec();
+
+    @Param({"PEQUENA", "MEDIANA", "GRANDE"})
+    private DatosSinteticos.Escala escala;
+
+    private Path directorio;
+    private List<Socio> socios;
+    private List<ClaseGrupal> clases;
+    private String archivoSocios;
+    private String archivoClases;
+    private String archivoSerializado;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        directorio = DatosSinteticos.directorioTemporal("persistencia");
+        socios = DatosSinteticos.socios(escala.socios, 0.2);
+        clases = DatosSinteticos.clases(escala.clases, 20);
+        archivoSocios = directorio.resolve("socios.dat").toString();
+        archivoClases = directorio.resolve("clases.dat").toString();
+        archivoSerializado = directorio.resolve("socios.ser").toString();
+
+        // Los benchmarks de carga leen lo que dejan escrito estos guardados
+        GestorArchivos.guardarDatos(archivoSocios, socios, CODEC_SOCIO);
+        GestorArchivos.guardarDatos(archivoClases, clases, CODEC_CLASE);
+        GestorArchivos.guardarDatos(archivoSerializado, socios);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() {
+        DatosSinteticos.borrarDirectorio(directorio);
+    }
+
+    @Benchmark
+    public void guardarSocios() throws IOException {
+        GestorArchivos.guardarDatos(archivoSocios, socios, CODEC_SOCIO);
+    }
+
+    @Benchmark
+    public List<Socio> cargarSocios() {
+        return GestorArchivos.cargarDatos(archivoSocios, CODEC_SOCIO);
+    }
+
+    @Benchmark
+    public void guardarClases() throws IOException {
+        GestorArchivos.guardarDatos(archivoClases, clases, CODEC_CLASE);
+    }
+
+    @Benchmark
+    public List<ClaseGrupal> cargarClases() {
+        return GestorArchivos.cargarDatos(archivoClases, CODEC_CLASE);
+    }
+
+    @Benchmark
+    public void guardarSociosSerializacionJava() throws IOException {
+        GestorArchivos.guardarDatos(archivoSerializado, socios);
+    }
+
+    @Benchmark
+    public List<Socio> cargarSociosSerializacionJava() {
+        return GestorArchivos.cargarDatos(archivoSerializado);
+    }
+}
@@ -0,0 +1,132 @@
+package co.fitlife.benchmarks;
+
+import co.fitlife.api.ServidorApi;
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.services.GimnasioService;
+import co.fitlife.services.ModoAlmacen;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga de la API HTTP simulando el pico de la mañana: muchos clientes concurrentes
+ * haciendo check-in (RN01) y una parte reservando clases (RN02).
+ *
+ * Sin argumentos levanta una instancia local con datos sintéticos (escala MEDIANA) en un
+ * directorio temporal. Con una URL, prueba contra una instancia ya levantada cuyos socios tengan
+ * las cédulas de {@link DatosSinteticos} (por ejemplo, importados desde un CSV generado).
+ *
+ * Uso: java -cp target/benchmarks.jar co.fitlife.benchmarks.PruebaCargaApi
+ *          [clientes=2000] [solicitudes=200000] [porcentajeReservas=10] [url]
+ */
+public class PruebaCargaApi {
+
+    public static void main(String[] args) throws Exception {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int solicitudes = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int porcentajeReservas = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        String url = args.length > 3 ? args[3] : null;
+
+        DatosSinteticos.Escala escala = DatosSinteticos.Escala.MEDIANA;
+        Path directorio = null;
+        GimnasioService servicio = null;
+        ServidorApi api = null;
+        if (url == null) {
+            directorio = DatosSinteticos.directorioTemporal("carga");
+            DatosSinteticos.escribir(directorio, DatosSinteticos.socios(escala.socios, 0.1),
+                    DatosSinteticos.clases(escala.clases, 50));
+            servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+            api = new ServidorApi(servicio, 0);
+            api.iniciar();
+            url = "http://localhost:" + api.getPuerto();
+            System.out.println("Instancia local en " + url + " con " + escala.socios + " socios");
+        }
+
+        // Las primeras clases del rango concentran las reservas, como las de la mañana
+        List<ClaseGrupal> clases = DatosSinteticos.clases(Math.min(escala.clases, 20), 50);
+        try {
+            ejecutar(URI.create(url), clientes, solicitudes, porcentajeReservas, escala.socios, clases);
+        } finally {
+            if (api != null) {
+                api.detener();
+                servicio.cerrar();
+                DatosSinteticos.borrarDirectorio(directorio);
+            }
+        }
+    }
+
+    private static void ejecutar(URI base, int clientes, int solicitudes, int porcentajeReservas,
+                                 int socios, List<ClaseGrupal> clases) throws InterruptedException {
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        long[] latencias = new long[solicitudes];
+        AtomicInteger siguiente = new AtomicInteger();
+        Map<Integer, LongAdder> porCodigo = new ConcurrentHashMap<>();
+        LongAdder errores = new LongAdder();
+
+        long inicio = System.nanoTime();
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientes; c++) {
+                hilos.submit(() -> {
+                    int i;
+                    while ((i = siguiente.getAndIncrement()) < solicitudes) {
+                        ThreadLocalRandom azar = ThreadLocalRandom.current();
+                        String cedula = DatosSinteticos.cedula(azar.nextInt(socios));
+                        HttpRequest solicitud;
+                        if (azar.nextInt(100) < porcentajeReservas) {
+                            ClaseGrupal clase = clases.get(azar.nextInt(clases.size()));
+                            solicitud = HttpRequest.newBuilder(base.resolve("/api/reservas"))
+                                    .POST(HttpRequest.BodyPublishers.ofString(
+                                            "{\"cedula\":\"" + cedula + "\",\"claseId\":\"" + clase.getId() + "\"}"))
+                                    .build();
+                        } else {
+                            solicitud = HttpRequest.newBuilder(base.resolve("/api/socios/" + cedula + "/acceso")).build();
+                        }
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<Void> respuesta = cliente.send(solicitud, HttpResponse.BodyHandlers.discarding());
+                            porCodigo.computeIfAbsent(respuesta.statusCode(), k -> new LongAdder()).increment();
+                        } catch (Exception e) {
+                            errores.increment();
+                        }
+                        latencias[i] = System.nanoTime() - t0;
+                    }
+                    return null;
+                });
+            }
+        }
+        long total = System.nanoTime() - inicio;
+
+        Arrays.sort(latencias);
+        System.out.printf("%d solicitudes, %d clientes concurrentes, %.1f s%n", solicitudes, clientes, total / 1e9);
+        System.out.printf("Rendimiento: %.0f solicitudes/s%n", solicitudes / (total / 1e9));
+        System.out.printf("Latencia (ms): p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f máx=%.2f%n",
+                percentil(latencias, 50), percentil(latencias, 90), percentil(latencias, 99),
+                percentil(latencias, 99.9), latencias[latencias.length - 1] / 1e6);
+        Map<Integer, Long> codigos = new TreeMap<>();
+        porCodigo.forEach((codigo, cantidad) -> codigos.put(codigo, cantidad.sum()));
+        System.out.println("Códigos HTTP: " + codigos + (errores.sum() > 0 ? ", errores de conexión: " + errores.sum() : ""));
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        int i = (int) Math.ceil(p / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(ordenadas.length - 1, i))] / 1e6;
+    }
+}
@@ -0,0 +1,86 @@
+package co.fitlife.benchmarks;
+
+import co.fitlife.model.Socio;
+import co.fitlife.services.GimnasioService;
+import co.fitlife.services.ModoAlmacen;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RF01 en {@link GimnasioService#registrarSocio}: validación de unicidad de la cédula contra una base
+ * ya cargada, tanto para cédulas repetidas (rechazo) como nuevas (alta completa con diario).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Threads(4)
+public class RegistroSocioBenchmark {
+
+    @Param({"PEQUENA", "MEDIANA", "GRANDE"})
+    private DatosSinteticos.Escala escala;
+
+    @Param({"MEMORIA", "MAPEADO"})
+    private ModoAlmacen modo;
+
+    private Path directorio;
+    private GimnasioService servicio;
+    // Las cédulas nuevas siguen a las de la escala, así nunca chocan
+    private final AtomicInteger siguienteCedula = new AtomicInteger();
+    private final AtomicInteger siguienteExistente = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        directorio = DatosSinteticos.directorioTemporal("registro");
+        DatosSinteticos.escribir(directorio, DatosSinteticos.socios(escala.socios, 0.2), DatosSinteticos.clases(0, 0));
+        servicio = new GimnasioService(modo, directorio.toString());
+        siguienteCedula.set(escala.socios);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() {
+        servicio.cerrar();
+        DatosSinteticos.borrarDirectorio(directorio);
+    }
+
+    @Benchmark
+    public Exception registrarCedulaExistente() {
+        int indice = Math.floorMod(siguienteExistente.getAndIncrement(), escala.socios);
+        try {
+            servicio.registrarSocio(DatosSinteticos.cedula(indice), "Repetido");
+        } catch (Exception e) {
+            return e;
+        }
+        throw new IllegalStateException("Se aceptó una cédula repetida");
+    }
+
+    @Benchmark
+    public void registrarSocioNuevo() throws Exception {
+        servicio.registrarSocio(DatosSinteticos.cedula(siguienteCedula.getAndIncrement()), "Socio Nuevo");
+    }
+
+    @Benchmark
+    public Optional<Socio> buscarPorCedula() {
+        int indice = Math.floorMod(siguienteExistente.getAndIncrement(), escala.socios);
+        return servicio.buscarSocioPorCedula(DatosSinteticos.cedula(indice));
+    }
+}
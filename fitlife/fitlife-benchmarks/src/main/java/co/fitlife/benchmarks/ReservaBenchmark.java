@@ -0,0 +1,164 @@
+package co.fitlife.benchmarks;
+
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.Reserva;
+import co.fitlife.model.Socio;
+import co.fitlife.persistence.ClaseGrupalCodec;
+import co.fitlife.persistence.GestorArchivos;
+import co.fitlife.services.GimnasioService;
+import co.fitlife.services.ModoAlmacen;
+import co.fitlife.services.ModoLote;
+import co.fitlife.services.ResultadoLote;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RF04 en {@link GimnasioService#realizarReserva} con varios hilos reservando a la vez sobre pocas
+ * clases ("calientes"), que es donde compiten los reclamos de cupo (RN02) y el diario.
+ *
+ * Cada iteración parte de un servicio recién abierto sin reservas. Si los pares socio/clase se agotan
+ * antes de terminar la iteración, las reservas siguientes se rechazan por duplicadas: los contadores
+ * "aceptadas" y "rechazadas" muestran cuántas de las operaciones medidas fueron de cada tipo.
+ * Ajustar la cantidad de hilos con -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Threads(8)
+public class ReservaBenchmark {
+
+    // Un entrenador o grupo corporativo típico
+    private static final int TAMANO_LOTE = 200;
+
+    // Socios activos disponibles para reservar; cada par socio/clase se puede reservar una vez
+    @Param({"1000000"})
+    private int socios;
+
+    @Param({"1", "16", "1024"})
+    private int clasesCalientes;
+
+    private Path directorio;
+    private GimnasioService servicio;
+    private Socio[] sociosActivos;
+    private ClaseGrupal[] clases;
+    private ClaseGrupal claseLlena;
+    private final AtomicLong siguientePar = new AtomicLong();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Resultados {
+        public long aceptadas;
+        public long rechazadas;
+    }
+
+    @Setup(Level.Trial)
+    public void prepararDatos() throws IOException {
+        directorio = DatosSinteticos.directorioTemporal("reservas");
+        DatosSinteticos.escribir(directorio, DatosSinteticos.socios(socios, 0), clasesIniciales());
+    }
+
+    /**
+     * Vuelve a dejar las clases sin reservas y abre un servicio nuevo sobre esos datos.
+     */
+    @Setup(Level.Iteration)
+    public void abrirServicio() throws IOException {
+        if (servicio != null) {
+            servicio.cerrar();
+        }
+        DatosSinteticos.borrar(directorio, "reservas.dat");
+        DatosSinteticos.borrar(directorio, "cambios.journal");
+        DatosSinteticos.borrar(directorio, "cambios.journal.anterior");
+        GestorArchivos.guardarDatos(directorio.resolve("clases.dat").toString(), clasesIniciales(), new ClaseGrupalCodec());
+
+        servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        sociosActivos = servicio.getSocios().toArray(new Socio[0]);
+        List<ClaseGrupal> todas = servicio.getClases();
+        clases = todas.subList(0, clasesCalientes).toArray(new ClaseGrupal[0]);
+        claseLlena = todas.get(clasesCalientes);
+        siguientePar.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() {
+        servicio.cerrar();
+        DatosSinteticos.borrarDirectorio(directorio);
+    }
+
+    @Benchmark
+    public void reservar(Resultados resultados) {
+        long par = siguientePar.getAndIncrement();
+        Socio socio = sociosActivos[(int) (par % sociosActivos.length)];
+        ClaseGrupal clase = clases[(int) ((par / sociosActivos.length) % clases.length)];
+        try {
+            servicio.realizarReserva(socio, clase);
+            resultados.aceptadas++;
+        } catch (Exception e) {
+            resultados.rechazadas++;
+        }
+    }
+
+    /**
+     * Camino de rechazo de RN02: todos los hilos intentan reservar en una clase sin cupo.
+     */
+    @Benchmark
+    public void reservarClaseLlena(Resultados resultados) {
+        long par = siguientePar.getAndIncrement();
+        Socio socio = sociosActivos[(int) (par % sociosActivos.length)];
+        try {
+            servicio.realizarReserva(socio, claseLlena);
+            resultados.aceptadas++;
+        } catch (Exception e) {
+            resultados.rechazadas++;
+        }
+    }
+
+    /**
+     * RF04 en lote ({@link GimnasioService#realizarReservas}): 200 pares validados y registrados en
+     * el diario de una sola vez. Se mide por reserva, para compararlo directamente con {@link #reservar}.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TAMANO_LOTE)
+    public void reservarLote(Resultados resultados) throws IOException {
+        long inicio = siguientePar.getAndAdd(TAMANO_LOTE);
+        List<Reserva> lote = new ArrayList<>(TAMANO_LOTE);
+        for (long par = inicio; par < inicio + TAMANO_LOTE; par++) {
+            Socio socio = sociosActivos[(int) (par % sociosActivos.length)];
+            ClaseGrupal clase = clases[(int) ((par / sociosActivos.length) % clases.length)];
+            lote.add(new Reserva(socio.getId(), clase.getId()));
+        }
+        ResultadoLote resultado = servicio.realizarReservas(lote, ModoLote.PARCIAL);
+        resultados.aceptadas += resultado.getConfirmadas();
+        resultados.rechazadas += resultado.getRechazadas();
+    }
+
+    // Las clases calientes tienen cupo de sobra; la siguiente tiene cupo 0 (siempre llena)
+    private List<ClaseGrupal> clasesIniciales() {
+        List<ClaseGrupal> iniciales = DatosSinteticos.clases(clasesCalientes + 1, Integer.MAX_VALUE);
+        ClaseGrupal ultima = iniciales.get(clasesCalientes);
+        iniciales.set(clasesCalientes, new ClaseGrupal(ultima.getId(), ultima.getNombreClase(), ultima.getHorario(), 0, 0));
+        return iniciales;
+    }
+}
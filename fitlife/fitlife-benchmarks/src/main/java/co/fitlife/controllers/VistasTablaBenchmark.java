@@ -0,0 +1,118 @@
+package co.fitlife.controllers;
+
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.Socio;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.value.ObservableValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de pintar un "fotograma" de scroll: las filas visibles de ambas tablas, columna por columna,
+ * con las fábricas de celdas anteriores (una propiedad, un formateador y un LocalDate.now() por celda)
+ * y con {@link VistasTabla}. Cada invocación avanza una pantalla, como al hacer scroll.
+ *
+ * Las asignaciones por fotograma se ven con {@code -prof gc} (gc.alloc.rate.norm).
+ * No crea controles de JavaFX: llama a las fábricas como lo hace la tabla, sin necesitar el toolkit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VistasTablaBenchmark {
+
+    @Param({"50000"})
+    private int filas;
+
+    // Filas visibles en una tabla de la ventana principal
+    @Param({"40"})
+    private int filasVisibles;
+
+    private Socio[] socios;
+    private ClaseGrupal[] clases;
+    private VistasTabla vistas;
+    private int desplazamiento;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        socios = new Socio[filas];
+        clases = new ClaseGrupal[filas];
+        LocalDate hoy = LocalDate.now();
+        LocalDateTime inicio = hoy.atTime(6, 0);
+        for (int i = 0; i < filas; i++) {
+            // La mitad de los socios vencidos, para ejercitar ambos estados
+            socios[i] = new Socio(UUID.randomUUID(), String.valueOf(10_000_000 + i), "Socio " + i,
+                    hoy.plusDays((i % 60) - 30));
+            clases[i] = new ClaseGrupal(UUID.randomUUID(), "Clase " + (i % 50), inicio.plusMinutes(30L * i),
+                    20, i % 21);
+        }
+        vistas = new VistasTabla();
+        desplazamiento = 0;
+    }
+
+    @Benchmark
+    public void fotogramaAnterior(Blackhole bh) {
+        int desde = siguientePantalla();
+        for (int i = desde; i < desde + filasVisibles; i++) {
+            Socio socio = socios[i];
+            bh.consume(new SimpleStringProperty(socio.getCedula()));
+            bh.consume(new SimpleStringProperty(socio.getNombre()));
+            bh.consume(new SimpleStringProperty(socio.getFechaVencimiento().toString()));
+            bh.consume(new SimpleStringProperty(socio.esActivo() ? "ACTIVO ✅" : "VENCIDO ❌"));
+
+            ClaseGrupal clase = clases[i];
+            bh.consume(new SimpleStringProperty(clase.getNombreClase()));
+            bh.consume(new SimpleStringProperty(
+                    clase.getHorario().format(DateTimeFormatter.ofPattern("dd/MM HH:mm"))));
+            bh.consume(new SimpleStringProperty(clase.getReservasActuales() + "/" + clase.getCapacidadMaxima()));
+        }
+    }
+
+    @Benchmark
+    public void fotogramaCacheado(Blackhole bh) {
+        int desde = siguientePantalla();
+        for (int i = desde; i < desde + filasVisibles; i++) {
+            Socio socio = socios[i];
+            consumir(bh, vistas.de(socio).cedula());
+            consumir(bh, vistas.de(socio).nombre());
+            consumir(bh, vistas.de(socio).vencimiento());
+            consumir(bh, vistas.de(socio).estado());
+
+            ClaseGrupal clase = clases[i];
+            consumir(bh, vistas.de(clase).nombre());
+            consumir(bh, vistas.de(clase).horario());
+            consumir(bh, vistas.de(clase).cupo());
+        }
+    }
+
+    private static void consumir(Blackhole bh, ObservableValue<String> valor) {
+        bh.consume(valor.getValue());
+    }
+
+    private int siguientePantalla() {
+        int desde = desplazamiento;
+        desplazamiento += filasVisibles;
+        if (desplazamiento + filasVisibles > filas) {
+            desplazamiento = 0;
+        }
+        return desde;
+    }
+}
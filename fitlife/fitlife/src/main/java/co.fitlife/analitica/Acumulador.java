@@ -0,0 +1,26 @@
+package co.fitlife.analitica;
+
+/**
+ * Sumas mutables detrás de una {@link Ocupacion}. Sin sincronización propia: la protege
+ * {@link AgregadosOcupacion}.
+ */
+final class Acumulador {
+
+    long clases;
+    long capacidad;
+    long reservas;
+
+    void sumar(long clases, long capacidad, long reservas) {
+        this.clases += clases;
+        this.capacidad += capacidad;
+        this.reservas += reservas;
+    }
+
+    void sumar(Acumulador otro) {
+        sumar(otro.clases, otro.capacidad, otro.reservas);
+    }
+
+    Ocupacion aOcupacion() {
+        return new Ocupacion(clases, capacidad, reservas);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,257 @@
+package co.fitlife.analitica;
+
+import co.fitlife.model.ClaseGrupal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Ocupación de las clases agregada por nombre de clase, franja horaria (hora de inicio), día de
+ * la semana y el cruce día × hora (mapa de calor), mantenida al día con cada cambio.
+ *
+ * Cada clase registrada recuerda cuántas reservas y cupos tenía la última vez, así volver a
+ * registrarla (tras una reserva o una ampliación de cupo, por ejemplo) suma solo la diferencia.
+ * Las consultas leen sumas ya hechas y no dependen de cuántas clases haya. El cálculo completo desde una lista de clases se reparte
+ * con fork/join ({@link #recalcular(List)}).
+ */
+public class AgregadosOcupacion {
+
+    public static final int DIAS = 7;
+    public static final int FRANJAS = 24;
+
+    // Cantidad de clases que procesa cada tarea del recálculo sin volver a dividir
+    private static final int UMBRAL_RECALCULO = 4096;
+
+    private final Acumulador total = new Acumulador();
+    private final Acumulador[] porDia = nuevos(DIAS);
+    private final Acumulador[] porFranja = nuevos(FRANJAS);
+    // Índice: dia * FRANJAS + hora
+    private final Acumulador[] mapaCalor = nuevos(DIAS * FRANJAS);
+    // Clave normalizada -> acumulador; el nombre visible es el primero que se vio
+    private final Map<String, Acumulador> porNombre = new HashMap<>();
+    private final Map<String, String> nombreVisible = new HashMap<>();
+    private Map<UUID, Vista> clasesVistas = new HashMap<>();
+
+    /**
+     * Agrega la clase a los totales, o aplica la diferencia de reservas y de capacidad si ya
+     * estaba registrada.
+     */
+    public synchronized void registrar(ClaseGrupal clase) {
+        int reservas = clase.getReservasActuales();
+        int capacidad = clase.getCapacidadMaxima();
+        Vista anterior = clasesVistas.get(clase.getId());
+        if (anterior == null) {
+            clasesVistas.put(clase.getId(), new Vista(reservas, capacidad));
+            sumar(clase, 1, capacidad, reservas);
+        } else if (anterior.reservas != reservas || anterior.capacidad != capacidad) {
+            sumar(clase, 0, capacidad - anterior.capacidad, reservas - anterior.reservas);
+            anterior.reservas = reservas;
+            anterior.capacidad = capacidad;
+        }
+    }
+
+    /**
+     * Resta de los totales lo que aportaron las clases (por ejemplo, al archivarlas), con las
+     * reservas y el cupo de la última vez que se registraron. Así los totales coinciden con un
+     * recálculo desde las clases que quedan. Las que no estaban registradas se ignoran.
+     */
+    public synchronized void quitar(Collection<ClaseGrupal> clases) {
+        for (ClaseGrupal clase : clases) {
+            Vista anterior = clasesVistas.remove(clase.getId());
+            if (anterior != null) {
+                sumar(clase, -1, -anterior.capacidad, -anterior.reservas);
+                // Un nombre sin clases no aparece en un recálculo
+                String clave = clave(clase.getNombreClase());
+                if (porNombre.get(clave).clases == 0) {
+                    porNombre.remove(clave);
+                    nombreVisible.remove(clave);
+                }
+            }
+        }
+    }
+
+    /**
+     * Incorpora los totales de otro agregado con clases distintas (por ejemplo, un tramo del
+     * recálculo en paralelo). Las clases del otro agregado no quedan registradas en este: si
+     * cambian después, hay que recalcular.
+     */
+    public synchronized void combinar(AgregadosOcupacion otro) {
+        synchronized (otro) {
+            total.sumar(otro.total);
+            sumarTodos(porDia, otro.porDia);
+            sumarTodos(porFranja, otro.porFranja);
+            sumarTodos(mapaCalor, otro.mapaCalor);
+            for (Map.Entry<String, Acumulador> entrada : otro.porNombre.entrySet()) {
+                nombreVisible.putIfAbsent(entrada.getKey(), otro.nombreVisible.get(entrada.getKey()));
+                porNombre.computeIfAbsent(entrada.getKey(), k -> new Acumulador()).sumar(entrada.getValue());
+            }
+        }
+    }
+
+    /**
+     * Calcula los agregados de todas las clases de la lista repartiendo el trabajo en el pool
+     * común de fork/join. Pensado para el cálculo inicial o para recalcular el histórico completo.
+     */
+    public static AgregadosOcupacion recalcular(List<ClaseGrupal> clases) {
+        AgregadosOcupacion agregados = ForkJoinPool.commonPool().invoke(new Recalculo(clases, 0, clases.size()));
+        // Los tramos solo suman; las reservas vistas se anotan una vez al final en lugar de
+        // copiarlas en cada combinación
+        Map<UUID, Vista> vistas = new HashMap<>(Math.max(16, clases.size() * 4 / 3 + 1));
+        for (ClaseGrupal clase : clases) {
+            vistas.put(clase.getId(), new Vista(clase.getReservasActuales(), clase.getCapacidadMaxima()));
+        }
+        synchronized (agregados) {
+            agregados.clasesVistas = vistas;
+        }
+        return agregados;
+    }
+
+    // --- Consultas ---
+
+    public synchronized Ocupacion getTotal() {
+        return total.aOcupacion();
+    }
+
+    public synchronized Ocupacion getPorDia(DayOfWeek dia) {
+        return porDia[dia.ordinal()].aOcupacion();
+    }
+
+    /**
+     * @param hora Hora de inicio de las clases, de 0 a 23.
+     */
+    public synchronized Ocupacion getPorFranja(int hora) {
+        return porFranja[hora].aOcupacion();
+    }
+
+    public synchronized Ocupacion getPorDiaYFranja(DayOfWeek dia, int hora) {
+        return mapaCalor[dia.ordinal() * FRANJAS + hora].aOcupacion();
+    }
+
+    /**
+     * Ocupación de las clases con ese nombre, sin distinguir mayúsculas ni espacios en los extremos.
+     */
+    public synchronized Ocupacion getPorNombre(String nombre) {
+        Acumulador acumulador = porNombre.get(clave(nombre));
+        return acumulador == null ? Ocupacion.VACIA : acumulador.aOcupacion();
+    }
+
+    /**
+     * Ocupación de cada nombre de clase, ordenada por nombre.
+     */
+    public synchronized Map<String, Ocupacion> getPorNombre() {
+        Map<String, Ocupacion> resultado = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, Acumulador> entrada : porNombre.entrySet()) {
+            resultado.put(nombreVisible.get(entrada.getKey()), entrada.getValue().aOcupacion());
+        }
+        return resultado;
+    }
+
+    /**
+     * Tasa de ocupación por día de la semana (fila, lunes = 0) y hora de inicio (columna).
+     */
+    public synchronized double[][] getMapaCalor() {
+        double[][] tasas = new double[DIAS][FRANJAS];
+        for (int dia = 0; dia < DIAS; dia++) {
+            for (int hora = 0; hora < FRANJAS; hora++) {
+                tasas[dia][hora] = mapaCalor[dia * FRANJAS + hora].aOcupacion().getTasa();
+            }
+        }
+        return tasas;
+    }
+
+    // --- Internos ---
+
+    private void sumar(ClaseGrupal clase, long clases, long capacidad, long reservas) {
+        total.sumar(clases, capacidad, reservas);
+        String clave = clave(clase.getNombreClase());
+        nombreVisible.putIfAbsent(clave, clase.getNombreClase().trim());
+        porNombre.computeIfAbsent(clave, k -> new Acumulador()).sumar(clases, capacidad, reservas);
+
+        LocalDateTime horario = clase.getHorario();
+        if (horario != null) {
+            int dia = horario.getDayOfWeek().ordinal();
+            int hora = horario.getHour();
+            porDia[dia].sumar(clases, capacidad, reservas);
+            porFranja[hora].sumar(clases, capacidad, reservas);
+            mapaCalor[dia * FRANJAS + hora].sumar(clases, capacidad, reservas);
+        }
+    }
+
+    private static String clave(String nombre) {
+        return nombre == null ? "" : nombre.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Acumulador[] nuevos(int cantidad) {
+        Acumulador[] acumuladores = new Acumulador[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            acumuladores[i] = new Acumulador();
+        }
+        return acumuladores;
+    }
+
+    private static void sumarTodos(Acumulador[] destino, Acumulador[] origen) {
+        for (int i = 0; i < destino.length; i++) {
+            destino[i].sumar(origen[i]);
+        }
+    }
+
+    // Reservas y capacidad de una clase la última vez que se registró
+    private static final class Vista {
+        int reservas;
+        int capacidad;
+
+        Vista(int reservas, int capacidad) {
+            this.reservas = reservas;
+            this.capacidad = capacidad;
+        }
+    }
+
+    /**
+     * Divide la lista a la mitad hasta tramos de {@link #UMBRAL_RECALCULO} clases, agrega cada
+     * tramo por separado y combina los resultados.
+     */
+    private static final class Recalculo extends RecursiveTask<AgregadosOcupacion> {
+
+        private static final long serialVersionUID = 1L;
+
+        // La tarea nunca se serializa: solo se reparte entre los hilos del pool
+        private final transient List<ClaseGrupal> clases;
+        private final int desde;
+        private final int hasta;
+
+        Recalculo(List<ClaseGrupal> clases, int desde, int hasta) {
+            this.clases = clases;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected AgregadosOcupacion compute() {
+            if (hasta - desde <= UMBRAL_RECALCULO) {
+                AgregadosOcupacion agregados = new AgregadosOcupacion();
+                synchronized (agregados) {
+                    for (int i = desde; i < hasta; i++) {
+                        ClaseGrupal clase = clases.get(i);
+                        agregados.sumar(clase, 1, clase.getCapacidadMaxima(), clase.getReservasActuales());
+                    }
+                }
+                return agregados;
+            }
+            int medio = (desde + hasta) >>> 1;
+            Recalculo izquierda = new Recalculo(clases, desde, medio);
+            izquierda.fork();
+            AgregadosOcupacion derecha = new Recalculo(clases, medio, hasta).compute();
+            AgregadosOcupacion resultado = izquierda.join();
+            resultado.combinar(derecha);
+            return resultado;
+        }
+    }
+}
\ No newline at end of file
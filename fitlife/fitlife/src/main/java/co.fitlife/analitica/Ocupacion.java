@@ -0,0 +1,46 @@
+package co.fitlife.analitica;
+
+import java.util.Locale;
+
+/**
+ * Ocupación acumulada de un grupo de clases (por nombre, franja horaria, día o total):
+ * cuántas clases hubo, cuántos cupos ofrecieron y cuántos se reservaron.
+ */
+public final class Ocupacion {
+
+    public static final Ocupacion VACIA = new Ocupacion(0, 0, 0);
+
+    private final long clases;
+    private final long capacidad;
+    private final long reservas;
+
+    public Ocupacion(long clases, long capacidad, long reservas) {
+        this.clases = clases;
+        this.capacidad = capacidad;
+        this.reservas = reservas;
+    }
+
+    public long getClases() { return clases; }
+    public long getCapacidad() { return capacidad; }
+    public long getReservas() { return reservas; }
+
+    /**
+     * Fracción de los cupos ofrecidos que se reservó, entre 0 y 1 (0 si no hubo cupos).
+     */
+    public double getTasa() {
+        return capacidad == 0 ? 0 : (double) reservas / capacidad;
+    }
+
+    /**
+     * Reservas promedio por clase (0 si no hubo clases).
+     */
+    public double getReservasPorClase() {
+        return clases == 0 ? 0 : (double) reservas / clases;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "clases=%d cupos=%d reservas=%d ocupación=%.1f%%",
+                clases, capacidad, reservas, getTasa() * 100);
+    }
+}
\ No newline at end of file
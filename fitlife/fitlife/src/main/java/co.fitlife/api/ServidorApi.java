@@ -0,0 +1,500 @@
+package co.fitlife.api;
+
+import co.fitlife.analitica.AgregadosOcupacion;
+import co.fitlife.analitica.Ocupacion;
+import co.fitlife.metricas.Metricas;
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.Reserva;
+import co.fitlife.model.Socio;
+import co.fitlife.persistence.JsonPlano;
+import co.fitlife.services.DiaActual;
+import co.fitlife.services.GimnasioService;
+import co.fitlife.services.ModoLote;
+import co.fitlife.services.ReglaNegocioException;
+import co.fitlife.services.ResultadoLote;
+import co.fitlife.services.ResultadoReserva;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * API HTTP/JSON para kioscos, molinetes y la app de reservas, sobre el servidor HTTP del JDK.
+ * Cada solicitud se atiende en su propio hilo virtual, así miles de check-in simultáneos no
+ * agotan un pool de hilos.
+ *
+ * GET  /api/socios?buscar=&desde=&limite=  Búsqueda por cédula o nombre, por relevancia y paginada.
+ * GET  /api/socios/{cedula}         Datos del socio.
+ * GET  /api/socios/{cedula}/acceso  Validación de membresía (RN01) para el check-in.
+ * GET  /api/clases?desde=&hasta=&limite=  Clases programadas en el rango (por defecto, los próximos 7 días).
+ *                                   Con historico=true incluye las clases archivadas (reportes).
+ * POST /api/reservas                {"cedula": "...", "claseId": "..."} Reserva (RN01 y RN02); 202 si queda en lista de espera.
+ * DELETE /api/reservas              {"cedula": "...", "claseId": "..."} Cancela la reserva o sale de la lista de espera.
+ * POST /api/reservas/lote?modo=     Un par {"cedula", "claseId"} por línea (NDJSON); modo todo-o-nada o parcial.
+ * GET  /api/ocupacion?clase=        Ocupación por clase, día y hora (mapa de calor de horas pico).
+ * GET  /api/metricas                Métricas operativas (solo desde la misma máquina).
+ */
+public class ServidorApi {
+
+    static {
+        // Sin esto, encabezados y cuerpo salen en dos escrituras y el algoritmo de Nagle junto al ACK
+        // diferido del cliente agrega ~40 ms a cada respuesta. Se respeta si ya viene configurado.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private static final int TAMANO_MAXIMO_CUERPO = 64 * 1024;
+    private static final int LIMITE_CLASES = 100;
+    // Tope de la página de socios: cada uno se materializa y serializa por separado
+    private static final int LIMITE_SOCIOS = 100;
+    private static final int LIMITE_BUSQUEDA = 20;
+
+    private final GimnasioService servicio;
+    private final HttpServer servidor;
+    private final ExecutorService ejecutor;
+
+    /**
+     * @param puerto Puerto TCP (0 para elegir uno libre).
+     */
+    public ServidorApi(GimnasioService servicio, int puerto) throws IOException {
+        this.servicio = servicio;
+        // La cola de conexiones pendientes absorbe los picos de la mañana
+        this.servidor = HttpServer.create(new InetSocketAddress(puerto), 4096);
+        this.ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+        servidor.setExecutor(ejecutor);
+        servidor.createContext("/api/socios", manejador(this::buscarSocios));
+        servidor.createContext("/api/socios/", manejador(this::socios));
+        servidor.createContext("/api/clases", manejador(this::clases));
+        servidor.createContext("/api/reservas", manejador(this::reservas));
+        servidor.createContext("/api/reservas/lote", manejador(this::reservasEnLote));
+        servidor.createContext("/api/ocupacion", manejador(this::ocupacion));
+        servidor.createContext("/api/metricas", manejador(this::metricas));
+    }
+
+    public void iniciar() {
+        servidor.start();
+    }
+
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Deja de aceptar solicitudes y espera hasta 2 segundos a que terminen las que están en curso.
+     */
+    public void detener() {
+        servidor.stop(2);
+        ejecutor.shutdown();
+    }
+
+    // --- Rutas ---
+
+    private Respuesta socios(HttpExchange intercambio) {
+        if (!intercambio.getRequestMethod().equals("GET")) {
+            return Respuesta.metodoNoPermitido("GET");
+        }
+        String resto = intercambio.getRequestURI().getPath().substring("/api/socios/".length());
+        boolean acceso = resto.endsWith("/acceso");
+        String cedula = acceso ? resto.substring(0, resto.length() - "/acceso".length()) : resto;
+        if (cedula.isEmpty() || cedula.contains("/")) {
+            return Respuesta.error(404, "Ruta no encontrada.");
+        }
+
+        Optional<Socio> encontrado = servicio.buscarSocioPorCedula(cedula);
+        if (encontrado.isEmpty()) {
+            return Respuesta.error(404, "No existe un socio con cédula " + cedula + ".");
+        }
+        Socio socio = encontrado.get();
+        if (!acceso) {
+            return Respuesta.ok(socioJson(socio));
+        }
+
+        // RN01: el molinete solo necesita saber si deja pasar o no
+        boolean activo = socio.esActivo(DiaActual.hoy());
+        return Respuesta.ok(JsonPlano.escribirObjeto(
+                new String[]{"cedula", "nombre", "permitido", "vencimiento", "mensaje"},
+                new Object[]{socio.getCedula(), socio.getNombre(), activo, socio.getFechaVencimiento().toString(),
+                        activo ? "Bienvenido." : "Acceso Denegado: La membresía del socio está vencida. Renueve el plan."}));
+    }
+
+    private Respuesta buscarSocios(HttpExchange intercambio) {
+        if (!intercambio.getRequestURI().getPath().equals("/api/socios")) {
+            return Respuesta.error(404, "Ruta no encontrada.");
+        }
+        if (!intercambio.getRequestMethod().equals("GET")) {
+            return Respuesta.metodoNoPermitido("GET");
+        }
+        Map<String, String> parametros = parametros(intercambio.getRequestURI().getRawQuery());
+        String texto = parametros.getOrDefault("buscar", "");
+        int desde;
+        int limite;
+        try {
+            desde = parametros.containsKey("desde") ? Integer.parseInt(parametros.get("desde")) : 0;
+            limite = parametros.containsKey("limite") ? Integer.parseInt(parametros.get("limite")) : LIMITE_BUSQUEDA;
+        } catch (NumberFormatException e) {
+            return Respuesta.error(400, "Parámetros inválidos (desde, limite: enteros).");
+        }
+        if (desde < 0 || limite < 1 || limite > LIMITE_SOCIOS) {
+            return Respuesta.error(400, "Parámetros inválidos (desde >= 0, limite entre 1 y " + LIMITE_SOCIOS + ").");
+        }
+
+        List<Socio> encontrados = servicio.buscarSocios(texto, desde, limite);
+        StringBuilder sb = new StringBuilder(96 * encontrados.size() + 2);
+        sb.append('[');
+        for (int i = 0; i < encontrados.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(socioJson(encontrados.get(i)));
+        }
+        return Respuesta.ok(sb.append(']').toString());
+    }
+
+    private Respuesta clases(HttpExchange intercambio) throws IOException {
+        if (!intercambio.getRequestMethod().equals("GET")) {
+            return Respuesta.metodoNoPermitido("GET");
+        }
+        Map<String, String> parametros = parametros(intercambio.getRequestURI().getRawQuery());
+        LocalDateTime desde;
+        LocalDateTime hasta;
+        int limite;
+        try {
+            desde = parametros.containsKey("desde") ? LocalDateTime.parse(parametros.get("desde")) : LocalDateTime.now();
+            hasta = parametros.containsKey("hasta") ? LocalDateTime.parse(parametros.get("hasta")) : desde.plusDays(7);
+            limite = parametros.containsKey("limite") ? Integer.parseInt(parametros.get("limite")) : LIMITE_CLASES;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return Respuesta.error(400, "Parámetros inválidos (desde/hasta: AAAA-MM-DDTHH:MM, limite: entero).");
+        }
+
+        List<ClaseGrupal> encontradas = Boolean.parseBoolean(parametros.get("historico"))
+                ? servicio.getHistorialClases(desde, hasta)
+                : servicio.buscarClasesEntre(desde, hasta);
+        StringBuilder sb = new StringBuilder(128 * Math.min(limite, encontradas.size()) + 2);
+        sb.append('[');
+        for (int i = 0; i < encontradas.size() && i < limite; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(claseJson(encontradas.get(i)));
+        }
+        return Respuesta.ok(sb.append(']').toString());
+    }
+
+    private Respuesta reservas(HttpExchange intercambio) throws IOException {
+        String metodo = intercambio.getRequestMethod();
+        if (!metodo.equals("POST") && !metodo.equals("DELETE")) {
+            return Respuesta.metodoNoPermitido("POST, DELETE");
+        }
+        Map<String, String> cuerpo;
+        UUID claseId;
+        try {
+            cuerpo = JsonPlano.leerObjeto(leerCuerpo(intercambio));
+            claseId = UUID.fromString(String.valueOf(cuerpo.get("claseId")));
+        } catch (IllegalArgumentException e) {
+            return Respuesta.error(400, "Se esperaba {\"cedula\": \"...\", \"claseId\": \"...\"}: " + e.getMessage());
+        }
+        String cedula = cuerpo.get("cedula");
+
+        Optional<Socio> socio = cedula == null ? Optional.empty() : servicio.buscarSocioPorCedula(cedula);
+        if (socio.isEmpty()) {
+            return Respuesta.error(404, "No existe un socio con cédula " + cedula + ".");
+        }
+        Optional<ClaseGrupal> clase = servicio.buscarClasePorId(claseId);
+        if (clase.isEmpty()) {
+            return Respuesta.error(404, "No existe la clase " + claseId + ".");
+        }
+
+        if (metodo.equals("DELETE")) {
+            if (!servicio.cancelarReserva(socio.get(), clase.get())) {
+                return Respuesta.error(404, "El socio no tiene reserva ni está en la lista de espera de esa clase.");
+            }
+            return Respuesta.ok(claseJson(clase.get()));
+        }
+
+        ResultadoReserva resultado;
+        try {
+            resultado = servicio.realizarReserva(socio.get(), clase.get());
+        } catch (ReglaNegocioException e) {
+            // RN01 es un problema del socio (403); aforo y duplicados son conflictos con el estado (409)
+            int codigo = e.getRegla() == ReglaNegocioException.Regla.MEMBRESIA_VENCIDA ? 403 : 409;
+            return Respuesta.json(codigo, JsonPlano.escribirObjeto(new String[]{"error", "regla"},
+                    new Object[]{e.getMessage(), e.getRegla().name()}));
+        }
+        if (!resultado.estaConfirmada()) {
+            // Sin reintentos: el cupo se asigna solo cuando se libere
+            return Respuesta.json(202, JsonPlano.escribirObjeto(new String[]{"estado", "posicion", "clase"},
+                    new Object[]{resultado.getEstado().name(), resultado.getPosicion(), clase.get().getId().toString()}));
+        }
+        return Respuesta.json(201, claseJson(clase.get()));
+    }
+
+    /**
+     * Reservas de un entrenador o un grupo: valida y aplica todos los pares en una sola operación.
+     * Responde 201 si se confirmaron todos, 409 si no se confirmó ninguno y 200 si fue parcial;
+     * en todos los casos con el estado de cada par.
+     */
+    private Respuesta reservasEnLote(HttpExchange intercambio) throws IOException {
+        if (!intercambio.getRequestMethod().equals("POST")) {
+            return Respuesta.metodoNoPermitido("POST");
+        }
+        String modoTexto = parametros(intercambio.getRequestURI().getRawQuery()).getOrDefault("modo", "todo-o-nada");
+        ModoLote modo = switch (modoTexto) {
+            case "todo-o-nada" -> ModoLote.TODO_O_NADA;
+            case "parcial" -> ModoLote.PARCIAL;
+            default -> null;
+        };
+        if (modo == null) {
+            return Respuesta.error(400, "Modo inválido: " + modoTexto + " (todo-o-nada o parcial).");
+        }
+
+        List<Reserva> solicitudes = new ArrayList<>();
+        List<String> cedulas = new ArrayList<>();
+        String texto;
+        try {
+            texto = leerCuerpo(intercambio);
+        } catch (IllegalArgumentException e) {
+            return Respuesta.error(413, "El lote es demasiado grande: " + e.getMessage() + ".");
+        }
+        String[] lineas = texto.split("\n");
+        for (int i = 0; i < lineas.length; i++) {
+            if (lineas[i].isBlank()) {
+                continue;
+            }
+            Map<String, String> par;
+            UUID claseId;
+            try {
+                par = JsonPlano.leerObjeto(lineas[i]);
+                claseId = UUID.fromString(String.valueOf(par.get("claseId")));
+            } catch (IllegalArgumentException e) {
+                return Respuesta.error(400, "Línea " + (i + 1) + ": se esperaba {\"cedula\": \"...\", \"claseId\": \"...\"}: " + e.getMessage());
+            }
+            String cedula = par.get("cedula");
+            Optional<Socio> socio = cedula == null ? Optional.empty() : servicio.buscarSocioPorCedula(cedula);
+            if (socio.isEmpty()) {
+                return Respuesta.error(404, "Línea " + (i + 1) + ": no existe un socio con cédula " + cedula + ".");
+            }
+            solicitudes.add(new Reserva(socio.get().getId(), claseId));
+            cedulas.add(cedula);
+        }
+        if (solicitudes.isEmpty()) {
+            return Respuesta.error(400, "El lote no tiene reservas.");
+        }
+
+        ResultadoLote resultado = servicio.realizarReservas(solicitudes, modo);
+        StringBuilder sb = new StringBuilder(128 * solicitudes.size() + 64);
+        sb.append("{\"confirmadas\":").append(resultado.getConfirmadas())
+                .append(",\"rechazadas\":").append(resultado.getRechazadas())
+                .append(",\"reservas\":[");
+        List<ResultadoLote.Item> items = resultado.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            ResultadoLote.Item item = items.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(JsonPlano.escribirObjeto(new String[]{"cedula", "claseId", "estado", "regla", "mensaje"},
+                    new Object[]{cedulas.get(i), item.getSolicitud().getClaseId().toString(), item.getEstado().name(),
+                            item.getRegla() == null ? null : item.getRegla().name(), item.getMensaje()}));
+        }
+        sb.append("]}");
+        int codigo = resultado.estaCompleto() ? 201 : resultado.getConfirmadas() == 0 ? 409 : 200;
+        return Respuesta.json(codigo, sb.toString());
+    }
+
+    /**
+     * Instantánea de las métricas operativas. Solo se atiende desde la misma máquina: expone
+     * volúmenes y tiempos internos que no le conciernen a un molinete ni a un cliente.
+     */
+    private Respuesta metricas(HttpExchange intercambio) {
+        if (!intercambio.getRequestMethod().equals("GET")) {
+            return Respuesta.metodoNoPermitido("GET");
+        }
+        if (!intercambio.getRemoteAddress().getAddress().isLoopbackAddress()) {
+            return Respuesta.error(403, "Las métricas solo están disponibles desde localhost.");
+        }
+        return Respuesta.ok(Metricas.instantaneaJson());
+    }
+
+    /**
+     * Tablero de ocupación: total, por nombre de clase, por día, por hora de inicio y el mapa de
+     * calor día × hora. Con ?clase= responde solo la ocupación de ese nombre de clase.
+     */
+    private Respuesta ocupacion(HttpExchange intercambio) {
+        if (!intercambio.getRequestMethod().equals("GET")) {
+            return Respuesta.metodoNoPermitido("GET");
+        }
+        String clase = parametros(intercambio.getRequestURI().getRawQuery()).get("clase");
+        if (clase != null) {
+            return Respuesta.ok(ocupacionJson(servicio.getOcupacionDeClase(clase)));
+        }
+
+        StringBuilder sb = new StringBuilder(8192);
+        sb.append("{\"total\":").append(ocupacionJson(servicio.getOcupacionTotal()));
+        sb.append(",\"porClase\":{");
+        boolean primero = true;
+        for (Map.Entry<String, Ocupacion> entrada : servicio.getOcupacionPorClase().entrySet()) {
+            if (!primero) {
+                sb.append(',');
+            }
+            primero = false;
+            JsonPlano.escribirCadena(sb, entrada.getKey());
+            sb.append(':').append(ocupacionJson(entrada.getValue()));
+        }
+        sb.append("},\"porDia\":[");
+        for (DayOfWeek dia : DayOfWeek.values()) {
+            if (dia != DayOfWeek.MONDAY) {
+                sb.append(',');
+            }
+            sb.append(ocupacionJson(servicio.getOcupacionPorDia(dia)));
+        }
+        sb.append("],\"porHora\":[");
+        for (int hora = 0; hora < AgregadosOcupacion.FRANJAS; hora++) {
+            if (hora > 0) {
+                sb.append(',');
+            }
+            sb.append(ocupacionJson(servicio.getOcupacionPorFranja(hora)));
+        }
+        sb.append("],\"mapaCalor\":[");
+        double[][] mapa = servicio.getMapaCalorOcupacion();
+        for (int dia = 0; dia < mapa.length; dia++) {
+            sb.append(dia > 0 ? ",[" : "[");
+            for (int hora = 0; hora < mapa[dia].length; hora++) {
+                if (hora > 0) {
+                    sb.append(',');
+                }
+                sb.append(String.format(Locale.ROOT, "%.4f", mapa[dia][hora]));
+            }
+            sb.append(']');
+        }
+        return Respuesta.ok(sb.append("]}").toString());
+    }
+
+    // --- JSON ---
+
+    private static String socioJson(Socio socio) {
+        return JsonPlano.escribirObjeto(
+                new String[]{"id", "cedula", "nombre", "vencimiento", "activo"},
+                new Object[]{socio.getId().toString(), socio.getCedula(), socio.getNombre(),
+                        socio.getFechaVencimiento().toString(), socio.esActivo(DiaActual.hoy())});
+    }
+
+    private static String claseJson(ClaseGrupal clase) {
+        return JsonPlano.escribirObjeto(
+                new String[]{"id", "nombre", "horario", "capacidad", "reservas", "hayCupo", "enEspera"},
+                new Object[]{clase.getId().toString(), clase.getNombreClase(), clase.getHorario().toString(),
+                        clase.getCapacidadMaxima(), clase.getReservasActuales(), clase.hayCupo(),
+                        clase.getListaEspera().tamano()});
+    }
+
+    private static String ocupacionJson(Ocupacion ocupacion) {
+        return JsonPlano.escribirObjeto(
+                new String[]{"clases", "cupos", "reservas", "tasa"},
+                new Object[]{ocupacion.getClases(), ocupacion.getCapacidad(), ocupacion.getReservas(),
+                        Math.round(ocupacion.getTasa() * 10000) / 10000.0});
+    }
+
+    // --- Utilidades HTTP ---
+
+    private interface Ruta {
+        Respuesta atender(HttpExchange intercambio) throws IOException;
+    }
+
+    /**
+     * Respuesta JSON con su código HTTP.
+     */
+    private static final class Respuesta {
+        final int codigo;
+        final String cuerpo;
+        final String permitido;
+
+        private Respuesta(int codigo, String cuerpo, String permitido) {
+            this.codigo = codigo;
+            this.cuerpo = cuerpo;
+            this.permitido = permitido;
+        }
+
+        static Respuesta ok(String json) {
+            return new Respuesta(200, json, null);
+        }
+
+        static Respuesta json(int codigo, String json) {
+            return new Respuesta(codigo, json, null);
+        }
+
+        static Respuesta error(int codigo, String mensaje) {
+            return new Respuesta(codigo, JsonPlano.escribirObjeto(new String[]{"error"}, new Object[]{mensaje}), null);
+        }
+
+        static Respuesta metodoNoPermitido(String permitido) {
+            return new Respuesta(405, JsonPlano.escribirObjeto(new String[]{"error"},
+                    new Object[]{"Método no permitido, use " + permitido + "."}), permitido);
+        }
+    }
+
+    private static HttpHandler manejador(Ruta ruta) {
+        return intercambio -> {
+            Respuesta respuesta;
+            try {
+                respuesta = ruta.atender(intercambio);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error atendiendo " + intercambio.getRequestURI() + ": " + e.getMessage());
+                respuesta = Respuesta.error(500, "Error interno del servidor.");
+            }
+            enviar(intercambio, respuesta);
+        };
+    }
+
+    private static void enviar(HttpExchange intercambio, Respuesta respuesta) throws IOException {
+        byte[] bytes = respuesta.cuerpo.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (respuesta.permitido != null) {
+            intercambio.getResponseHeaders().set("Allow", respuesta.permitido);
+        }
+        intercambio.sendResponseHeaders(respuesta.codigo, bytes.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+
+    private static String leerCuerpo(HttpExchange intercambio) throws IOException {
+        try (InputStream entrada = intercambio.getRequestBody()) {
+            byte[] bytes = entrada.readNBytes(TAMANO_MAXIMO_CUERPO + 1);
+            if (bytes.length > TAMANO_MAXIMO_CUERPO) {
+                throw new IllegalArgumentException("el cuerpo supera " + TAMANO_MAXIMO_CUERPO + " bytes");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parametros(String consulta) {
+        Map<String, String> parametros = new HashMap<>();
+        if (consulta == null || consulta.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                parametros.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                        URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametros;
+    }
+}
\ No newline at end of file
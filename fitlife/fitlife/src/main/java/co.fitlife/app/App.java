@@ -1,5 +1,6 @@
 package co.fitlife.app;
 
+import co.fitlife.controllers.MainController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -10,11 +11,14 @@ import java.io.IOException;
 
 public class App extends Application {
 
+    private MainController controller;
+
     @Override
     public void start(Stage stage) throws IOException {
         // Asegúrate de que la ruta coincida con donde pusiste el archivo FXML
         FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/co/fitlife/views/MainView.fxml"));
         Parent root = fxmlLoader.load();
+        controller = fxmlLoader.getController();
 
         Scene scene = new Scene(root, 800, 600);
         stage.setTitle("FitLife Pro - Gestión de Gimnasio");
@@ -22,6 +26,14 @@ public class App extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        // Sincroniza el diario de cambios antes de salir
+        if (controller != null) {
+            controller.cerrar();
+        }
+    }
+
     public static void main(String[] args) {
         launch();
     }
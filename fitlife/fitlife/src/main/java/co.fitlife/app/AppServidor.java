@@ -0,0 +1,37 @@
+package co.fitlife.app;
+
+import co.fitlife.api.ServidorApi;
+import co.fitlife.metricas.Metricas;
+import co.fitlife.services.GimnasioService;
+import co.fitlife.services.ModoAlmacen;
+import java.io.IOException;
+
+/**
+ * Lanzador sin interfaz gráfica: solo la API HTTP (kioscos, molinetes, app de reservas).
+ * No carga JavaFX, así que puede correr en un servidor.
+ *
+ * Uso: java co.fitlife.app.AppServidor [puerto] [directorio de datos]
+ * (por defecto 8080 y el directorio actual; -Dfitlife.almacen=mapeado como en la aplicación).
+ */
+public class AppServidor {
+
+    public static void main(String[] args) throws IOException {
+        int puerto = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String directorio = args.length > 1 ? args[1] : ".";
+
+        GimnasioService servicio = new GimnasioService(ModoAlmacen.desdePropiedades(), directorio);
+        ServidorApi api = new ServidorApi(servicio, puerto);
+
+        // Ctrl+C o un apagado ordenado: dejar de atender y guardar lo pendiente
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.detener();
+            servicio.cerrar();
+            System.out.println(Metricas.instantaneaTexto());
+        }, "apagado"));
+
+        api.iniciar();
+        System.out.println("API de FitLife escuchando en el puerto " + api.getPuerto());
+        // Lo pendiente desde el último barrido (por ejemplo, si el servidor estuvo detenido)
+        servicio.archivarEnSegundoPlano();
+    }
+}
\ No newline at end of file
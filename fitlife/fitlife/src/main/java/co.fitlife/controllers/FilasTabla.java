@@ -0,0 +1,80 @@
+package co.fitlife.controllers;
+
+import co.fitlife.services.OyenteCambios.TipoCambio;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Filas de una tabla que se actualizan por deltas (agregar, reemplazar o quitar una sola fila).
+ *
+ * La lista de origen nunca se ordena: la tabla muestra una {@link SortedList} encima, con el
+ * comparador de la tabla. Así la posición guardada de cada elemento sigue valiendo aunque el
+ * usuario ordene por una columna, y reemplazar una fila no requiere recorrer la tabla.
+ *
+ * Se usa únicamente desde el hilo de JavaFX.
+ */
+class FilasTabla<T> {
+
+    private final ObservableList<T> origen = FXCollections.observableArrayList();
+    private final SortedList<T> ordenadas = new SortedList<>(origen);
+    // Posición de cada elemento en la lista de origen
+    private final Map<UUID, Integer> posiciones = new HashMap<>();
+    private final Function<T, UUID> identificador;
+
+    FilasTabla(Function<T, UUID> identificador) {
+        this.identificador = identificador;
+    }
+
+    /**
+     * Lo que muestra la tabla; su comparador se enlaza con el de la tabla.
+     */
+    SortedList<T> getOrdenadas() {
+        return ordenadas;
+    }
+
+    /**
+     * Reemplaza todas las filas (carga inicial o recarga completa).
+     */
+    void cargar(List<T> elementos) {
+        posiciones.clear();
+        for (int i = 0; i < elementos.size(); i++) {
+            posiciones.put(identificador.apply(elementos.get(i)), i);
+        }
+        origen.setAll(elementos);
+    }
+
+    /**
+     * Aplica un único cambio publicado por el servicio.
+     */
+    void aplicar(TipoCambio tipo, T elemento) {
+        UUID id = identificador.apply(elemento);
+        Integer posicion = posiciones.get(id);
+        switch (tipo) {
+            case AGREGADO -> {
+                if (posicion == null) {
+                    posiciones.put(id, origen.size());
+                    origen.add(elemento);
+                }
+            }
+            case ACTUALIZADO -> {
+                if (posicion != null) {
+                    origen.set(posicion, elemento);
+                }
+            }
+            case ELIMINADO -> {
+                if (posicion != null) {
+                    origen.remove((int) posicion);
+                    posiciones.remove(id);
+                    // Las filas siguientes se corren una posición
+                    posiciones.replaceAll((clave, valor) -> valor > posicion ? valor - 1 : valor);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
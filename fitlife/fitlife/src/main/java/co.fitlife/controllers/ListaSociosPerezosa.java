@@ -0,0 +1,45 @@
+package co.fitlife.controllers;
+
+import co.fitlife.model.Socio;
+import javafx.collections.ObservableListBase;
+import java.util.List;
+
+/**
+ * Lista de la tabla de socios en modo MAPEADO: no copia los socios, lee cada fila por posición del
+ * almacén mapeado recién cuando la tabla la pinta. El almacén no tiene bajas y agrega al final,
+ * así que un alta se publica como un agregado en la última posición.
+ *
+ * Se usa únicamente desde el hilo de JavaFX.
+ */
+class ListaSociosPerezosa extends ObservableListBase<Socio> {
+
+    // Vista perezosa del repositorio (ver SocioRepositoryMapeado.getTodos)
+    private List<Socio> vista;
+
+    ListaSociosPerezosa(List<Socio> vista) {
+        this.vista = vista;
+    }
+
+    @Override
+    public Socio get(int indice) {
+        return vista.get(indice);
+    }
+
+    @Override
+    public int size() {
+        return vista.size();
+    }
+
+    /**
+     * Toma la vista nueva del repositorio y avisa a la tabla de los socios agregados al final.
+     */
+    void crecer(List<Socio> nueva) {
+        int anterior = vista.size();
+        vista = nueva;
+        if (nueva.size() > anterior) {
+            beginChange();
+            nextAdd(anterior, nueva.size());
+            endChange();
+        }
+    }
+}
\ No newline at end of file
@@ -3,8 +3,10 @@ package co.fitlife.controllers;
 import co.fitlife.model.ClaseGrupal;
 import co.fitlife.model.Socio;
 import co.fitlife.services.GimnasioService;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
+import co.fitlife.services.ModoAlmacen;
+import co.fitlife.services.OyenteCambios;
+import co.fitlife.services.ResultadoReserva;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import java.io.IOException;
@@ -13,18 +15,24 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
 
-public class MainController {
+public class MainController implements OyenteCambios {
 
     // Componentes del Módulo SOCIOS
     @FXML private TextField txtCedula;
     @FXML private TextField txtNombre;
     @FXML private TableView<Socio> tablaSocios;
-    @FXML private ComboBox<Socio> comboSocios; // Para la reserva
+    @FXML private TextField txtBuscarSocio; // Búsqueda mientras se escribe
+    @FXML private ComboBox<Socio> comboSocios; // Resultados de la búsqueda, para la reserva
 
     // Componentes del Módulo CLASES
     @FXML private TextField txtClaseNombre;
     @FXML private DatePicker dateClase;
+    @FXML private DatePicker dateClaseRepetirHasta; // Opcional: clase semanal hasta esa fecha
     @FXML private TextField txtClaseHora;
     @FXML private TextField txtClaseCupo;
     @FXML private TableView<ClaseGrupal> tablaClases;
@@ -32,6 +40,19 @@ public class MainController {
     private GimnasioService servicio;
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
 
+    // Días hacia adelante en que la tabla muestra las ocurrencias de las clases semanales
+    private static final int DIAS_OCURRENCIAS_VISIBLES = 28;
+
+    // Máximo de socios que se muestran en los resultados de la búsqueda
+    private static final int MAX_RESULTADOS_BUSQUEDA = 20;
+
+    // Filas de larga duración de las tablas: los cambios se aplican como deltas
+    private final FilasTabla<Socio> sociosTabla = new FilasTabla<>(Socio::getId);
+    private final FilasTabla<ClaseGrupal> clasesTabla = new FilasTabla<>(ClaseGrupal::getId);
+    // En modo MAPEADO la tabla de socios lee las filas del almacén por posición, sin copiarlas
+    private ListaSociosPerezosa sociosMapeados;
+    // Textos formateados de cada fila, reutilizados al hacer scroll
+    private final VistasTabla vistas = new VistasTabla();
 
     @FXML
     public void initialize() {
@@ -41,53 +62,60 @@ public class MainController {
         configurarTablaSocios();
         configurarTablaClases();
 
-        // Datos de prueba iniciales si está vacío
-        if (servicio.getClases().isEmpty()) {
-            servicio.getClases().add(new ClaseGrupal("Yoga Matinal", LocalDateTime.now().plusHours(2), 20));
-            servicio.getClases().add(new ClaseGrupal("CrossFit Tarde", LocalDateTime.now().plusHours(5), 10));
+        // Datos de prueba iniciales si está vacío (y nunca se archivó nada: no es una instalación nueva)
+        if (servicio.getClases().isEmpty() && !servicio.tieneHistorial()) {
             try {
-                servicio.guardarCambios();
+                servicio.registrarClase("Yoga Matinal", LocalDateTime.now().plusHours(2), 20);
+                servicio.registrarClase("CrossFit Tarde", LocalDateTime.now().plusHours(5), 10);
             } catch (IOException e) {
                 // Ignorar en initialize
             }
         }
 
-        refrescarTablas();
+        cargarTablas();
+        servicio.agregarOyente(this);
+        configurarBusquedaSocios();
+        // La aplicación se cierra de noche y no llega al barrido: archiva lo de días anteriores al abrir
+        servicio.archivarEnSegundoPlano();
     }
 
     // --- Configuración de Tablas ---
 
     private void configurarTablaSocios() {
         TableColumn<Socio, String> colCedula = new TableColumn<>("Cédula");
-        colCedula.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getCedula()));
+        colCedula.setCellValueFactory(cell -> vistas.de(cell.getValue()).cedula());
 
         TableColumn<Socio, String> colNombre = new TableColumn<>("Nombre");
-        colNombre.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getNombre()));
+        colNombre.setCellValueFactory(cell -> vistas.de(cell.getValue()).nombre());
 
         TableColumn<Socio, String> colVencimiento = new TableColumn<>("Vence");
-        colVencimiento.setCellValueFactory(cell -> new SimpleStringProperty(
-                cell.getValue().getFechaVencimiento().toString()));
+        colVencimiento.setCellValueFactory(cell -> vistas.de(cell.getValue()).vencimiento());
 
         TableColumn<Socio, String> colEstado = new TableColumn<>("Estado");
-        // Indicador visual de estado (RN01)
-        colEstado.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().esActivo() ? "ACTIVO ✅" : "VENCIDO ❌"));
+        // Indicador visual de estado (RN01), evaluado contra la fecha de hoy en caché
+        colEstado.setCellValueFactory(cell -> vistas.de(cell.getValue()).estado());
 
         tablaSocios.getColumns().addAll(colCedula, colNombre, colVencimiento, colEstado);
+        if (servicio.getModoAlmacen() == ModoAlmacen.MAPEADO) {
+            // Ordenar obligaría a leer todos los socios del almacén
+            tablaSocios.getColumns().forEach(columna -> columna.setSortable(false));
+        } else {
+            sociosTabla.getOrdenadas().comparatorProperty().bind(tablaSocios.comparatorProperty());
+        }
     }
 
     private void configurarTablaClases() {
         TableColumn<ClaseGrupal, String> colClase = new TableColumn<>("Clase");
-        colClase.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getNombreClase()));
+        colClase.setCellValueFactory(cell -> vistas.de(cell.getValue()).nombre());
 
         TableColumn<ClaseGrupal, String> colHorario = new TableColumn<>("Horario");
-        colHorario.setCellValueFactory(cell -> new SimpleStringProperty(
-                cell.getValue().getHorario().format(DateTimeFormatter.ofPattern("dd/MM HH:mm"))));
+        colHorario.setCellValueFactory(cell -> vistas.de(cell.getValue()).horario());
 
         TableColumn<ClaseGrupal, String> colCupo = new TableColumn<>("Cupo");
-        colCupo.setCellValueFactory(cell -> new SimpleStringProperty(
-                cell.getValue().getReservasActuales() + "/" + cell.getValue().getCapacidadMaxima()));
+        colCupo.setCellValueFactory(cell -> vistas.de(cell.getValue()).cupo());
 
         tablaClases.getColumns().addAll(colClase, colHorario, colCupo);
+        clasesTabla.getOrdenadas().comparatorProperty().bind(tablaClases.comparatorProperty());
     }
 
     // --- Módulo Socios ---
@@ -101,7 +129,6 @@ public class MainController {
             }
 
             servicio.registrarSocio(txtCedula.getText(), txtNombre.getText());
-            refrescarTablas();
             mostrarAlerta(Alert.AlertType.INFORMATION, "Éxito", "Socio registrado correctamente.");
             txtCedula.clear(); txtNombre.clear();
         } catch (IllegalArgumentException e) {
@@ -116,10 +143,10 @@ public class MainController {
     private void handleRenovar() {
         Socio seleccionado = tablaSocios.getSelectionModel().getSelectedItem();
         if (seleccionado != null) {
-            seleccionado.renovarMembresia(30); // 30 días por defecto
+            // En modo MAPEADO la fila puede ser una copia anterior a otra renovación
+            seleccionado = servicio.buscarSocioPorId(seleccionado.getId()).orElse(seleccionado);
             try {
-                servicio.guardarCambios(); // RF03: Persistencia
-                refrescarTablas();
+                servicio.renovarMembresia(seleccionado, 30); // 30 días por defecto, RF03: Persistencia
                 mostrarAlerta(Alert.AlertType.INFORMATION, "Pago Exitoso", "Membresía de " + seleccionado.getNombre() + " renovada por 30 días.");
             } catch (IOException e) {
                 // Manejo de Excepciones: IO
@@ -154,11 +181,20 @@ public class MainController {
                 throw new IllegalArgumentException("No se pueden programar clases en el pasado.");
             }
 
-            // 3. Registrar clase
-            servicio.registrarClase(nombre, horario, cupo);
-            refrescarTablas();
-            mostrarAlerta(Alert.AlertType.INFORMATION, "Éxito", "Clase programada: " + nombre);
-            txtClaseNombre.clear(); dateClase.setValue(null); txtClaseHora.clear(); txtClaseCupo.clear();
+            // 3. Registrar clase, o la plantilla si se repite cada semana
+            LocalDate repetirHasta = dateClaseRepetirHasta.getValue();
+            if (repetirHasta == null) {
+                servicio.registrarClase(nombre, horario, cupo);
+                mostrarAlerta(Alert.AlertType.INFORMATION, "Éxito", "Clase programada: " + nombre);
+            } else {
+                if (repetirHasta.isBefore(fecha)) {
+                    throw new IllegalArgumentException("La fecha de fin de la repetición no puede ser anterior a la fecha de la clase.");
+                }
+                servicio.registrarPlantilla(nombre, EnumSet.of(fecha.getDayOfWeek()), hora, cupo, fecha, repetirHasta);
+                mostrarAlerta(Alert.AlertType.INFORMATION, "Éxito", "Clase semanal programada: " + nombre + " cada "
+                        + fecha.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.forLanguageTag("es")) + " hasta el " + repetirHasta);
+            }
+            txtClaseNombre.clear(); dateClase.setValue(null); dateClaseRepetirHasta.setValue(null); txtClaseHora.clear(); txtClaseCupo.clear();
 
         } catch (NumberFormatException e) {
             mostrarAlerta(Alert.AlertType.ERROR, "Error de Formato", "El cupo máximo debe ser un número entero.");
@@ -179,27 +215,110 @@ public class MainController {
         if (socio != null && clase != null) {
             try {
                 // Validación y lógica en el servicio (RN01 y RN02)
-                servicio.realizarReserva(socio, clase);
-                refrescarTablas();
-                mostrarAlerta(Alert.AlertType.INFORMATION, "Reserva Exitosa", "Cupo reservado para " + socio.getNombre() + " en " + clase.getNombreClase());
+                ResultadoReserva resultado = servicio.realizarReserva(socio, clase);
+                if (resultado.estaConfirmada()) {
+                    mostrarAlerta(Alert.AlertType.INFORMATION, "Reserva Exitosa", "Cupo reservado para " + socio.getNombre() + " en " + clase.getNombreClase());
+                } else {
+                    mostrarAlerta(Alert.AlertType.INFORMATION, "Lista de Espera", "La clase está llena. " + socio.getNombre()
+                            + " quedó en la posición " + resultado.getPosicion() + " de la lista de espera y recibirá el cupo cuando se libere uno.");
+                }
             } catch (Exception e) {
                 // Muestra las Reglas de Negocio fallidas (RN01, RN02)
                 mostrarAlerta(Alert.AlertType.WARNING, "Error de Reserva", e.getMessage());
             }
         } else {
-            mostrarAlerta(Alert.AlertType.WARNING, "Faltan Datos", "Seleccione un socio del desplegable y una clase de la tabla.");
+            mostrarAlerta(Alert.AlertType.WARNING, "Faltan Datos", "Busque y seleccione un socio del desplegable y una clase de la tabla.");
         }
     }
 
     // --- Utilidades ---
 
-    private void refrescarTablas() {
-        tablaSocios.setItems(FXCollections.observableArrayList(servicio.getSocios()));
-        tablaClases.setItems(FXCollections.observableArrayList(servicio.getClases()));
-        // Importante: El ComboBox debe refrescarse para mostrar nuevos socios
-        comboSocios.setItems(FXCollections.observableArrayList(servicio.getSocios()));
-        tablaSocios.refresh();
-        tablaClases.refresh();
+    /**
+     * Libera los recursos del servicio (diario de cambios). Se invoca al cerrar la ventana.
+     */
+    public void cerrar() {
+        servicio.cerrar();
+    }
+
+    /**
+     * Carga inicial de las tablas. Después de esto solo se aplican los cambios publicados por el servicio.
+     */
+    private void cargarTablas() {
+        if (servicio.getModoAlmacen() == ModoAlmacen.MAPEADO) {
+            // Sin copiar ni recorrer los socios: se leen al pintar cada fila
+            sociosMapeados = new ListaSociosPerezosa(servicio.getSocios());
+        } else {
+            sociosTabla.cargar(servicio.getSocios());
+        }
+        clasesTabla.cargar(servicio.getClasesProgramadas(DIAS_OCURRENCIAS_VISIBLES));
+
+        tablaSocios.setItems(sociosMapeados != null ? sociosMapeados : sociosTabla.getOrdenadas());
+        tablaClases.setItems(clasesTabla.getOrdenadas());
+    }
+
+    /**
+     * El desplegable de socios solo contiene los resultados de la búsqueda, no todos los socios.
+     */
+    private void configurarBusquedaSocios() {
+        txtBuscarSocio.textProperty().addListener((obs, anterior, texto) -> {
+            List<Socio> resultados = servicio.buscarSocios(texto, MAX_RESULTADOS_BUSQUEDA);
+            comboSocios.getItems().setAll(resultados);
+            if (resultados.size() == 1) {
+                comboSocios.getSelectionModel().selectFirst();
+            } else if (!resultados.isEmpty() && txtBuscarSocio.isFocused()) {
+                comboSocios.show();
+            }
+        });
+    }
+
+    // --- Cambios publicados por el servicio ---
+
+    @Override
+    public void socioCambiado(TipoCambio tipo, Socio socio) {
+        enHiloFx(() -> {
+            if (tipo == TipoCambio.ELIMINADO) {
+                vistas.quitarSocio(socio.getId());
+            } else {
+                vistas.actualizar(socio);
+            }
+            if (sociosMapeados != null) {
+                // Las filas ya pintadas se actualizan por sus textos; solo las altas cambian la lista
+                sociosMapeados.crecer(servicio.getSocios());
+            } else {
+                sociosTabla.aplicar(tipo, socio);
+            }
+        });
+    }
+
+    @Override
+    public void claseCambiada(TipoCambio tipo, ClaseGrupal clase) {
+        enHiloFx(() -> {
+            if (tipo == TipoCambio.ELIMINADO) {
+                vistas.quitarClase(clase.getId());
+            } else {
+                vistas.actualizar(clase);
+            }
+            clasesTabla.aplicar(tipo, clase);
+        });
+    }
+
+    @Override
+    public void datosRecargados() {
+        enHiloFx(this::cargarTablas);
+    }
+
+    @Override
+    public void membresiasVencidas(List<Socio> vencidos) {
+        // Repinta solo el estado de los socios que acaban de vencer
+        enHiloFx(() -> vencidos.forEach(vistas::actualizar));
+    }
+
+    private void enHiloFx(Runnable accion) {
+        if (Platform.isFxApplicationThread()) {
+            accion.run();
+        } else {
+            Platform.runLater(accion);
+        }
     }
 
     private void mostrarAlerta(Alert.AlertType tipo, String titulo, String mensaje) {
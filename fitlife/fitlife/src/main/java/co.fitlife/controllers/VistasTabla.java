@@ -0,0 +1,133 @@
+package co.fitlife.controllers;
+
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.Socio;
+import co.fitlife.services.DiaActual;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Textos ya formateados de las filas de las tablas, creados la primera vez que se pinta cada fila
+ * y reutilizados en cada repintado (scroll). Las propiedades se actualizan solo cuando el socio o
+ * la clase cambian, y el estado de la membresía solo cuando cambia el día.
+ *
+ * Se usa únicamente desde el hilo de JavaFX.
+ */
+class VistasTabla {
+
+    static final DateTimeFormatter FORMATO_HORARIO = DateTimeFormatter.ofPattern("dd/MM HH:mm");
+
+    private static final String ACTIVO = "ACTIVO ✅";
+    private static final String VENCIDO = "VENCIDO ❌";
+
+    private final Map<UUID, VistaSocio> socios = new HashMap<>();
+    private final Map<UUID, VistaClase> clases = new HashMap<>();
+
+    /**
+     * La vista de la fila de un socio, con el estado evaluado contra la fecha de hoy.
+     */
+    VistaSocio de(Socio socio) {
+        VistaSocio vista = socios.get(socio.getId());
+        if (vista == null) {
+            vista = new VistaSocio(socio);
+            socios.put(socio.getId(), vista);
+        }
+        vista.refrescarEstado(DiaActual.hoy());
+        return vista;
+    }
+
+    VistaClase de(ClaseGrupal clase) {
+        VistaClase vista = clases.get(clase.getId());
+        if (vista == null) {
+            vista = new VistaClase(clase);
+            clases.put(clase.getId(), vista);
+        }
+        return vista;
+    }
+
+    /**
+     * Actualiza los textos de un socio ya pintado (renovación). Si aún no se pintó, no hace nada.
+     */
+    void actualizar(Socio socio) {
+        VistaSocio vista = socios.get(socio.getId());
+        if (vista != null) {
+            vista.actualizar(socio);
+        }
+    }
+
+    void actualizar(ClaseGrupal clase) {
+        VistaClase vista = clases.get(clase.getId());
+        if (vista != null) {
+            vista.actualizar(clase);
+        }
+    }
+
+    void quitarSocio(UUID id) {
+        socios.remove(id);
+    }
+
+    void quitarClase(UUID id) {
+        clases.remove(id);
+    }
+
+    static final class VistaSocio {
+        private final ReadOnlyStringWrapper cedula = new ReadOnlyStringWrapper();
+        private final ReadOnlyStringWrapper nombre = new ReadOnlyStringWrapper();
+        private final ReadOnlyStringWrapper vencimiento = new ReadOnlyStringWrapper();
+        private final ReadOnlyStringWrapper estado = new ReadOnlyStringWrapper();
+        private LocalDate fechaVencimiento;
+        private LocalDate estadoCalculadoPara;
+
+        VistaSocio(Socio socio) {
+            actualizar(socio);
+        }
+
+        void actualizar(Socio socio) {
+            cedula.set(socio.getCedula());
+            nombre.set(socio.getNombre());
+            fechaVencimiento = socio.getFechaVencimiento();
+            vencimiento.set(fechaVencimiento.toString());
+            estadoCalculadoPara = null; // Fuerza recalcular el estado
+            refrescarEstado(DiaActual.hoy());
+        }
+
+        void refrescarEstado(LocalDate hoy) {
+            // Comparación por referencia: DiaActual devuelve la misma instancia durante todo el día
+            if (hoy != estadoCalculadoPara) {
+                estadoCalculadoPara = hoy;
+                estado.set(fechaVencimiento.isAfter(hoy) ? ACTIVO : VENCIDO);
+            }
+        }
+
+        ReadOnlyStringProperty cedula() { return cedula.getReadOnlyProperty(); }
+        ReadOnlyStringProperty nombre() { return nombre.getReadOnlyProperty(); }
+        ReadOnlyStringProperty vencimiento() { return vencimiento.getReadOnlyProperty(); }
+        ReadOnlyStringProperty estado() { return estado.getReadOnlyProperty(); }
+    }
+
+    static final class VistaClase {
+        private final ReadOnlyStringWrapper nombre = new ReadOnlyStringWrapper();
+        private final ReadOnlyStringWrapper horario = new ReadOnlyStringWrapper();
+        private final ReadOnlyStringWrapper cupo = new ReadOnlyStringWrapper();
+
+        VistaClase(ClaseGrupal clase) {
+            nombre.set(clase.getNombreClase());
+            horario.set(clase.getHorario().format(FORMATO_HORARIO));
+            actualizar(clase);
+        }
+
+        // Solo el cupo cambia después de crear la clase
+        void actualizar(ClaseGrupal clase) {
+            cupo.set(clase.getReservasActuales() + "/" + clase.getCapacidadMaxima());
+        }
+
+        ReadOnlyStringProperty nombre() { return nombre.getReadOnlyProperty(); }
+        ReadOnlyStringProperty horario() { return horario.getReadOnlyProperty(); }
+        ReadOnlyStringProperty cupo() { return cupo.getReadOnlyProperty(); }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package co.fitlife.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JDK Flight Recorder por cada operación medida. Deshabilitado no tiene costo apreciable;
+ * se activa con una grabación, por ejemplo:
+ * java -XX:StartFlightRecording:filename=fitlife.jfr,settings=profile ...
+ * o en caliente con: jcmd &lt;pid&gt; JFR.start
+ */
+@Name("co.fitlife.Operacion")
+@Label("Operación FitLife")
+@Category({"FitLife"})
+@Description("Una operación del servicio o de la persistencia, con su duración y resultado")
+@StackTrace(false)
+class EventoOperacion extends jdk.jfr.Event {
+
+    @Label("Operación")
+    String operacion;
+
+    @Label("Éxito")
+    boolean exito;
+
+    @Label("Regla que la rechazó")
+    String resultado;
+
+    @Label("Registros")
+    long registros;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package co.fitlife.metricas;
+
+/**
+ * Una ejecución en curso de una operación medida. No es segura entre hilos: cada hilo usa la suya.
+ */
+public final class Medicion {
+
+    private final Operacion operacion;
+    private final long inicio;
+    private final EventoOperacion evento;
+    private long registros;
+    private long bytes;
+    private boolean exito;
+    private String resultado;
+
+    Medicion(Operacion operacion) {
+        this.operacion = operacion;
+        this.evento = new EventoOperacion();
+        evento.begin();
+        this.inicio = System.nanoTime();
+    }
+
+    /**
+     * Cantidad de registros procesados (socios guardados, filas importadas...).
+     */
+    public Medicion registros(long cantidad) {
+        this.registros = cantidad;
+        return this;
+    }
+
+    public Medicion bytes(long cantidad) {
+        this.bytes = cantidad;
+        return this;
+    }
+
+    /**
+     * La operación terminó bien.
+     */
+    public void completada() {
+        this.exito = true;
+    }
+
+    /**
+     * La operación se rechazó por una regla de negocio: no es un error del sistema, pero se cuenta
+     * aparte en el contador {@code rechazos.<operación>.<regla>}.
+     */
+    public void rechazada(String regla) {
+        this.exito = true;
+        this.resultado = regla;
+        Metricas.contar("rechazos." + operacion.getNombre() + "." + regla, 1);
+    }
+
+    /**
+     * Registra la duración. Llamar siempre, en un bloque finally.
+     */
+    public void terminar() {
+        long nanos = System.nanoTime() - inicio;
+        operacion.registrar(nanos, exito, registros, bytes);
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.operacion = operacion.getNombre();
+            evento.exito = exito;
+            evento.resultado = resultado;
+            evento.registros = registros;
+            evento.bytes = bytes;
+            evento.commit();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package co.fitlife.metricas;
+
+import co.fitlife.persistence.JsonPlano;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro global de métricas de operación: contadores e histogramas de latencia por operación
+ * (servicio y persistencia), más eventos de JDK Flight Recorder ({@link EventoOperacion}).
+ *
+ * Pensado para estar siempre activo: registrar una operación son dos lecturas del reloj y unas
+ * pocas sumas sin bloqueo. La instantánea se obtiene con {@link #instantaneaJson()} o
+ * {@link #toString()} (también en GET /api/metricas desde la misma máquina).
+ *
+ * Uso:
+ * <pre>
+ * Medicion m = Metricas.iniciar("servicio.realizarReserva");
+ * try {
+ *     ...
+ *     m.completada();
+ * } finally {
+ *     m.terminar();
+ * }
+ * </pre>
+ */
+public final class Metricas {
+
+    private static final Map<String, Operacion> OPERACIONES = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> CONTADORES = new ConcurrentHashMap<>();
+
+    private Metricas() {
+    }
+
+    /**
+     * Empieza a medir una operación. Si no se llama a {@link Medicion#completada()} antes de
+     * {@link Medicion#terminar()}, cuenta como error.
+     */
+    public static Medicion iniciar(String operacion) {
+        return new Medicion(operacion(operacion));
+    }
+
+    public static Operacion operacion(String nombre) {
+        Operacion operacion = OPERACIONES.get(nombre);
+        return operacion != null ? operacion : OPERACIONES.computeIfAbsent(nombre, Operacion::new);
+    }
+
+    /**
+     * Suma a un contador con nombre (bytes escritos, rechazos por regla, etc.).
+     */
+    public static void contar(String contador, long cantidad) {
+        LongAdder sumador = CONTADORES.get(contador);
+        if (sumador == null) {
+            sumador = CONTADORES.computeIfAbsent(contador, c -> new LongAdder());
+        }
+        sumador.add(cantidad);
+    }
+
+    public static long getContador(String contador) {
+        LongAdder sumador = CONTADORES.get(contador);
+        return sumador == null ? 0 : sumador.sum();
+    }
+
+    /**
+     * Pone todo en cero (por ejemplo, para medir solo un pico).
+     */
+    public static void reiniciar() {
+        OPERACIONES.clear();
+        CONTADORES.clear();
+    }
+
+    /**
+     * Instantánea en JSON: {"operaciones": {...}, "contadores": {...}}, ordenada por nombre.
+     * Las latencias están en milisegundos; los percentiles son aproximados (±12%).
+     */
+    public static String instantaneaJson() {
+        StringBuilder sb = new StringBuilder(256 + 200 * OPERACIONES.size());
+        sb.append("{\"operaciones\":{");
+        boolean primera = true;
+        for (Operacion operacion : new TreeMap<>(OPERACIONES).values()) {
+            if (!primera) {
+                sb.append(',');
+            }
+            primera = false;
+            JsonPlano.escribirCadena(sb, operacion.getNombre());
+            sb.append(':');
+            operacion.escribirJson(sb);
+        }
+        sb.append("},\"contadores\":{");
+        primera = true;
+        for (Map.Entry<String, LongAdder> contador : new TreeMap<>(CONTADORES).entrySet()) {
+            if (!primera) {
+                sb.append(',');
+            }
+            primera = false;
+            JsonPlano.escribirCadena(sb, contador.getKey());
+            sb.append(':').append(contador.getValue().sum());
+        }
+        return sb.append("}}").toString();
+    }
+
+    /**
+     * Instantánea en texto, una línea por operación y por contador.
+     */
+    public static String instantaneaTexto() {
+        StringBuilder sb = new StringBuilder();
+        for (Operacion operacion : new TreeMap<>(OPERACIONES).values()) {
+            sb.append(operacion).append('\n');
+        }
+        for (Map.Entry<String, LongAdder> contador : new TreeMap<>(CONTADORES).entrySet()) {
+            sb.append(contador.getKey()).append(" = ").append(contador.getValue().sum()).append('\n');
+        }
+        return sb.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package co.fitlife.metricas;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores e histograma de latencia de una operación.
+ *
+ * El histograma es logarítmico con 4 subdivisiones por potencia de 2 (error relativo máximo ~12%
+ * al estimar percentiles) y ocupa un arreglo fijo: registrar no reserva memoria ni bloquea.
+ */
+public final class Operacion {
+
+    private static final int SUBDIVISIONES = 4;
+    private static final int CUBETAS = 64 * SUBDIVISIONES;
+
+    private final String nombre;
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private final LongAdder registros = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder nanosTotales = new LongAdder();
+    private final LongAccumulator nanosMaximo = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray histograma = new AtomicLongArray(CUBETAS);
+
+    Operacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    void registrar(long nanos, boolean exito, long cantidadRegistros, long cantidadBytes) {
+        cantidad.increment();
+        if (!exito) {
+            errores.increment();
+        }
+        if (cantidadRegistros > 0) {
+            registros.add(cantidadRegistros);
+        }
+        if (cantidadBytes > 0) {
+            bytes.add(cantidadBytes);
+        }
+        nanosTotales.add(nanos);
+        nanosMaximo.accumulate(nanos);
+        histograma.incrementAndGet(cubeta(nanos));
+    }
+
+    public String getNombre() { return nombre; }
+    public long getCantidad() { return cantidad.sum(); }
+    public long getErrores() { return errores.sum(); }
+    public long getRegistros() { return registros.sum(); }
+    public long getBytes() { return bytes.sum(); }
+
+    public double getPromedioMs() {
+        long n = cantidad.sum();
+        return n == 0 ? 0 : nanosTotales.sum() / 1e6 / n;
+    }
+
+    public double getMaximoMs() {
+        return nanosMaximo.get() / 1e6;
+    }
+
+    /**
+     * Percentil aproximado de la latencia, en milisegundos.
+     * @param p Percentil entre 0 y 100.
+     */
+    public double getPercentilMs(double p) {
+        long[] copia = new long[CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = histograma.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = (long) Math.ceil(p / 100.0 * total);
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                return Math.min(valorRepresentativo(i), nanosMaximo.get()) / 1e6;
+            }
+        }
+        return getMaximoMs();
+    }
+
+    // Índice = exponente * 4 + los dos bits siguientes al más significativo
+    private static int cubeta(long nanos) {
+        if (nanos < SUBDIVISIONES) {
+            return (int) Math.max(0, nanos);
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponente - 2)) & (SUBDIVISIONES - 1);
+        return exponente * SUBDIVISIONES + sub;
+    }
+
+    // Punto medio de la cubeta
+    private static long valorRepresentativo(int cubeta) {
+        int exponente = cubeta / SUBDIVISIONES;
+        if (exponente < 2) {
+            return cubeta;
+        }
+        long inicio = (long) (SUBDIVISIONES + cubeta % SUBDIVISIONES) << (exponente - 2);
+        long ancho = 1L << (exponente - 2);
+        return inicio + ancho / 2;
+    }
+
+    void escribirJson(StringBuilder sb) {
+        sb.append("{\"cantidad\":").append(getCantidad())
+                .append(",\"errores\":").append(getErrores())
+                .append(",\"registros\":").append(getRegistros())
+                .append(",\"bytes\":").append(getBytes())
+                .append(String.format(Locale.ROOT,
+                        ",\"promedioMs\":%.3f,\"p50Ms\":%.3f,\"p90Ms\":%.3f,\"p99Ms\":%.3f,\"p999Ms\":%.3f,\"maximoMs\":%.3f}",
+                        getPromedioMs(), getPercentilMs(50), getPercentilMs(90), getPercentilMs(99),
+                        getPercentilMs(99.9), getMaximoMs()));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%s: n=%d errores=%d registros=%d bytes=%d ms prom=%.3f p50=%.3f p99=%.3f máx=%.3f",
+                nombre, getCantidad(), getErrores(), getRegistros(), getBytes(), getPromedioMs(),
+                getPercentilMs(50), getPercentilMs(99), getMaximoMs());
+    }
+}
\ No newline at end of file
@@ -1,19 +1,28 @@
 package co.fitlife.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 // ¡IMPORTANTE! Debe implementar Serializable
 public class ClaseGrupal implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // Actualizador CAS sobre el campo volatile: no cambia el formato serializado de la clase
+    private static final AtomicIntegerFieldUpdater<ClaseGrupal> RESERVAS =
+            AtomicIntegerFieldUpdater.newUpdater(ClaseGrupal.class, "reservasActuales");
+
     private UUID id;
     private String nombreClase;
     private LocalDateTime horario;
-    private int capacidadMaxima;
-    private int reservasActuales;
+    private volatile int capacidadMaxima;
+    private volatile int reservasActuales;
+    // Se persiste con el codec binario; en los archivos antiguos no existía
+    private transient ListaEspera listaEspera = new ListaEspera();
 
     public ClaseGrupal(String nombreClase, LocalDateTime horario, int capacidadMaxima) {
         this.id = UUID.randomUUID();
@@ -23,20 +32,78 @@ public class ClaseGrupal implements Serializable {
         this.reservasActuales = 0;
     }
 
+    // Constructor de reconstrucción: usado al reproducir el diario de cambios
+    public ClaseGrupal(UUID id, String nombreClase, LocalDateTime horario, int capacidadMaxima, int reservasActuales) {
+        this.id = id;
+        this.nombreClase = nombreClase;
+        this.horario = horario;
+        this.capacidadMaxima = capacidadMaxima;
+        this.reservasActuales = reservasActuales;
+    }
+
     // Método para la Regla de Negocio (RN02)
     public boolean hayCupo() {
         return reservasActuales < capacidadMaxima;
     }
 
+    /**
+     * Reclama un cupo de forma atómica (compare-and-set), segura ante reservas concurrentes.
+     * @return El número de reservas después de reclamar el cupo, o -1 si la clase está llena.
+     */
+    public int reclamarCupo() {
+        while (true) {
+            int actuales = reservasActuales;
+            if (actuales >= capacidadMaxima) {
+                return -1;
+            }
+            if (RESERVAS.compareAndSet(this, actuales, actuales + 1)) {
+                return actuales + 1;
+            }
+        }
+    }
+
     public void agregarReserva() {
-        if (hayCupo()) {
-            reservasActuales++;
+        reclamarCupo();
+    }
+
+    /**
+     * Devuelve un cupo de forma atómica (por ejemplo, al cancelar una reserva).
+     * @return El número de reservas después de liberar el cupo, o -1 si no había reservas.
+     */
+    public int liberarCupo() {
+        while (true) {
+            int actuales = reservasActuales;
+            if (actuales <= 0) {
+                return -1;
+            }
+            if (RESERVAS.compareAndSet(this, actuales, actuales - 1)) {
+                return actuales - 1;
+            }
         }
     }
 
+    /**
+     * Socios esperando un cupo, en orden de llegada.
+     */
+    public ListaEspera getListaEspera() {
+        return listaEspera;
+    }
+
     // Getters y Setters
+    public UUID getId() { return id; }
     public String getNombreClase() { return nombreClase; }
     public LocalDateTime getHorario() { return horario; }
     public int getCapacidadMaxima() { return capacidadMaxima; }
+    public void setCapacidadMaxima(int capacidadMaxima) { this.capacidadMaxima = capacidadMaxima; }
     public int getReservasActuales() { return reservasActuales; }
+    public void setReservasActuales(int reservasActuales) { this.reservasActuales = reservasActuales; }
+
+    // Migración de archivos antiguos: algunas clases se guardaron antes de tener id
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+        listaEspera = new ListaEspera();
+    }
 }
\ No newline at end of file
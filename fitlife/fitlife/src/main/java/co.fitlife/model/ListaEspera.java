@@ -0,0 +1,100 @@
+package co.fitlife.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lista de espera de una clase llena: socios en orden de llegada (FIFO).
+ *
+ * Las altas y bajas toman el monitor de la lista, y quien además debe registrar el cambio en el
+ * diario lo hace dentro de un bloque sincronizado sobre la misma lista: así el orden del diario
+ * coincide con el de la lista y la posición que se informa al entrar es el orden real de
+ * promoción. Cada operación es O(1) salvo {@link #posicion}. El tamaño se publica en un campo
+ * volatile para que las consultas frecuentes ({@link #estaVacia}) no bloqueen.
+ */
+public class ListaEspera {
+
+    // Conjunto en orden de inserción: FIFO, sin repetidos y con bajas en O(1)
+    private final LinkedHashSet<UUID> socios = new LinkedHashSet<>();
+    private volatile int tamano;
+
+    /**
+     * Agrega al socio al final de la lista.
+     * @param limite Tamaño máximo de la lista.
+     * @return La posición del socio (la primera es 1), 0 si ya estaba en la lista o -1 si está completa.
+     */
+    public synchronized int agregar(UUID socioId, int limite) {
+        if (socios.contains(socioId)) {
+            return 0;
+        }
+        if (socios.size() >= limite) {
+            return -1;
+        }
+        socios.add(socioId);
+        tamano = socios.size();
+        return tamano;
+    }
+
+    /**
+     * Saca al primero de la lista.
+     * @return El id del socio, o null si la lista está vacía.
+     */
+    public synchronized UUID retirarPrimero() {
+        Iterator<UUID> iterador = socios.iterator();
+        if (!iterador.hasNext()) {
+            return null;
+        }
+        UUID socioId = iterador.next();
+        iterador.remove();
+        tamano = socios.size();
+        return socioId;
+    }
+
+    /**
+     * Quita a un socio de cualquier posición (por ejemplo, si desiste).
+     * @return false si el socio no estaba en la lista.
+     */
+    public synchronized boolean quitar(UUID socioId) {
+        if (!socios.remove(socioId)) {
+            return false;
+        }
+        tamano = socios.size();
+        return true;
+    }
+
+    public synchronized boolean contiene(UUID socioId) {
+        return socios.contains(socioId);
+    }
+
+    /**
+     * Posición del socio (la primera es 1), o 0 si no está. Recorre la lista.
+     */
+    public synchronized int posicion(UUID socioId) {
+        int posicion = 1;
+        for (UUID id : socios) {
+            if (id.equals(socioId)) {
+                return posicion;
+            }
+            posicion++;
+        }
+        return 0;
+    }
+
+    public boolean estaVacia() {
+        return tamano == 0;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    /**
+     * Copia de los ids en orden de llegada, para persistir o mostrar la lista.
+     */
+    public synchronized List<UUID> getSocios() {
+        return new ArrayList<>(socios);
+    }
+}
\ No newline at end of file
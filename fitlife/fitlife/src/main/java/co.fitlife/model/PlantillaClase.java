@@ -0,0 +1,116 @@
+package co.fitlife.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Clase recurrente: se repite cada semana en los días indicados, a la misma hora y con el mismo
+ * cupo, entre dos fechas (inclusive).
+ *
+ * Las ocurrencias no se guardan: se generan al consultar un rango. El id de cada ocurrencia se
+ * deriva del id de la plantilla y de la fecha, así la misma ocurrencia tiene siempre el mismo id
+ * y se puede reconocer a partir de él ({@link #fechaDeOcurrencia}).
+ */
+public class PlantillaClase {
+
+    private final UUID id;
+    private final String nombreClase;
+    private final Set<DayOfWeek> dias;
+    private final LocalTime hora;
+    private final int capacidadMaxima;
+    private final LocalDate desde;
+    private final LocalDate hasta;
+
+    public PlantillaClase(String nombreClase, Set<DayOfWeek> dias, LocalTime hora, int capacidadMaxima,
+                          LocalDate desde, LocalDate hasta) {
+        this(UUID.randomUUID(), nombreClase, dias, hora, capacidadMaxima, desde, hasta);
+    }
+
+    // Constructor de reconstrucción: usado al leer el archivo o reproducir el diario
+    public PlantillaClase(UUID id, String nombreClase, Set<DayOfWeek> dias, LocalTime hora, int capacidadMaxima,
+                          LocalDate desde, LocalDate hasta) {
+        if (dias.isEmpty()) {
+            throw new IllegalArgumentException("La clase recurrente debe repetirse al menos un día de la semana.");
+        }
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha final de la clase recurrente es anterior a la inicial.");
+        }
+        this.id = id;
+        this.nombreClase = nombreClase;
+        this.dias = Collections.unmodifiableSet(EnumSet.copyOf(dias));
+        this.hora = hora;
+        this.capacidadMaxima = capacidadMaxima;
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+
+    public boolean ocurreEl(LocalDate fecha) {
+        return !fecha.isBefore(desde) && !fecha.isAfter(hasta) && dias.contains(fecha.getDayOfWeek());
+    }
+
+    /**
+     * Id de la ocurrencia de una fecha: los 64 bits altos de la plantilla y los bajos combinados
+     * con el día (epoch-day), que se recupera con {@link #fechaDeOcurrencia}.
+     */
+    public UUID idOcurrencia(LocalDate fecha) {
+        return new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits() ^ fecha.toEpochDay());
+    }
+
+    /**
+     * @return La fecha de la ocurrencia con ese id, o null si el id no es de una ocurrencia de esta plantilla.
+     */
+    public LocalDate fechaDeOcurrencia(UUID ocurrencia) {
+        if (ocurrencia.getMostSignificantBits() != id.getMostSignificantBits()) {
+            return null;
+        }
+        long dia = ocurrencia.getLeastSignificantBits() ^ id.getLeastSignificantBits();
+        if (dia < desde.toEpochDay() || dia > hasta.toEpochDay()) {
+            return null;
+        }
+        LocalDate fecha = LocalDate.ofEpochDay(dia);
+        return ocurreEl(fecha) ? fecha : null;
+    }
+
+    /**
+     * Genera la ocurrencia de una fecha, sin reservas. Cada llamada crea un objeto nuevo.
+     */
+    public ClaseGrupal ocurrencia(LocalDate fecha) {
+        return new ClaseGrupal(idOcurrencia(fecha), nombreClase, LocalDateTime.of(fecha, hora), capacidadMaxima, 0);
+    }
+
+    /**
+     * Ocurrencias con horario en el rango [inicio, fin), ordenadas por horario. El costo depende
+     * de los días del rango, no de la extensión de la plantilla.
+     */
+    public List<ClaseGrupal> ocurrenciasEntre(LocalDateTime inicio, LocalDateTime fin) {
+        List<ClaseGrupal> resultado = new ArrayList<>();
+        LocalDate primera = inicio.toLocalDate().isBefore(desde) ? desde : inicio.toLocalDate();
+        LocalDate ultima = fin.toLocalDate().isAfter(hasta) ? hasta : fin.toLocalDate();
+        for (LocalDate fecha = primera; !fecha.isAfter(ultima); fecha = fecha.plusDays(1)) {
+            if (dias.contains(fecha.getDayOfWeek())) {
+                LocalDateTime horario = LocalDateTime.of(fecha, hora);
+                if (!horario.isBefore(inicio) && horario.isBefore(fin)) {
+                    resultado.add(ocurrencia(fecha));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    // Getters
+    public UUID getId() { return id; }
+    public String getNombreClase() { return nombreClase; }
+    public Set<DayOfWeek> getDias() { return dias; }
+    public LocalTime getHora() { return hora; }
+    public int getCapacidadMaxima() { return capacidadMaxima; }
+    public LocalDate getDesde() { return desde; }
+    public LocalDate getHasta() { return hasta; }
+}
\ No newline at end of file
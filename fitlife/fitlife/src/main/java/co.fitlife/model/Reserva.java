@@ -0,0 +1,22 @@
+package co.fitlife.model;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+// Vincula a un socio con una clase reservada (RF04). Se guarda solo con los UUID.
+public class Reserva implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private UUID socioId;
+    private UUID claseId;
+
+    public Reserva(UUID socioId, UUID claseId) {
+        this.socioId = socioId;
+        this.claseId = claseId;
+    }
+
+    // Getters
+    public UUID getSocioId() { return socioId; }
+    public UUID getClaseId() { return claseId; }
+}
\ No newline at end of file
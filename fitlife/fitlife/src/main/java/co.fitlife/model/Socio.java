@@ -1,5 +1,7 @@
 package co.fitlife.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.UUID;
@@ -13,7 +15,7 @@ public class Socio implements Serializable {
     private UUID id;
     private String cedula;
     private String nombre;
-    private LocalDate fechaVencimiento;
+    private volatile LocalDate fechaVencimiento;
 
     // Constructor (asumo que se da membresía inicial de 30 días)
     public Socio(String cedula, String nombre) {
@@ -24,13 +26,26 @@ public class Socio implements Serializable {
         this.fechaVencimiento = LocalDate.now().plusDays(30);
     }
 
+    // Constructor de reconstrucción: usado al reproducir el diario de cambios
+    public Socio(UUID id, String cedula, String nombre, LocalDate fechaVencimiento) {
+        this.id = id;
+        this.cedula = cedula;
+        this.nombre = nombre;
+        this.fechaVencimiento = fechaVencimiento;
+    }
+
     // Método para la Regla de Negocio (RN01) y renovación
     public boolean esActivo() {
-        return fechaVencimiento.isAfter(LocalDate.now());
+        return esActivo(LocalDate.now());
+    }
+
+    // Variante con la fecha de referencia ya calculada (por ejemplo, al pintar muchas filas)
+    public boolean esActivo(LocalDate hoy) {
+        return fechaVencimiento.isAfter(hoy);
     }
 
     // Método para la renovación (RF03)
-    public void renovarMembresia(int dias) {
+    public synchronized void renovarMembresia(int dias) {
         // Renueva a partir de la fecha actual si está vencido, o extiende la fecha de vencimiento.
         if (esActivo()) {
             this.fechaVencimiento = this.fechaVencimiento.plusDays(dias);
@@ -40,9 +55,19 @@ public class Socio implements Serializable {
     }
 
     // Getters y Setters
+    public UUID getId() { return id; }
     public String getCedula() { return cedula; }
     public String getNombre() { return nombre; }
     public LocalDate getFechaVencimiento() { return fechaVencimiento; }
+    public void setFechaVencimiento(LocalDate fechaVencimiento) { this.fechaVencimiento = fechaVencimiento; }
+
+    // Migración de archivos antiguos: algunos socios se guardaron antes de tener id
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
 
     @Override
     public String toString() {
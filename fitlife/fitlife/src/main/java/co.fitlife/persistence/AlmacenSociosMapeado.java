@@ -0,0 +1,305 @@
+package co.fitlife.persistence;
+
+import co.fitlife.model.Socio;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Almacén de socios en un archivo de registros de ancho fijo mapeado en memoria (MappedByteBuffer).
+ * Abrirlo no lee los registros: los socios se materializan solo cuando se accede a ellos, así que
+ * el arranque es de tiempo constante y el heap no contiene todo el grafo de objetos.
+ *
+ * Archivo de datos: cabecera de 64 bytes [MAGIA][versión][tamaño de registro][cantidad] y luego
+ * registros de 192 bytes: [uuid 16][vencimiento epoch-day 8][cédula 1+32][nombre 1+128].
+ *
+ * Archivo de índice: tabla hash de direccionamiento abierto (sondeo lineal) mapeada también,
+ * con dos tablas de int: por cédula y por UUID. Cada casilla guarda posición + 1 (0 = vacía).
+ */
+public class AlmacenSociosMapeado implements Closeable {
+
+    private static final int MAGIA_DATOS = 0x464C534D; // "FLSM"
+    private static final int MAGIA_INDICE = 0x464C5349; // "FLSI"
+    private static final int VERSION = 1;
+
+    private static final int CABECERA = 64;
+    private static final int TAMANO_REGISTRO = 192;
+    private static final int MAX_CEDULA = 32;
+    private static final int MAX_NOMBRE = 128;
+
+    // Desplazamientos dentro de cada registro
+    private static final int OFF_UUID = 0;
+    private static final int OFF_VENCIMIENTO = 16;
+    private static final int OFF_CEDULA = 24;
+    private static final int OFF_NOMBRE = OFF_CEDULA + 1 + MAX_CEDULA;
+
+    // Cabecera del índice: [MAGIA][capacidad][cantidad indexada]
+    private static final int CABECERA_INDICE = 16;
+    private static final int CAPACIDAD_INICIAL_INDICE = 1024;
+
+    private final FileChannel canalDatos;
+    private final FileChannel canalIndice;
+    private MappedByteBuffer datos;
+    private MappedByteBuffer indice;
+    private int capacidadRegistros;
+    private int capacidadIndice;
+    private int cantidad;
+
+    /**
+     * Abre (o crea) el almacén. Solo se mapean los archivos; si el índice no coincide con los
+     * datos (por ejemplo, tras una caída a mitad de una inserción) se reconstruye.
+     * @param archivoDatos Archivo de registros (ej: socios.map).
+     * @param archivoIndice Archivo del índice (ej: socios.idx).
+     * @throws IOException Si no se pueden abrir o mapear los archivos.
+     */
+    public AlmacenSociosMapeado(String archivoDatos, String archivoIndice) throws IOException {
+        this.canalDatos = FileChannel.open(Path.of(archivoDatos), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.canalIndice = FileChannel.open(Path.of(archivoIndice), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (canalDatos.size() < CABECERA) {
+            mapearDatos(1024);
+            datos.putInt(0, MAGIA_DATOS);
+            datos.putInt(4, VERSION);
+            datos.putInt(8, TAMANO_REGISTRO);
+            datos.putInt(12, 0);
+        } else {
+            mapearDatos((int) ((canalDatos.size() - CABECERA) / TAMANO_REGISTRO));
+            if (datos.getInt(0) != MAGIA_DATOS || datos.getInt(8) != TAMANO_REGISTRO) {
+                throw new IOException("El archivo " + archivoDatos + " no es un almacén de socios válido.");
+            }
+        }
+        this.cantidad = datos.getInt(12);
+
+        boolean indiceValido = false;
+        if (canalIndice.size() >= CABECERA_INDICE) {
+            MappedByteBuffer cabecera = canalIndice.map(FileChannel.MapMode.READ_ONLY, 0, CABECERA_INDICE);
+            int capacidad = cabecera.getInt(4);
+            indiceValido = cabecera.getInt(0) == MAGIA_INDICE
+                    && cabecera.getInt(8) == cantidad
+                    && Integer.bitCount(capacidad) == 1
+                    && canalIndice.size() >= CABECERA_INDICE + (long) capacidad * 8;
+            if (indiceValido) {
+                capacidadIndice = capacidad;
+                mapearIndice(capacidad);
+            }
+        }
+        if (!indiceValido) {
+            reconstruirIndice(Math.max(CAPACIDAD_INICIAL_INDICE, Integer.highestOneBit(Math.max(1, cantidad)) * 4));
+        }
+    }
+
+    public synchronized int cantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Materializa el socio de la posición indicada.
+     */
+    public synchronized Socio leer(int posicion) {
+        if (posicion < 0 || posicion >= cantidad) {
+            throw new IndexOutOfBoundsException(posicion);
+        }
+        int base = offset(posicion);
+        return new Socio(leerUuid(base), leerTexto(base + OFF_CEDULA), leerTexto(base + OFF_NOMBRE),
+                LocalDate.ofEpochDay(datos.getLong(base + OFF_VENCIMIENTO)));
+    }
+
+    /**
+     * @return La posición del socio con esa cédula, o -1 si no existe.
+     */
+    public synchronized int buscarPorCedula(String cedula) {
+        byte[] buscada = cedula.getBytes(StandardCharsets.UTF_8);
+        int mascara = capacidadIndice - 1;
+        for (int i = dispersar(cedula.hashCode()) & mascara; ; i = (i + 1) & mascara) {
+            int posicion = indice.getInt(casillaCedula(i)) - 1;
+            if (posicion < 0) {
+                return -1;
+            }
+            if (posicion < cantidad && cedulaIgual(offset(posicion), buscada)) {
+                return posicion;
+            }
+        }
+    }
+
+    /**
+     * @return La posición del socio con ese id, o -1 si no existe.
+     */
+    public synchronized int buscarPorId(UUID id) {
+        int mascara = capacidadIndice - 1;
+        for (int i = dispersar(id.hashCode()) & mascara; ; i = (i + 1) & mascara) {
+            int posicion = indice.getInt(casillaId(i)) - 1;
+            if (posicion < 0) {
+                return -1;
+            }
+            if (posicion < cantidad && leerUuid(offset(posicion)).equals(id)) {
+                return posicion;
+            }
+        }
+    }
+
+    /**
+     * Agrega un socio al final del archivo y lo indexa.
+     * @return La posición asignada, o -1 si la cédula o el id ya existían.
+     * @throws IllegalArgumentException Si la cédula o el nombre no caben en el registro de ancho fijo.
+     */
+    public synchronized int agregar(Socio socio) throws IOException {
+        byte[] cedula = socio.getCedula().getBytes(StandardCharsets.UTF_8);
+        byte[] nombre = socio.getNombre().getBytes(StandardCharsets.UTF_8);
+        if (cedula.length > MAX_CEDULA || nombre.length > MAX_NOMBRE) {
+            throw new IllegalArgumentException("La cédula (máx. " + MAX_CEDULA + " bytes) o el nombre (máx. "
+                    + MAX_NOMBRE + " bytes) es demasiado largo.");
+        }
+        if (buscarPorCedula(socio.getCedula()) >= 0 || buscarPorId(socio.getId()) >= 0) {
+            return -1;
+        }
+
+        if (cantidad == capacidadRegistros) {
+            mapearDatos(capacidadRegistros * 2);
+        }
+        // Mantener el factor de carga del índice por debajo de 0.5
+        if ((cantidad + 1) * 2 > capacidadIndice) {
+            reconstruirIndice(capacidadIndice * 2);
+        }
+
+        int posicion = cantidad;
+        int base = offset(posicion);
+        datos.putLong(base + OFF_UUID, socio.getId().getMostSignificantBits());
+        datos.putLong(base + OFF_UUID + 8, socio.getId().getLeastSignificantBits());
+        datos.putLong(base + OFF_VENCIMIENTO, socio.getFechaVencimiento().toEpochDay());
+        escribirTexto(base + OFF_CEDULA, cedula);
+        escribirTexto(base + OFF_NOMBRE, nombre);
+        indexar(posicion, socio.getCedula().hashCode(), socio.getId().hashCode());
+
+        // La cantidad se publica al final: un registro a medio escribir no queda visible
+        cantidad++;
+        datos.putInt(12, cantidad);
+        indice.putInt(8, cantidad);
+        return posicion;
+    }
+
+    /**
+     * Sobrescribe en su lugar la fecha de vencimiento (única parte mutable de un socio).
+     */
+    public synchronized void actualizarVencimiento(int posicion, LocalDate fechaVencimiento) {
+        datos.putLong(offset(posicion) + OFF_VENCIMIENTO, fechaVencimiento.toEpochDay());
+    }
+
+    /**
+     * Fuerza a disco las páginas modificadas de ambos archivos.
+     */
+    public synchronized void sincronizar() {
+        datos.force();
+        indice.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sincronizar();
+        canalDatos.close();
+        canalIndice.close();
+    }
+
+    // --- Utilidades internas ---
+
+    private void mapearDatos(int registros) throws IOException {
+        capacidadRegistros = Math.max(registros, 1024);
+        long tamano = CABECERA + (long) capacidadRegistros * TAMANO_REGISTRO;
+        if (tamano > Integer.MAX_VALUE) {
+            throw new IOException("El almacén mapeado superó el máximo de " + (Integer.MAX_VALUE / TAMANO_REGISTRO) + " socios.");
+        }
+        if (datos != null) {
+            datos.force();
+        }
+        // Mapear más allá del tamaño actual extiende el archivo
+        datos = canalDatos.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+    }
+
+    private void mapearIndice(int capacidad) throws IOException {
+        indice = canalIndice.map(FileChannel.MapMode.READ_WRITE, 0, CABECERA_INDICE + (long) capacidad * 8);
+    }
+
+    /**
+     * Regenera el índice leyendo solo la cédula y el UUID de cada registro (sin materializar socios).
+     */
+    private void reconstruirIndice(int capacidad) throws IOException {
+        capacidadIndice = capacidad;
+        mapearIndice(capacidad);
+        for (int i = 0; i < capacidad * 2; i++) {
+            indice.putInt(CABECERA_INDICE + i * 4, 0);
+        }
+        for (int posicion = 0; posicion < cantidad; posicion++) {
+            int base = offset(posicion);
+            indexar(posicion, leerTexto(base + OFF_CEDULA).hashCode(), leerUuid(base).hashCode());
+        }
+        indice.putInt(0, MAGIA_INDICE);
+        indice.putInt(4, capacidad);
+        indice.putInt(8, cantidad);
+    }
+
+    private void indexar(int posicion, int hashCedula, int hashId) {
+        int mascara = capacidadIndice - 1;
+        int i = dispersar(hashCedula) & mascara;
+        while (indice.getInt(casillaCedula(i)) != 0) {
+            i = (i + 1) & mascara;
+        }
+        indice.putInt(casillaCedula(i), posicion + 1);
+
+        int j = dispersar(hashId) & mascara;
+        while (indice.getInt(casillaId(j)) != 0) {
+            j = (j + 1) & mascara;
+        }
+        indice.putInt(casillaId(j), posicion + 1);
+    }
+
+    private int casillaCedula(int i) {
+        return CABECERA_INDICE + i * 4;
+    }
+
+    private int casillaId(int i) {
+        return CABECERA_INDICE + (capacidadIndice + i) * 4;
+    }
+
+    private static int dispersar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int offset(int posicion) {
+        return CABECERA + posicion * TAMANO_REGISTRO;
+    }
+
+    private UUID leerUuid(int base) {
+        return new UUID(datos.getLong(base + OFF_UUID), datos.getLong(base + OFF_UUID + 8));
+    }
+
+    private String leerTexto(int offset) {
+        byte[] bytes = new byte[datos.get(offset) & 0xFF];
+        datos.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void escribirTexto(int offset, byte[] bytes) {
+        datos.put(offset, (byte) bytes.length);
+        datos.put(offset + 1, bytes);
+    }
+
+    private boolean cedulaIgual(int base, byte[] buscada) {
+        int offset = base + OFF_CEDULA;
+        if ((datos.get(offset) & 0xFF) != buscada.length) {
+            return false;
+        }
+        for (int i = 0; i < buscada.length; i++) {
+            if (datos.get(offset + 1 + i) != buscada[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,376 @@
+package co.fitlife.persistence;
+
+import co.fitlife.metricas.Medicion;
+import co.fitlife.metricas.Metricas;
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.Socio;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archivo histórico de solo agregado (historico.dat): las clases ya dictadas y los socios vencidos
+ * hace tiempo, fuera de la memoria y de las instantáneas, pero disponibles para reportes.
+ *
+ * Cada archivado agrega un segmento comprimido con GZIP:
+ * [int MAGIA][int versión de clases][int versión de socios][long primer horario][long último horario]
+ * [int clases][int socios][int longitud][int crc32][datos comprimidos]
+ * Los datos usan los mismos codecs que las instantáneas; cada clase va seguida de los ids de los
+ * socios que la reservaron. Con la cabecera, una consulta por fechas saltea sin descomprimir los
+ * segmentos fuera del rango. Un segmento incompleto al final (caída a mitad de un archivado) se
+ * descarta al abrir. Cualquier otra inconsistencia no se corrige: se deja una copia en
+ * historico.dat.corrupto, se siguen leyendo los segmentos sanos y no se archiva más.
+ */
+public class ArchivoHistorico {
+
+    private static final int MAGIA = 0x464C5048; // "FLPH"
+    private static final int TAMANO_CABECERA = 3 * 4 + 2 * 8 + 4 * 4;
+
+    private static final ClaseGrupalCodec CODEC_CLASE = new ClaseGrupalCodec();
+    private static final SocioCodec CODEC_SOCIO = new SocioCodec();
+
+    /**
+     * Una clase archivada junto con los socios que la reservaron.
+     */
+    public static class ClaseArchivada {
+        private final ClaseGrupal clase;
+        private final List<UUID> asistentes;
+
+        public ClaseArchivada(ClaseGrupal clase, Collection<UUID> asistentes) {
+            this.clase = clase;
+            this.asistentes = List.copyOf(asistentes);
+        }
+
+        public ClaseGrupal getClase() { return clase; }
+        public List<UUID> getAsistentes() { return asistentes; }
+    }
+
+    // Cabecera de un segmento ya escrito
+    private static final class Segmento {
+        final long posicion;
+        final int versionClase;
+        final int versionSocio;
+        final long primerHorario;
+        final long ultimoHorario;
+        final int clases;
+        final int socios;
+        final int longitud;
+        final int crc;
+
+        Segmento(long posicion, ByteBuffer cabecera) {
+            this.posicion = posicion;
+            this.versionClase = cabecera.getInt(4);
+            this.versionSocio = cabecera.getInt(8);
+            this.primerHorario = cabecera.getLong(12);
+            this.ultimoHorario = cabecera.getLong(20);
+            this.clases = cabecera.getInt(28);
+            this.socios = cabecera.getInt(32);
+            this.longitud = cabecera.getInt(36);
+            this.crc = cabecera.getInt(40);
+        }
+
+        long fin() {
+            return posicion + TAMANO_CABECERA + longitud;
+        }
+    }
+
+    private final Path archivo;
+    private final List<Segmento> segmentos = new ArrayList<>();
+    private long fin;
+    // Una cabecera ilegible antes del final: no se agrega nada detrás de ella
+    private boolean danado;
+    // Cédulas de los socios archivados; se leen en la primera consulta y luego se mantienen al agregar
+    private Set<String> cedulas;
+
+    /**
+     * Abre el archivo (si existe) y lee solo las cabeceras de sus segmentos.
+     * @param nombreArchivo El nombre del archivo histórico (ej: historico.dat).
+     * @throws IOException Si el archivo existe pero no se puede leer.
+     */
+    public ArchivoHistorico(String nombreArchivo) throws IOException {
+        this.archivo = Path.of(nombreArchivo);
+        if (!Files.exists(archivo)) {
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long tamano = canal.size();
+            ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA);
+            while (fin < tamano) {
+                cabecera.clear().limit((int) Math.min(TAMANO_CABECERA, tamano - fin));
+                leerCompleto(canal, cabecera, fin);
+                if (cabecera.limit() >= 4 && cabecera.getInt(0) != MAGIA) {
+                    danado = true;
+                    break;
+                }
+                if (cabecera.limit() < TAMANO_CABECERA) {
+                    // Cabecera cortada por el final del archivo
+                    break;
+                }
+                Segmento segmento = new Segmento(fin, cabecera);
+                if (segmento.longitud < 0) {
+                    danado = true;
+                    break;
+                }
+                if (segmento.fin() > tamano) {
+                    // Datos cortados por el final del archivo
+                    break;
+                }
+                segmentos.add(segmento);
+                fin = segmento.fin();
+            }
+            if (danado) {
+                System.err.println("Cabecera inválida en " + archivo + " (posición " + fin + "), no se archivará hasta revisarlo.");
+                GestorArchivos.respaldarCorrupto(nombreArchivo);
+            } else if (fin < tamano) {
+                System.err.println("Se descartan " + (tamano - fin) + " bytes incompletos al final de " + archivo);
+                canal.truncate(fin);
+            }
+        }
+    }
+
+    /**
+     * Agrega un segmento con las clases y los socios, y lo fuerza a disco antes de retornar:
+     * recién entonces se los puede quitar de la memoria.
+     * @throws IOException Si no se puede escribir el segmento.
+     */
+    public synchronized void agregar(List<ClaseArchivada> clases, List<Socio> socios) throws IOException {
+        if (clases.isEmpty() && socios.isEmpty()) {
+            return;
+        }
+        if (danado) {
+            throw new IOException("El archivo " + archivo + " está dañado (hay una copia en .corrupto); no se archiva.");
+        }
+        Medicion medicion = Metricas.iniciar("persistencia.guardar.historico.dat");
+        try {
+            long primerHorario = Long.MAX_VALUE;
+            long ultimoHorario = Long.MIN_VALUE;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            GZIPOutputStream comprimido = new GZIPOutputStream(bytes, 1 << 16);
+            SalidaBinaria salida = new SalidaBinaria(Channels.newChannel(comprimido));
+            for (ClaseArchivada archivada : clases) {
+                long horario = archivada.clase.getHorario().toEpochSecond(ZoneOffset.UTC);
+                primerHorario = Math.min(primerHorario, horario);
+                ultimoHorario = Math.max(ultimoHorario, horario);
+                CODEC_CLASE.escribir(archivada.clase, salida);
+                salida.putInt(archivada.asistentes.size());
+                for (UUID socioId : archivada.asistentes) {
+                    salida.putUuid(socioId);
+                }
+            }
+            for (Socio socio : socios) {
+                CODEC_SOCIO.escribir(socio, salida);
+            }
+            salida.vaciar();
+            comprimido.close();
+            byte[] datos = bytes.toByteArray();
+
+            CRC32 suma = new CRC32();
+            suma.update(datos);
+            ByteBuffer segmento = ByteBuffer.allocate(TAMANO_CABECERA + datos.length);
+            segmento.putInt(MAGIA).putInt(CODEC_CLASE.getVersion()).putInt(CODEC_SOCIO.getVersion())
+                    .putLong(primerHorario).putLong(ultimoHorario)
+                    .putInt(clases.size()).putInt(socios.size())
+                    .putInt(datos.length).putInt((int) suma.getValue())
+                    .put(datos).flip();
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                long posicion = fin;
+                while (segmento.hasRemaining()) {
+                    posicion += canal.write(segmento, posicion);
+                }
+                canal.force(true);
+            }
+            segmentos.add(new Segmento(fin, segmento.rewind()));
+            fin += segmento.capacity();
+            if (cedulas != null) {
+                socios.forEach(socio -> cedulas.add(socio.getCedula()));
+            }
+
+            medicion.registros(clases.size() + socios.size()).bytes(segmento.capacity());
+            medicion.completada();
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    /**
+     * Clases archivadas con horario en [desde, hasta), en el orden en que se archivaron.
+     */
+    public List<ClaseArchivada> clasesEntre(LocalDateTime desde, LocalDateTime hasta) throws IOException {
+        long inicio = desde.toEpochSecond(ZoneOffset.UTC);
+        long limite = hasta.toEpochSecond(ZoneOffset.UTC);
+        return leerClases(s -> s.clases > 0 && s.primerHorario < limite && s.ultimoHorario >= inicio,
+                a -> !a.clase.getHorario().isBefore(desde) && a.clase.getHorario().isBefore(hasta));
+    }
+
+    /**
+     * Clases archivadas que el socio había reservado, en el orden en que se archivaron.
+     */
+    public List<ClaseArchivada> clasesDeSocio(UUID socioId) throws IOException {
+        return leerClases(s -> s.clases > 0, a -> a.asistentes.contains(socioId));
+    }
+
+    /**
+     * El socio archivado con esa cédula; si se archivó más de una vez, la última copia.
+     */
+    public Optional<Socio> buscarSocioPorCedula(String cedula) throws IOException {
+        Socio encontrado = null;
+        for (Segmento segmento : getSegmentosLeidos()) {
+            if (segmento.socios == 0) {
+                continue;
+            }
+            EntradaBinaria entrada = abrirSegmento(segmento);
+            saltearClases(entrada, segmento);
+            for (int i = 0; i < segmento.socios; i++) {
+                Socio socio = CODEC_SOCIO.leer(entrada, segmento.versionSocio);
+                if (socio.getCedula().equals(cedula)) {
+                    encontrado = socio;
+                }
+            }
+        }
+        return Optional.ofNullable(encontrado);
+    }
+
+    /**
+     * Si hay un socio archivado con esa cédula. La primera consulta lee los socios de todos los
+     * segmentos; las siguientes son O(1).
+     */
+    public synchronized boolean contieneCedula(String cedula) {
+        return getCedulasLeidas().contains(cedula);
+    }
+
+    /**
+     * Las cédulas de todos los socios archivados.
+     */
+    public synchronized Set<String> getCedulas() {
+        return Set.copyOf(getCedulasLeidas());
+    }
+
+    /**
+     * Si ya se archivó algo alguna vez.
+     */
+    public synchronized boolean tieneDatos() {
+        return !segmentos.isEmpty();
+    }
+
+    public synchronized long getTamano() {
+        return fin;
+    }
+
+    // --- Lectura de segmentos ---
+
+    /**
+     * Recorre las clases de los segmentos elegidos. Si una clase quedó archivada dos veces (un
+     * archivado interrumpido antes de guardar la instantánea), vale la última copia.
+     */
+    private List<ClaseArchivada> leerClases(Predicate<Segmento> segmentoElegido, Predicate<ClaseArchivada> filtro)
+            throws IOException {
+        Map<UUID, ClaseArchivada> porId = new LinkedHashMap<>();
+        for (Segmento segmento : getSegmentosLeidos()) {
+            if (!segmentoElegido.test(segmento)) {
+                continue;
+            }
+            EntradaBinaria entrada = abrirSegmento(segmento);
+            for (int i = 0; i < segmento.clases; i++) {
+                ClaseArchivada archivada = leerClase(entrada, segmento);
+                if (filtro.test(archivada)) {
+                    porId.put(archivada.clase.getId(), archivada);
+                } else {
+                    porId.remove(archivada.clase.getId());
+                }
+            }
+        }
+        return new ArrayList<>(porId.values());
+    }
+
+    /**
+     * Un segmento ilegible se informa y se saltea: no debe impedir registrar socios nuevos.
+     * Se llama con el monitor tomado.
+     */
+    private Set<String> getCedulasLeidas() {
+        if (cedulas == null) {
+            Set<String> leidas = new HashSet<>();
+            for (Segmento segmento : segmentos) {
+                if (segmento.socios == 0) {
+                    continue;
+                }
+                try {
+                    EntradaBinaria entrada = abrirSegmento(segmento);
+                    saltearClases(entrada, segmento);
+                    for (int i = 0; i < segmento.socios; i++) {
+                        leidas.add(CODEC_SOCIO.leer(entrada, segmento.versionSocio).getCedula());
+                    }
+                } catch (IOException e) {
+                    System.err.println("No se pudieron leer los socios archivados en la posición "
+                            + segmento.posicion + " de " + archivo + ": " + e.getMessage());
+                }
+            }
+            cedulas = leidas;
+        }
+        return cedulas;
+    }
+
+    private synchronized List<Segmento> getSegmentosLeidos() {
+        return Collections.unmodifiableList(new ArrayList<>(segmentos));
+    }
+
+    private EntradaBinaria abrirSegmento(Segmento segmento) throws IOException {
+        ByteBuffer datos = ByteBuffer.allocate(segmento.longitud);
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            leerCompleto(canal, datos, segmento.posicion + TAMANO_CABECERA);
+        }
+        CRC32 suma = new CRC32();
+        suma.update(datos.array());
+        if ((int) suma.getValue() != segmento.crc) {
+            throw new IOException("Segmento dañado en " + archivo + " (posición " + segmento.posicion + ").");
+        }
+        return new EntradaBinaria(Channels.newChannel(new GZIPInputStream(new ByteArrayInputStream(datos.array()), 1 << 16)));
+    }
+
+    private static ClaseArchivada leerClase(EntradaBinaria entrada, Segmento segmento) throws IOException {
+        ClaseGrupal clase = CODEC_CLASE.leer(entrada, segmento.versionClase);
+        int cantidad = entrada.getCantidad(16);
+        List<UUID> asistentes = new ArrayList<>(Math.min(cantidad, 1024));
+        for (int i = 0; i < cantidad; i++) {
+            asistentes.add(entrada.getUuid());
+        }
+        return new ClaseArchivada(clase, asistentes);
+    }
+
+    private static void saltearClases(EntradaBinaria entrada, Segmento segmento) throws IOException {
+        for (int i = 0; i < segmento.clases; i++) {
+            leerClase(entrada, segmento);
+        }
+    }
+
+    private static void leerCompleto(FileChannel canal, ByteBuffer destino, long posicion) throws IOException {
+        while (destino.hasRemaining()) {
+            int leidos = canal.read(destino, posicion);
+            if (leidos < 0) {
+                throw new IOException("Fin de archivo inesperado");
+            }
+            posicion += leidos;
+        }
+    }
+}
\ No newline at end of file
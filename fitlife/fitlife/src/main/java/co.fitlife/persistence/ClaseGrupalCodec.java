@@ -0,0 +1,58 @@
+package co.fitlife.persistence;
+
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.ListaEspera;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Formato v2 de ClaseGrupal: [uuid][nombre][long horario en epoch-second][int nanos][int capacidad][int reservas]
+ * [int en espera][uuid socio]... (lista de espera en orden de llegada).
+ * El formato v1 no tenía lista de espera.
+ */
+public class ClaseGrupalCodec implements Codec<ClaseGrupal> {
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @Override
+    public int getTamanoMinimo() {
+        // El formato v1 no tiene la cantidad en espera
+        return 16 + 4 + 8 + 4 + 4 + 4;
+    }
+
+    @Override
+    public void escribir(ClaseGrupal clase, SalidaBinaria salida) throws IOException {
+        salida.putUuid(clase.getId());
+        salida.putString(clase.getNombreClase());
+        salida.putLong(clase.getHorario().toEpochSecond(ZoneOffset.UTC));
+        salida.putInt(clase.getHorario().getNano());
+        salida.putInt(clase.getCapacidadMaxima());
+        salida.putInt(clase.getReservasActuales());
+        List<UUID> enEspera = clase.getListaEspera().getSocios();
+        salida.putInt(enEspera.size());
+        for (UUID socioId : enEspera) {
+            salida.putUuid(socioId);
+        }
+    }
+
+    @Override
+    public ClaseGrupal leer(EntradaBinaria entrada, int version) throws IOException {
+        ClaseGrupal clase = new ClaseGrupal(entrada.getUuid(), entrada.getString(),
+                LocalDateTime.ofEpochSecond(entrada.getLong(), entrada.getInt(), ZoneOffset.UTC),
+                entrada.getInt(), entrada.getInt());
+        if (version >= 2) {
+            ListaEspera lista = clase.getListaEspera();
+            int enEspera = entrada.getCantidad(16);
+            for (int i = 0; i < enEspera; i++) {
+                lista.agregar(entrada.getUuid(), Integer.MAX_VALUE);
+            }
+        }
+        return clase;
+    }
+}
\ No newline at end of file
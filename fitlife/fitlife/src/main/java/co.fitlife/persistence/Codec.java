@@ -0,0 +1,32 @@
+package co.fitlife.persistence;
+
+import java.io.IOException;
+
+/**
+ * Codificador binario de una entidad para GestorArchivos.
+ * Cada implementación define su propio formato y número de versión; la versión se escribe
+ * en la cabecera del archivo y se entrega al leer, para poder migrar formatos antiguos.
+ * @param <T> El tipo de entidad que se codifica.
+ */
+public interface Codec<T> {
+
+    /**
+     * Versión actual del formato que produce {@link #escribir}.
+     */
+    int getVersion();
+
+    void escribir(T valor, SalidaBinaria salida) throws IOException;
+
+    /**
+     * @param version La versión con la que se escribió el archivo.
+     */
+    T leer(EntradaBinaria entrada, int version) throws IOException;
+
+    /**
+     * Bytes que ocupa como mínimo un registro en cualquier versión del formato (textos vacíos).
+     * Sirve para descartar una cabecera dañada antes de reservar memoria para los registros.
+     */
+    default int getTamanoMinimo() {
+        return 1;
+    }
+}
\ No newline at end of file
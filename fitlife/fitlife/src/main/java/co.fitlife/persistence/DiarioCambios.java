@@ -0,0 +1,454 @@
+package co.fitlife.persistence;
+
+import co.fitlife.metricas.Medicion;
+import co.fitlife.metricas.Metricas;
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.PlantillaClase;
+import co.fitlife.model.Reserva;
+import co.fitlife.model.Socio;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Diario de escritura anticipada (write-ahead journal).
+ * En lugar de reescribir socios.dat y clases.dat en cada cambio, cada mutación se agrega
+ * al final de este archivo como un registro compacto. Al iniciar se reproduce sobre la
+ * última instantánea, y periódicamente se compacta: el diario se rota a un segmento
+ * "anterior", se escribe la instantánea y recién entonces se descarta ese segmento.
+ *
+ * Formato de cada registro: [int longitud][int crc32][byte tipo][datos...]
+ * Un registro incompleto o con CRC inválido (caída a mitad de escritura) marca el fin del diario.
+ */
+public class DiarioCambios implements Closeable {
+
+    // Tipos de registro
+    private static final byte SOCIO_REGISTRADO = 1;
+    private static final byte MEMBRESIA_RENOVADA = 2;
+    private static final byte CLASE_CREADA = 3;
+    private static final byte RESERVA_REALIZADA = 4;
+    private static final byte RESERVA_CANCELADA = 5;
+    private static final byte ESPERA_AGREGADA = 6;
+    private static final byte ESPERA_RETIRADA = 7;
+    private static final byte CUPO_AMPLIADO = 8;
+    private static final byte PLANTILLA_CREADA = 9;
+    private static final byte RESERVAS_LOTE = 10;
+    private static final byte ARCHIVADO = 11;
+
+    // Sincronización en grupo: se hace fsync cada N registros o cada cierto intervalo
+    private static final int TAMANO_GRUPO = 64;
+    private static final long INTERVALO_SINCRONIZACION_MS = 200;
+
+    /**
+     * Receptor de los registros durante la reproducción del diario.
+     * Todas las operaciones deben ser idempotentes: si la aplicación se cae entre escribir
+     * la instantánea y vaciar el diario, los registros se vuelven a aplicar sobre ella.
+     */
+    public interface Aplicador {
+        void socioRegistrado(Socio socio);
+        void membresiaRenovada(UUID socioId, LocalDate nuevoVencimiento);
+        void claseCreada(ClaseGrupal clase);
+        void reservaRealizada(UUID claseId, UUID socioId, int reservasActuales);
+        void reservaCancelada(UUID claseId, UUID socioId);
+        void esperaAgregada(UUID claseId, UUID socioId);
+        void esperaRetirada(UUID claseId, UUID socioId);
+        void cupoAmpliado(UUID claseId, int capacidadMaxima);
+        void plantillaCreada(PlantillaClase plantilla);
+        void archivado(List<UUID> claseIds, List<UUID> socioIds);
+    }
+
+    private final Path archivo;
+    private final Path archivoAnterior;
+    private FileChannel canal;
+    private final ScheduledExecutorService sincronizador;
+    private int registrosTotales;
+    private int pendientesDeSincronizar;
+
+    /**
+     * Abre (o crea) el diario en modo agregar.
+     * @param nombreArchivo El nombre del archivo del diario (ej: cambios.journal).
+     * @throws IOException Si no se puede abrir el archivo.
+     */
+    public DiarioCambios(String nombreArchivo) throws IOException {
+        this.archivo = Path.of(nombreArchivo);
+        this.archivoAnterior = Path.of(nombreArchivo + ".anterior");
+        this.canal = abrirCanal();
+
+        // Hilo demonio que sincroniza los registros pendientes aunque no se llene el grupo
+        this.sincronizador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "diario-fsync");
+            t.setDaemon(true);
+            return t;
+        });
+        sincronizador.scheduleWithFixedDelay(this::sincronizarSilencioso,
+                INTERVALO_SINCRONIZACION_MS, INTERVALO_SINCRONIZACION_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // --- Escritura de registros ---
+
+    public void registrarSocio(Socio socio) throws IOException {
+        agregar(SOCIO_REGISTRADO, out -> {
+            escribirUuid(out, socio.getId());
+            out.writeUTF(socio.getCedula());
+            out.writeUTF(socio.getNombre());
+            out.writeLong(socio.getFechaVencimiento().toEpochDay());
+        });
+    }
+
+    public void registrarRenovacion(Socio socio) throws IOException {
+        // Se guarda la fecha absoluta resultante para que la reproducción sea idempotente
+        agregar(MEMBRESIA_RENOVADA, out -> {
+            escribirUuid(out, socio.getId());
+            out.writeLong(socio.getFechaVencimiento().toEpochDay());
+        });
+    }
+
+    public void registrarClase(ClaseGrupal clase) throws IOException {
+        agregar(CLASE_CREADA, out -> {
+            escribirUuid(out, clase.getId());
+            out.writeUTF(clase.getNombreClase());
+            escribirFechaHora(out, clase.getHorario());
+            out.writeInt(clase.getCapacidadMaxima());
+            out.writeInt(clase.getReservasActuales());
+        });
+    }
+
+    public void registrarReserva(ClaseGrupal clase, Socio socio, int reservasActuales) throws IOException {
+        agregar(RESERVA_REALIZADA, out -> {
+            escribirUuid(out, clase.getId());
+            escribirUuid(out, socio.getId());
+            out.writeInt(reservasActuales);
+        });
+    }
+
+    /**
+     * Las reservas de un lote en un solo registro: al reproducir se aplican todas o ninguna,
+     * aunque la aplicación se caiga a mitad de la escritura.
+     * @param reservasActuales Las reservas de la clase de cada par tras confirmarlo.
+     */
+    public void registrarReservas(List<Reserva> lote, int[] reservasActuales) throws IOException {
+        agregar(RESERVAS_LOTE, out -> {
+            out.writeInt(lote.size());
+            for (int i = 0; i < lote.size(); i++) {
+                escribirUuid(out, lote.get(i).getClaseId());
+                escribirUuid(out, lote.get(i).getSocioId());
+                out.writeInt(reservasActuales[i]);
+            }
+        });
+    }
+
+    public void registrarCancelacion(ClaseGrupal clase, Socio socio) throws IOException {
+        agregar(RESERVA_CANCELADA, out -> {
+            escribirUuid(out, clase.getId());
+            escribirUuid(out, socio.getId());
+        });
+    }
+
+    /**
+     * El socio entró a la lista de espera de la clase (al final).
+     */
+    public void registrarEspera(ClaseGrupal clase, UUID socioId) throws IOException {
+        agregar(ESPERA_AGREGADA, out -> {
+            escribirUuid(out, clase.getId());
+            escribirUuid(out, socioId);
+        });
+    }
+
+    /**
+     * El socio salió de la lista de espera, por promoción o porque desistió.
+     */
+    public void registrarSalidaEspera(ClaseGrupal clase, UUID socioId) throws IOException {
+        agregar(ESPERA_RETIRADA, out -> {
+            escribirUuid(out, clase.getId());
+            escribirUuid(out, socioId);
+        });
+    }
+
+    public void registrarAmpliacionCupo(ClaseGrupal clase) throws IOException {
+        // Capacidad absoluta resultante, igual que la renovación, para reproducir de forma idempotente
+        agregar(CUPO_AMPLIADO, out -> {
+            escribirUuid(out, clase.getId());
+            out.writeInt(clase.getCapacidadMaxima());
+        });
+    }
+
+    public void registrarPlantilla(PlantillaClase plantilla) throws IOException {
+        agregar(PLANTILLA_CREADA, out -> {
+            escribirUuid(out, plantilla.getId());
+            out.writeUTF(plantilla.getNombreClase());
+            out.writeInt(PlantillaClaseCodec.mascara(plantilla.getDias()));
+            out.writeInt(plantilla.getHora().toSecondOfDay());
+            out.writeInt(plantilla.getCapacidadMaxima());
+            out.writeLong(plantilla.getDesde().toEpochDay());
+            out.writeLong(plantilla.getHasta().toEpochDay());
+        });
+    }
+
+    /**
+     * Las clases (con sus reservas y su lista de espera) y los socios que se pasaron al archivo
+     * histórico, en un solo registro. Sin él, reproducir un segmento anterior sobre una instantánea
+     * que ya no los tiene los volvería a crear.
+     */
+    public void registrarArchivado(Collection<UUID> claseIds, Collection<UUID> socioIds) throws IOException {
+        agregar(ARCHIVADO, out -> {
+            escribirUuids(out, claseIds);
+            escribirUuids(out, socioIds);
+        });
+    }
+
+    /**
+     * Cantidad de registros escritos desde la última compactación.
+     */
+    public synchronized int getRegistros() {
+        return registrosTotales;
+    }
+
+    // --- Reproducción y compactación ---
+
+    /**
+     * Reproduce todos los registros válidos del diario en orden.
+     * Si encuentra un registro truncado o corrupto, descarta desde ese punto en adelante.
+     * @param aplicador Receptor de cada registro.
+     * @throws IOException Si ocurre un error de lectura.
+     */
+    public synchronized void reproducir(Aplicador aplicador) throws IOException {
+        Medicion medicion = Metricas.iniciar("diario.reproducir");
+        try {
+            registrosTotales = 0;
+
+            // Segmento anterior: quedó si la aplicación se cerró antes de terminar una compactación
+            if (Files.exists(archivoAnterior)) {
+                reproducirSegmento(archivoAnterior, Files.size(archivoAnterior), aplicador);
+            }
+
+            long tamano = canal.size();
+            long posicionValida = reproducirSegmento(archivo, tamano, aplicador);
+            if (posicionValida < tamano) {
+                System.err.println("Diario truncado en el byte " + posicionValida + " (registro incompleto descartado).");
+                Metricas.contar("diario.truncados", 1);
+                canal.truncate(posicionValida);
+            }
+            canal.position(posicionValida);
+            medicion.registros(registrosTotales).bytes(posicionValida);
+            medicion.completada();
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    /**
+     * Primer paso de la compactación: cierra el segmento actual como "anterior" y empieza uno vacío.
+     * Los cambios posteriores van al segmento nuevo, así la instantánea puede escribirse sin
+     * bloquear las mutaciones. Si ya había un segmento anterior (compactación fallida), se le anexa.
+     * @throws IOException Si no se puede rotar el archivo.
+     */
+    public synchronized void rotar() throws IOException {
+        canal.force(false);
+        canal.close();
+
+        if (Files.exists(archivoAnterior)) {
+            try (FileChannel origen = FileChannel.open(archivo, StandardOpenOption.READ);
+                 FileChannel destino = FileChannel.open(archivoAnterior, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long copiados = 0;
+                while (copiados < origen.size()) {
+                    copiados += origen.transferTo(copiados, origen.size() - copiados, destino);
+                }
+                destino.force(true);
+            }
+            Files.delete(archivo);
+        } else {
+            Files.move(archivo, archivoAnterior, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        canal = abrirCanal();
+        registrosTotales = 0;
+        pendientesDeSincronizar = 0;
+    }
+
+    /**
+     * Segundo paso de la compactación: descarta el segmento anterior.
+     * Debe llamarse solo después de escribir por completo la instantánea.
+     * @throws IOException Si no se puede borrar el archivo.
+     */
+    public synchronized void descartarAnterior() throws IOException {
+        Files.deleteIfExists(archivoAnterior);
+    }
+
+    /**
+     * Fuerza a disco todos los registros pendientes (fsync).
+     * @throws IOException Si falla la sincronización.
+     */
+    public synchronized void sincronizar() throws IOException {
+        if (pendientesDeSincronizar > 0) {
+            Medicion medicion = Metricas.iniciar("diario.sincronizar");
+            try {
+                canal.force(false);
+                medicion.registros(pendientesDeSincronizar);
+                medicion.completada();
+            } finally {
+                medicion.terminar();
+            }
+            pendientesDeSincronizar = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sincronizador.shutdown();
+        synchronized (this) {
+            sincronizar();
+            canal.close();
+        }
+    }
+
+    // --- Utilidades internas ---
+
+    private FileChannel abrirCanal() throws IOException {
+        FileChannel nuevo = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        nuevo.position(nuevo.size());
+        return nuevo;
+    }
+
+    /**
+     * Aplica los registros válidos de un segmento y retorna la posición del primer byte inválido.
+     */
+    private long reproducirSegmento(Path segmento, long tamano, Aplicador aplicador) throws IOException {
+        long posicionValida = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segmento)))) {
+            while (posicionValida + 8 <= tamano) {
+                int longitud = in.readInt();
+                int crc = in.readInt();
+                if (longitud <= 0 || posicionValida + 8 + longitud > tamano) {
+                    break;
+                }
+                byte[] datos = in.readNBytes(longitud);
+                CRC32 suma = new CRC32();
+                suma.update(datos);
+                if ((int) suma.getValue() != crc) {
+                    break;
+                }
+                aplicarRegistro(datos, aplicador);
+                posicionValida += 8 + longitud;
+                registrosTotales++;
+            }
+        }
+        return posicionValida;
+    }
+
+    private interface Escritor {
+        void escribir(DataOutputStream out) throws IOException;
+    }
+
+    private synchronized void agregar(byte tipo, Escritor escritor) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(tipo);
+        escritor.escribir(out);
+        byte[] datos = bytes.toByteArray();
+
+        CRC32 suma = new CRC32();
+        suma.update(datos);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + datos.length);
+        buffer.putInt(datos.length).putInt((int) suma.getValue()).put(datos).flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        Metricas.contar("diario.registros", 1);
+        Metricas.contar("diario.bytes", 8 + datos.length);
+
+        registrosTotales++;
+        if (++pendientesDeSincronizar >= TAMANO_GRUPO) {
+            sincronizar();
+        }
+    }
+
+    private void sincronizarSilencioso() {
+        try {
+            sincronizar();
+        } catch (IOException e) {
+            System.err.println("Error sincronizando el diario: " + e.getMessage());
+        }
+    }
+
+    private static void aplicarRegistro(byte[] datos, Aplicador aplicador) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(datos));
+        byte tipo = in.readByte();
+        switch (tipo) {
+            case SOCIO_REGISTRADO -> aplicador.socioRegistrado(new Socio(
+                    leerUuid(in), in.readUTF(), in.readUTF(), LocalDate.ofEpochDay(in.readLong())));
+            case MEMBRESIA_RENOVADA -> aplicador.membresiaRenovada(
+                    leerUuid(in), LocalDate.ofEpochDay(in.readLong()));
+            case CLASE_CREADA -> aplicador.claseCreada(new ClaseGrupal(
+                    leerUuid(in), in.readUTF(), leerFechaHora(in), in.readInt(), in.readInt()));
+            case RESERVA_REALIZADA -> aplicador.reservaRealizada(leerUuid(in), leerUuid(in), in.readInt());
+            case RESERVAS_LOTE -> {
+                int cantidad = in.readInt();
+                for (int i = 0; i < cantidad; i++) {
+                    aplicador.reservaRealizada(leerUuid(in), leerUuid(in), in.readInt());
+                }
+            }
+            case RESERVA_CANCELADA -> aplicador.reservaCancelada(leerUuid(in), leerUuid(in));
+            case ESPERA_AGREGADA -> aplicador.esperaAgregada(leerUuid(in), leerUuid(in));
+            case ESPERA_RETIRADA -> aplicador.esperaRetirada(leerUuid(in), leerUuid(in));
+            case CUPO_AMPLIADO -> aplicador.cupoAmpliado(leerUuid(in), in.readInt());
+            case PLANTILLA_CREADA -> aplicador.plantillaCreada(new PlantillaClase(
+                    leerUuid(in), in.readUTF(), PlantillaClaseCodec.dias(in.readInt()), LocalTime.ofSecondOfDay(in.readInt()),
+                    in.readInt(), LocalDate.ofEpochDay(in.readLong()), LocalDate.ofEpochDay(in.readLong())));
+            case ARCHIVADO -> aplicador.archivado(leerUuids(in), leerUuids(in));
+            default -> throw new IOException("Tipo de registro desconocido en el diario: " + tipo);
+        }
+    }
+
+    private static void escribirUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID leerUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void escribirUuids(DataOutputStream out, Collection<UUID> ids) throws IOException {
+        out.writeInt(ids.size());
+        for (UUID id : ids) {
+            escribirUuid(out, id);
+        }
+    }
+
+    private static List<UUID> leerUuids(DataInputStream in) throws IOException {
+        int cantidad = in.readInt();
+        // El registro ya pasó el CRC; igual la capacidad no supera lo que queda por leer
+        List<UUID> ids = new ArrayList<>(Math.max(0, Math.min(cantidad, in.available() / 16)));
+        for (int i = 0; i < cantidad; i++) {
+            ids.add(leerUuid(in));
+        }
+        return ids;
+    }
+
+    private static void escribirFechaHora(DataOutputStream out, LocalDateTime fecha) throws IOException {
+        out.writeLong(fecha.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(fecha.getNano());
+    }
+
+    private static LocalDateTime leerFechaHora(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+}
\ No newline at end of file
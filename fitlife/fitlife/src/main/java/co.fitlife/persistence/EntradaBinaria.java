@@ -0,0 +1,121 @@
+package co.fitlife.persistence;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Lectura binaria desde un FileChannel con un buffer directo. Contraparte de {@link SalidaBinaria}.
+ * También lee de otros canales (por ejemplo, uno comprimido del archivo histórico).
+ *
+ * Las longitudes y cantidades leídas del archivo se validan antes de reservar memoria: un dato
+ * dañado termina en IOException (y en el respaldo .corrupto), nunca en OutOfMemoryError.
+ */
+public class EntradaBinaria {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final ReadableByteChannel canal;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+    // Bytes que todavía no se leyeron del canal (Long.MAX_VALUE si no se conoce el tamaño)
+    private long restantesCanal;
+
+    /**
+     * Canal de tamaño desconocido: las longitudes se validan a medida que llegan los datos.
+     */
+    public EntradaBinaria(ReadableByteChannel canal) {
+        this(canal, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param tamano Bytes que quedan por leer en el canal; una longitud mayor se rechaza enseguida.
+     */
+    public EntradaBinaria(ReadableByteChannel canal, long tamano) {
+        this.canal = canal;
+        this.restantesCanal = tamano;
+        buffer.flip(); // Empieza vacío: la primera lectura llena el buffer
+    }
+
+    public byte getByte() throws IOException {
+        asegurar(1);
+        return buffer.get();
+    }
+
+    public int getInt() throws IOException {
+        asegurar(4);
+        return buffer.getInt();
+    }
+
+    public long getLong() throws IOException {
+        asegurar(8);
+        return buffer.getLong();
+    }
+
+    public UUID getUuid() throws IOException {
+        asegurar(16);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    public String getString() throws IOException {
+        int longitud = getInt();
+        if (longitud < 0 || longitud > disponibles()) {
+            throw new IOException("Longitud de texto inválida: " + longitud + " (quedan " + disponibles() + " bytes)");
+        }
+        // Sin tamaño conocido el arreglo crece a medida que llegan los datos: una longitud dañada
+        // termina en fin de archivo y no en un arreglo enorme
+        byte[] bytes = new byte[Math.min(longitud, TAMANO_BUFFER)];
+        int leidos = 0;
+        while (leidos < longitud) {
+            if (!buffer.hasRemaining()) {
+                llenar();
+            }
+            if (leidos == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(longitud, 2L * bytes.length));
+            }
+            int parte = Math.min(buffer.remaining(), bytes.length - leidos);
+            buffer.get(bytes, leidos, parte);
+            leidos += parte;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Una cantidad de elementos que siguen en el canal, validada contra los bytes que quedan.
+     * @param tamanoMinimo Bytes que ocupa como mínimo cada elemento.
+     * @throws IOException Si es negativa o no entra en lo que queda del canal.
+     */
+    public int getCantidad(int tamanoMinimo) throws IOException {
+        int cantidad = getInt();
+        if (cantidad < 0 || (long) cantidad * tamanoMinimo > disponibles()) {
+            throw new IOException("Cantidad inválida: " + cantidad + " (quedan " + disponibles() + " bytes)");
+        }
+        return cantidad;
+    }
+
+    // Bytes que quedan entre el buffer y el canal
+    private long disponibles() {
+        return restantesCanal == Long.MAX_VALUE ? Long.MAX_VALUE : restantesCanal + buffer.remaining();
+    }
+
+    private void asegurar(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            llenar();
+        }
+    }
+
+    private void llenar() throws IOException {
+        buffer.compact();
+        int leidos = canal.read(buffer);
+        buffer.flip();
+        if (leidos < 0) {
+            throw new EOFException("Fin de archivo inesperado");
+        }
+        if (restantesCanal != Long.MAX_VALUE) {
+            restantesCanal -= leidos;
+        }
+    }
+}
\ No newline at end of file
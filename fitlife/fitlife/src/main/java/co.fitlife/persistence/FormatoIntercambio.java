@@ -0,0 +1,149 @@
+package co.fitlife.persistence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formatos de texto de importación y exportación: un registro por línea.
+ * CSV con cabecera y comillas dobles para valores con comas o comillas (sin saltos de línea
+ * dentro de un valor); NDJSON con un objeto JSON plano por línea.
+ */
+public enum FormatoIntercambio {
+
+    CSV {
+        @Override
+        public String cabecera(String[] columnas) {
+            return escribir(columnas, columnas);
+        }
+
+        @Override
+        public boolean esCabecera(String linea, String[] columnas) {
+            List<String> valores = dividir(linea);
+            return !valores.isEmpty() && valores.get(0).trim().equalsIgnoreCase(columnas[0]);
+        }
+
+        @Override
+        public Map<String, String> leer(String linea, String[] columnas) {
+            List<String> valores = dividir(linea);
+            if (valores.size() > columnas.length) {
+                throw new IllegalArgumentException("Se esperaban como máximo " + columnas.length
+                        + " columnas y hay " + valores.size());
+            }
+            Map<String, String> campos = new HashMap<>(columnas.length * 2);
+            for (int i = 0; i < valores.size(); i++) {
+                campos.put(columnas[i], valores.get(i));
+            }
+            return campos;
+        }
+
+        @Override
+        public String escribir(String[] columnas, Object[] valores) {
+            StringBuilder sb = new StringBuilder(24 * valores.length);
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                String valor = valores[i] == null ? "" : valores[i].toString();
+                if (valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0) {
+                    sb.append('"').append(valor.replace("\"", "\"\"")).append('"');
+                } else {
+                    sb.append(valor);
+                }
+            }
+            return sb.toString();
+        }
+    },
+
+    NDJSON {
+        @Override
+        public String cabecera(String[] columnas) {
+            return null;
+        }
+
+        @Override
+        public boolean esCabecera(String linea, String[] columnas) {
+            return false;
+        }
+
+        @Override
+        public Map<String, String> leer(String linea, String[] columnas) {
+            return JsonPlano.leerObjeto(linea);
+        }
+
+        @Override
+        public String escribir(String[] columnas, Object[] valores) {
+            return JsonPlano.escribirObjeto(columnas, valores);
+        }
+    };
+
+    /**
+     * La línea de cabecera del archivo, o null si el formato no usa cabecera.
+     */
+    public abstract String cabecera(String[] columnas);
+
+    /**
+     * Si la primera línea del archivo es una cabecera que hay que saltar.
+     */
+    public abstract boolean esCabecera(String linea, String[] columnas);
+
+    /**
+     * Lee un registro como columna -> valor (texto). Las columnas ausentes no aparecen en el mapa.
+     * @throws IllegalArgumentException Si la línea está mal formada.
+     */
+    public abstract Map<String, String> leer(String linea, String[] columnas);
+
+    /**
+     * Escribe un registro en una línea (sin el salto de línea).
+     */
+    public abstract String escribir(String[] columnas, Object[] valores);
+
+    /**
+     * Deduce el formato por la extensión (.csv, .ndjson, .jsonl).
+     */
+    public static FormatoIntercambio desdeNombreArchivo(String nombre) {
+        String minusculas = nombre.toLowerCase();
+        if (minusculas.endsWith(".ndjson") || minusculas.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        if (minusculas.endsWith(".csv")) {
+            return CSV;
+        }
+        throw new IllegalArgumentException("Formato no reconocido (use .csv o .ndjson): " + nombre);
+    }
+
+    // Divide una línea CSV respetando las comillas dobles ("" dentro de comillas es una comilla)
+    private static List<String> dividir(String linea) {
+        List<String> valores = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"') {
+                    if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                        actual.append('"');
+                        i++;
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                valores.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        valores.add(actual.toString());
+        return valores;
+    }
+}
\ No newline at end of file
@@ -1,14 +1,36 @@
 package co.fitlife.persistence;
 
+import co.fitlife.metricas.Medicion;
+import co.fitlife.metricas.Metricas;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Clase genérica para manejar la serialización de listas a archivos binarios (.dat).
+ * Soporta dos formatos: la serialización estándar de Java (formato original) y un formato
+ * binario propio por {@link Codec}, más compacto y rápido, que además tolera cambios en el modelo.
+ *
+ * Todas las escrituras son atómicas: se escribe un archivo temporal, se fuerza a disco y se
+ * renombra sobre el destino. Una caída a mitad de un guardado deja intacto el archivo anterior.
+ * Varios archivos que deben quedar de la misma generación (la instantánea completa) se guardan
+ * como conjunto con un manifiesto: ver {@link #confirmarConjunto} y {@link #recuperarConjunto}.
  */
 public class GestorArchivos {
 
+    // Cabecera del formato propio: [int MAGIA][int versión del codec][int cantidad de registros]
+    private static final int MAGIA = 0x464C5042; // "FLPB"
+    // Los archivos de serialización Java empiezan con 0xACED
+    private static final short MAGIA_SERIALIZACION_JAVA = (short) 0xACED;
+
     /**
      * Guarda una lista de objetos serializables en un archivo binario.
      * @param nombreArchivo El nombre del archivo de destino (ej: socios.dat).
@@ -16,9 +38,22 @@ public class GestorArchivos {
      * @throws IOException Si ocurre un error de escritura.
      */
     public static <T> void guardarDatos(String nombreArchivo, List<T> datos) throws IOException {
-        // Usamos try-with-resources para asegurar que el ObjectOutputStream se cierre
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(nombreArchivo))) {
-            oos.writeObject(datos);
+        Medicion medicion = Metricas.iniciar(operacion("guardar", nombreArchivo));
+        try {
+            Path temporal = archivoTemporal(nombreArchivo);
+            // Usamos try-with-resources para asegurar que el ObjectOutputStream se cierre
+            try (FileOutputStream fos = new FileOutputStream(temporal.toFile());
+                 ObjectOutputStream oos = new ObjectOutputStream(fos)) {
+                oos.writeObject(datos);
+                oos.flush();
+                // Forzamos a disco antes de reemplazar el archivo original
+                fos.getFD().sync();
+            }
+            medicion.registros(datos.size()).bytes(Files.size(temporal));
+            reemplazar(temporal, Path.of(nombreArchivo));
+            medicion.completada();
+        } finally {
+            medicion.terminar();
         }
     }
 
@@ -35,20 +70,247 @@ public class GestorArchivos {
 
         // Verificamos si el archivo existe antes de intentar leerlo
         if (archivo.exists()) {
+            Medicion medicion = Metricas.iniciar(operacion("cargar", nombreArchivo));
             try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(archivo))) {
                 // Leemos el objeto y lo casteamos a una lista genérica
                 datos = (List<T>) ois.readObject();
+                medicion.registros(datos.size()).bytes(archivo.length());
+                medicion.completada();
             } catch (FileNotFoundException e) {
                 // Este caso es poco probable porque ya comprobamos .exists()
                 System.err.println("Archivo no encontrado: " + nombreArchivo);
             } catch (IOException | ClassNotFoundException e) {
                 // Manejo de Excepciones: Si el archivo está corrupto o la clase no existe
                 System.err.println("Error cargando el archivo de datos: " + e.getMessage());
-                // Retornamos lista vacía para que el programa pueda continuar
+                // Retornamos lista vacía para que el programa pueda continuar, pero antes
+                // se respalda el archivo para que el próximo guardado no lo sobrescriba
+                respaldarCorrupto(nombreArchivo);
                 return new ArrayList<>();
+            } finally {
+                medicion.terminar();
             }
         }
         // Si el archivo no existía, retorna la lista vacía inicializada
         return datos;
     }
+
+    /**
+     * Guarda una lista en el formato binario propio usando un FileChannel y buffers directos.
+     * @param nombreArchivo El nombre del archivo de destino (ej: socios.dat).
+     * @param datos La lista de objetos a guardar.
+     * @param codec El codificador de cada registro.
+     * @throws IOException Si ocurre un error de escritura.
+     */
+    public static <T> void guardarDatos(String nombreArchivo, List<T> datos, Codec<T> codec) throws IOException {
+        Medicion medicion = Metricas.iniciar(operacion("guardar", nombreArchivo));
+        try {
+            Path temporal = escribirTemporal(nombreArchivo, datos, codec);
+            medicion.registros(datos.size()).bytes(Files.size(temporal));
+            reemplazar(temporal, Path.of(nombreArchivo));
+            medicion.completada();
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    /**
+     * Escribe la lista en el temporal del archivo (forzado a disco) sin reemplazar el archivo:
+     * queda pendiente hasta {@link #confirmarConjunto}.
+     */
+    public static <T> void guardarPendiente(String nombreArchivo, List<T> datos, Codec<T> codec) throws IOException {
+        Medicion medicion = Metricas.iniciar(operacion("guardar", nombreArchivo));
+        try {
+            Path temporal = escribirTemporal(nombreArchivo, datos, codec);
+            medicion.registros(datos.size()).bytes(Files.size(temporal));
+            medicion.completada();
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    /**
+     * Reemplaza juntos los archivos ya escritos con {@link #guardarPendiente}. Primero se guarda el
+     * manifiesto con sus nombres: desde ese momento el conjunto nuevo es el válido, y si la caída
+     * ocurre a mitad de los renombrados, {@link #recuperarConjunto} los completa al abrir.
+     * @param manifiesto El archivo que marca el conjunto como confirmado (ej: instantanea.confirmada).
+     * @param nombresArchivos Los archivos del conjunto.
+     * @throws IOException Si no se puede escribir el manifiesto o renombrar algún archivo.
+     */
+    public static void confirmarConjunto(String manifiesto, List<String> nombresArchivos) throws IOException {
+        Path temporal = archivoTemporal(manifiesto);
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // Solo los nombres: los archivos están en la misma carpeta que el manifiesto
+            List<String> nombres = new ArrayList<>(nombresArchivos.size());
+            for (String nombreArchivo : nombresArchivos) {
+                nombres.add(Path.of(nombreArchivo).getFileName().toString());
+            }
+            ByteBuffer contenido = StandardCharsets.UTF_8.encode(String.join("\n", nombres));
+            while (contenido.hasRemaining()) {
+                canal.write(contenido);
+            }
+            canal.force(true);
+        }
+        reemplazar(temporal, Path.of(manifiesto));
+        completarConjunto(nombresArchivos);
+        Files.delete(Path.of(manifiesto));
+    }
+
+    /**
+     * Deja un conjunto entero al abrir: si el manifiesto existe, el guardado ya estaba confirmado y
+     * se terminan los renombrados pendientes; si no, se descartan los temporales a medio escribir
+     * y quedan los archivos anteriores, todos de la misma generación.
+     * @param manifiesto El archivo de {@link #confirmarConjunto}.
+     * @param nombresArchivos Los archivos que puede tener el conjunto.
+     * @throws IOException Si no se puede completar el conjunto confirmado.
+     */
+    public static void recuperarConjunto(String manifiesto, List<String> nombresArchivos) throws IOException {
+        Path confirmado = Path.of(manifiesto);
+        if (Files.exists(confirmado)) {
+            Path directorio = confirmado.toAbsolutePath().getParent();
+            List<String> pendientes = new ArrayList<>();
+            for (String linea : Files.readAllLines(confirmado, StandardCharsets.UTF_8)) {
+                if (!linea.isBlank()) {
+                    pendientes.add(directorio.resolve(linea).toString());
+                }
+            }
+            System.err.println("Se completa la instantánea interrumpida: " + pendientes);
+            completarConjunto(pendientes);
+            Files.delete(confirmado);
+        }
+        for (String nombreArchivo : nombresArchivos) {
+            Files.deleteIfExists(archivoTemporal(nombreArchivo));
+        }
+        Files.deleteIfExists(archivoTemporal(manifiesto));
+    }
+
+    /**
+     * Carga una lista escrita en el formato binario propio.
+     * Si el archivo todavía está en el formato original (serialización Java) lo lee con
+     * {@link #cargarDatos(String)}; el siguiente guardado lo deja migrado al formato nuevo.
+     * @param nombreArchivo El nombre del archivo a leer.
+     * @param codec El decodificador de cada registro.
+     * @return Una lista de objetos cargados, o una lista vacía si el archivo no existe o hay error.
+     */
+    public static <T> List<T> cargarDatos(String nombreArchivo, Codec<T> codec) {
+        File archivo = new File(nombreArchivo);
+        if (!archivo.exists() || archivo.length() < 4) {
+            return new ArrayList<>();
+        }
+
+        Medicion medicion = null;
+        try (FileChannel canal = FileChannel.open(archivo.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer cabecera = ByteBuffer.allocate(4);
+            canal.read(cabecera, 0);
+            cabecera.flip();
+            if (cabecera.getShort(0) == MAGIA_SERIALIZACION_JAVA) {
+                System.out.println("Migrando " + nombreArchivo + " desde serialización Java al formato binario.");
+                // La lectura con serialización Java registra su propia métrica
+                return cargarDatos(nombreArchivo);
+            }
+            if (cabecera.getInt(0) != MAGIA) {
+                throw new IOException("Formato de archivo desconocido: " + nombreArchivo);
+            }
+
+            medicion = Metricas.iniciar(operacion("cargar", nombreArchivo));
+            EntradaBinaria entrada = new EntradaBinaria(canal, canal.size());
+            entrada.getInt(); // MAGIA
+            int version = entrada.getInt();
+            if (version > codec.getVersion()) {
+                throw new IOException("El archivo " + nombreArchivo + " usa la versión " + version
+                        + ", más nueva que la soportada (" + codec.getVersion() + ").");
+            }
+            int cantidad = entrada.getInt();
+            // Una cantidad dañada en la cabecera no debe reservar memoria de más
+            long maximo = (archivo.length() - 12) / codec.getTamanoMinimo();
+            if (cantidad < 0 || cantidad > maximo) {
+                throw new IOException("Cantidad de registros inválida en " + nombreArchivo + ": " + cantidad
+                        + " (el archivo admite hasta " + maximo + ").");
+            }
+            List<T> datos = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                datos.add(codec.leer(entrada, version));
+            }
+            medicion.registros(cantidad).bytes(archivo.length());
+            medicion.completada();
+            return datos;
+        } catch (IOException e) {
+            // Manejo de Excepciones: Si el archivo está corrupto o truncado
+            System.err.println("Error cargando el archivo de datos: " + e.getMessage());
+            respaldarCorrupto(nombreArchivo);
+            return new ArrayList<>();
+        } finally {
+            if (medicion != null) {
+                medicion.terminar();
+            }
+        }
+    }
+
+    // Nombre de la métrica: persistencia.guardar.socios.dat, persistencia.cargar.clases.dat...
+    private static String operacion(String accion, String nombreArchivo) {
+        return "persistencia." + accion + "." + Path.of(nombreArchivo).getFileName();
+    }
+
+    // --- Utilidades de escritura atómica ---
+
+    private static Path archivoTemporal(String nombreArchivo) {
+        return Path.of(nombreArchivo + ".tmp");
+    }
+
+    private static <T> Path escribirTemporal(String nombreArchivo, List<T> datos, Codec<T> codec) throws IOException {
+        Path temporal = archivoTemporal(nombreArchivo);
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             SalidaBinaria salida = new SalidaBinaria(canal)) {
+            salida.putInt(MAGIA);
+            salida.putInt(codec.getVersion());
+            salida.putInt(datos.size());
+            for (T dato : datos) {
+                codec.escribir(dato, salida);
+            }
+        }
+        return temporal;
+    }
+
+    // Renombra los temporales que todavía existan; los ya renombrados se saltean
+    private static void completarConjunto(List<String> nombresArchivos) throws IOException {
+        for (String nombreArchivo : nombresArchivos) {
+            Path temporal = archivoTemporal(nombreArchivo);
+            if (Files.exists(temporal)) {
+                reemplazar(temporal, Path.of(nombreArchivo));
+            }
+        }
+    }
+
+    /**
+     * Renombra el temporal (ya sincronizado) sobre el destino y sincroniza el directorio,
+     * para que el renombrado también sobreviva a un corte de energía.
+     */
+    private static void reemplazar(Path temporal, Path destino) throws IOException {
+        try {
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        Path directorio = destino.toAbsolutePath().getParent();
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Algunos sistemas (Windows) no permiten abrir directorios: el renombrado sigue siendo atómico
+        }
+    }
+
+    /**
+     * Copia un archivo ilegible a nombre.corrupto para no perder los datos al guardar de nuevo.
+     */
+    static void respaldarCorrupto(String nombreArchivo) {
+        Path respaldo = Path.of(nombreArchivo + ".corrupto");
+        try {
+            Files.copy(Path.of(nombreArchivo), respaldo, StandardCopyOption.REPLACE_EXISTING);
+            System.err.println("Se guardó una copia del archivo ilegible en " + respaldo);
+        } catch (IOException e) {
+            System.err.println("No se pudo respaldar " + nombreArchivo + ": " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
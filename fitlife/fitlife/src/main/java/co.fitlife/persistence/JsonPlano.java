@@ -0,0 +1,199 @@
+package co.fitlife.persistence;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lectura y escritura de objetos JSON planos (sin objetos ni arreglos anidados), suficiente para
+ * una línea de NDJSON. Los valores se leen como texto; null se lee como null.
+ */
+public final class JsonPlano {
+
+    private JsonPlano() {
+    }
+
+    /**
+     * @throws IllegalArgumentException Si el texto no es un objeto JSON plano válido.
+     */
+    public static Map<String, String> leerObjeto(String texto) {
+        Lector lector = new Lector(texto);
+        Map<String, String> campos = new LinkedHashMap<>();
+        lector.esperar('{');
+        if (!lector.consumirSi('}')) {
+            do {
+                String clave = lector.leerCadena();
+                lector.esperar(':');
+                campos.put(clave, lector.leerValor());
+            } while (lector.consumirSi(','));
+            lector.esperar('}');
+        }
+        lector.esperarFin();
+        return campos;
+    }
+
+    /**
+     * Escribe un objeto con las claves en orden. Los valores {@link Number} y {@link Boolean} se
+     * escriben sin comillas, null como null y el resto como cadena.
+     */
+    public static String escribirObjeto(String[] claves, Object[] valores) {
+        StringBuilder sb = new StringBuilder(32 * claves.length);
+        sb.append('{');
+        for (int i = 0; i < claves.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            escribirCadena(sb, claves[i]);
+            sb.append(':');
+            escribirValor(sb, valores[i]);
+        }
+        return sb.append('}').toString();
+    }
+
+    public static void escribirValor(StringBuilder sb, Object valor) {
+        if (valor == null) {
+            sb.append("null");
+        } else if (valor instanceof Number || valor instanceof Boolean) {
+            sb.append(valor);
+        } else {
+            escribirCadena(sb, valor.toString());
+        }
+    }
+
+    public static void escribirCadena(StringBuilder sb, String texto) {
+        sb.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static final class Lector {
+        private final String texto;
+        private int pos;
+
+        Lector(String texto) {
+            this.texto = texto;
+        }
+
+        void saltarEspacios() {
+            while (pos < texto.length() && Character.isWhitespace(texto.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean consumirSi(char c) {
+            saltarEspacios();
+            if (pos < texto.length() && texto.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void esperar(char c) {
+            if (!consumirSi(c)) {
+                throw error("se esperaba '" + c + "'");
+            }
+        }
+
+        void esperarFin() {
+            saltarEspacios();
+            if (pos < texto.length()) {
+                throw error("contenido después del objeto");
+            }
+        }
+
+        String leerValor() {
+            saltarEspacios();
+            if (pos >= texto.length()) {
+                throw error("falta el valor");
+            }
+            char c = texto.charAt(pos);
+            if (c == '"') {
+                return leerCadena();
+            }
+            if (c == '{' || c == '[') {
+                throw error("no se admiten objetos ni arreglos anidados");
+            }
+            int inicio = pos;
+            while (pos < texto.length() && ",}".indexOf(texto.charAt(pos)) < 0 && !Character.isWhitespace(texto.charAt(pos))) {
+                pos++;
+            }
+            String literal = texto.substring(inicio, pos);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.equals("true") || literal.equals("false") || esNumero(literal)) {
+                return literal;
+            }
+            throw error("valor inválido '" + literal + "'");
+        }
+
+        String leerCadena() {
+            esperar('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < texto.length()) {
+                char c = texto.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= texto.length()) {
+                    break;
+                }
+                char escape = texto.charAt(pos++);
+                switch (escape) {
+                    case '"', '\\', '/' -> sb.append(escape);
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > texto.length()) {
+                            throw error("escape \\u incompleto");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(texto.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("escape \\u inválido");
+                        }
+                        pos += 4;
+                    }
+                    default -> throw error("escape inválido '\\" + escape + "'");
+                }
+            }
+            throw error("cadena sin cerrar");
+        }
+
+        private static boolean esNumero(String literal) {
+            try {
+                Double.parseDouble(literal);
+                return !literal.isEmpty() && (Character.isDigit(literal.charAt(0)) || literal.charAt(0) == '-');
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        private IllegalArgumentException error(String detalle) {
+            return new IllegalArgumentException("JSON inválido en la posición " + pos + ": " + detalle);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package co.fitlife.persistence;
+
+import co.fitlife.model.PlantillaClase;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Formato v1 de PlantillaClase: [uuid][nombre][int días (bit 0 = lunes)][int hora en segundo del día]
+ * [int capacidad][long desde en epoch-day][long hasta en epoch-day]
+ */
+public class PlantillaClaseCodec implements Codec<PlantillaClase> {
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getTamanoMinimo() {
+        return 16 + 4 + 4 + 4 + 4 + 8 + 8;
+    }
+
+    @Override
+    public void escribir(PlantillaClase plantilla, SalidaBinaria salida) throws IOException {
+        salida.putUuid(plantilla.getId());
+        salida.putString(plantilla.getNombreClase());
+        salida.putInt(mascara(plantilla.getDias()));
+        salida.putInt(plantilla.getHora().toSecondOfDay());
+        salida.putInt(plantilla.getCapacidadMaxima());
+        salida.putLong(plantilla.getDesde().toEpochDay());
+        salida.putLong(plantilla.getHasta().toEpochDay());
+    }
+
+    @Override
+    public PlantillaClase leer(EntradaBinaria entrada, int version) throws IOException {
+        return new PlantillaClase(entrada.getUuid(), entrada.getString(), dias(entrada.getInt()),
+                LocalTime.ofSecondOfDay(entrada.getInt()), entrada.getInt(),
+                LocalDate.ofEpochDay(entrada.getLong()), LocalDate.ofEpochDay(entrada.getLong()));
+    }
+
+    static int mascara(Set<DayOfWeek> dias) {
+        int mascara = 0;
+        for (DayOfWeek dia : dias) {
+            mascara |= 1 << dia.ordinal();
+        }
+        return mascara;
+    }
+
+    static Set<DayOfWeek> dias(int mascara) {
+        Set<DayOfWeek> dias = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek dia : DayOfWeek.values()) {
+            if ((mascara & 1 << dia.ordinal()) != 0) {
+                dias.add(dia);
+            }
+        }
+        return dias;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package co.fitlife.persistence;
+
+import co.fitlife.model.Reserva;
+import java.io.IOException;
+
+/**
+ * Formato v1 de Reserva: [uuid socio][uuid clase]
+ */
+public class ReservaCodec implements Codec<Reserva> {
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getTamanoMinimo() {
+        return 16 + 16;
+    }
+
+    @Override
+    public void escribir(Reserva reserva, SalidaBinaria salida) throws IOException {
+        salida.putUuid(reserva.getSocioId());
+        salida.putUuid(reserva.getClaseId());
+    }
+
+    @Override
+    public Reserva leer(EntradaBinaria entrada, int version) throws IOException {
+        return new Reserva(entrada.getUuid(), entrada.getUuid());
+    }
+}
\ No newline at end of file
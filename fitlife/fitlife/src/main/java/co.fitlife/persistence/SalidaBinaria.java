@@ -0,0 +1,90 @@
+package co.fitlife.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Escritura binaria sobre un FileChannel usando un buffer directo (sin copias intermedias en el heap).
+ * Los textos se guardan como UTF-8 con prefijo de longitud y los UUID como dos longs.
+ * También escribe sobre otros canales (por ejemplo, uno comprimido del archivo histórico).
+ */
+public class SalidaBinaria implements Closeable {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final WritableByteChannel canal;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+
+    public SalidaBinaria(WritableByteChannel canal) {
+        this.canal = canal;
+    }
+
+    public void putByte(byte valor) throws IOException {
+        asegurar(1);
+        buffer.put(valor);
+    }
+
+    public void putInt(int valor) throws IOException {
+        asegurar(4);
+        buffer.putInt(valor);
+    }
+
+    public void putLong(long valor) throws IOException {
+        asegurar(8);
+        buffer.putLong(valor);
+    }
+
+    public void putUuid(UUID id) throws IOException {
+        asegurar(16);
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+    }
+
+    public void putString(String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        int escritos = 0;
+        // Textos más grandes que el buffer se escriben por partes
+        while (escritos < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                vaciar();
+            }
+            int parte = Math.min(buffer.remaining(), bytes.length - escritos);
+            buffer.put(bytes, escritos, parte);
+            escritos += parte;
+        }
+    }
+
+    /**
+     * Escribe en el canal todo lo acumulado en el buffer.
+     */
+    public void vaciar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Vacía el buffer y, si el canal es un archivo, fuerza los datos a disco. No cierra el canal.
+     */
+    @Override
+    public void close() throws IOException {
+        vaciar();
+        if (canal instanceof FileChannel archivo) {
+            archivo.force(false);
+        }
+    }
+
+    private void asegurar(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            vaciar();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package co.fitlife.persistence;
+
+import co.fitlife.model.Socio;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Formato v1 de Socio: [uuid][cedula][nombre][long fechaVencimiento en epoch-day]
+ */
+public class SocioCodec implements Codec<Socio> {
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getTamanoMinimo() {
+        return 16 + 4 + 4 + 8;
+    }
+
+    @Override
+    public void escribir(Socio socio, SalidaBinaria salida) throws IOException {
+        salida.putUuid(socio.getId());
+        salida.putString(socio.getCedula());
+        salida.putString(socio.getNombre());
+        salida.putLong(socio.getFechaVencimiento().toEpochDay());
+    }
+
+    @Override
+    public Socio leer(EntradaBinaria entrada, int version) throws IOException {
+        return new Socio(entrada.getUuid(), entrada.getString(), entrada.getString(),
+                LocalDate.ofEpochDay(entrada.getLong()));
+    }
+}
\ No newline at end of file
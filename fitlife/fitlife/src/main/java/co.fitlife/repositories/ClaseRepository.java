@@ -0,0 +1,129 @@
+package co.fitlife.repositories;
+
+import co.fitlife.model.ClaseGrupal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repositorio de clases grupales con índice hash por UUID y un índice ordenado por horario.
+ * Es seguro entre hilos: la búsqueda por id no bloquea y el resto de operaciones se serializan.
+ */
+public class ClaseRepository {
+
+    private final List<ClaseGrupal> clases;
+    private final Map<UUID, ClaseGrupal> porId;
+    // Varias clases pueden compartir horario, por eso cada entrada guarda una lista
+    private final NavigableMap<LocalDateTime, List<ClaseGrupal>> porHorario;
+
+    /**
+     * Crea el repositorio a partir de las clases cargadas y reconstruye los índices.
+     * @param cargadas Las clases leídas del archivo de persistencia.
+     */
+    public ClaseRepository(List<ClaseGrupal> cargadas) {
+        this.clases = new ArrayList<>(cargadas);
+        this.porId = new ConcurrentHashMap<>(Math.max(16, cargadas.size() * 2));
+        this.porHorario = new TreeMap<>();
+        reconstruirIndices();
+    }
+
+    /**
+     * Vuelve a generar ambos índices desde la lista completa.
+     */
+    public synchronized void reconstruirIndices() {
+        porId.clear();
+        porHorario.clear();
+        for (ClaseGrupal clase : clases) {
+            indexar(clase);
+        }
+    }
+
+    /**
+     * Agrega una clase y actualiza los índices.
+     * @return false si ya existía una clase con el mismo id.
+     */
+    public synchronized boolean agregar(ClaseGrupal clase) {
+        if (porId.containsKey(clase.getId())) {
+            return false;
+        }
+        clases.add(clase);
+        indexar(clase);
+        return true;
+    }
+
+    /**
+     * Quita las clases indicadas (por ejemplo, al archivarlas) y actualiza los índices.
+     * @return La cantidad de clases quitadas.
+     */
+    public synchronized int eliminar(Set<UUID> ids) {
+        int antes = clases.size();
+        clases.removeIf(clase -> ids.contains(clase.getId()));
+        for (UUID id : ids) {
+            ClaseGrupal clase = porId.remove(id);
+            if (clase == null) {
+                continue;
+            }
+            List<ClaseGrupal> mismoHorario = porHorario.get(clase.getHorario());
+            mismoHorario.remove(clase);
+            if (mismoHorario.isEmpty()) {
+                porHorario.remove(clase.getHorario());
+            }
+        }
+        return antes - clases.size();
+    }
+
+    public Optional<ClaseGrupal> buscarPorId(UUID id) {
+        return Optional.ofNullable(porId.get(id));
+    }
+
+    /**
+     * Clases cuyo horario está en el rango [desde, hasta), ordenadas por horario.
+     */
+    public synchronized List<ClaseGrupal> buscarEntre(LocalDateTime desde, LocalDateTime hasta) {
+        List<ClaseGrupal> resultado = new ArrayList<>();
+        porHorario.subMap(desde, true, hasta, false).values().forEach(resultado::addAll);
+        return resultado;
+    }
+
+    /**
+     * Las próximas clases a partir de un momento dado, ordenadas por horario.
+     * @param desde Momento de inicio (inclusive).
+     * @param limite Cantidad máxima de clases a retornar.
+     */
+    public synchronized List<ClaseGrupal> proximas(LocalDateTime desde, int limite) {
+        List<ClaseGrupal> resultado = new ArrayList<>(Math.min(limite, 64));
+        for (List<ClaseGrupal> mismoHorario : porHorario.tailMap(desde, true).values()) {
+            for (ClaseGrupal clase : mismoHorario) {
+                if (resultado.size() >= limite) {
+                    return resultado;
+                }
+                resultado.add(clase);
+            }
+        }
+        return resultado;
+    }
+
+    public synchronized int cantidad() {
+        return clases.size();
+    }
+
+    /**
+     * Copia de las clases en orden de registro. Las modificaciones deben pasar por el repositorio
+     * para mantener los índices sincronizados.
+     */
+    public synchronized List<ClaseGrupal> getTodas() {
+        return new ArrayList<>(clases);
+    }
+
+    private void indexar(ClaseGrupal clase) {
+        porId.put(clase.getId(), clase);
+        porHorario.computeIfAbsent(clase.getHorario(), h -> new ArrayList<>(1)).add(clase);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package co.fitlife.repositories;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Índice de socios ordenado por fecha de vencimiento de la membresía.
+ *
+ * Un árbol de Fenwick con la cantidad de socios por día responde los conteos (vencidos, activos,
+ * por vencer) en O(log D), y un mapa ordenado por fecha lista los socios de un rango sin recorrer
+ * el resto. Los conteos cubren fechas entre 2000 y 2179; fuera de ese rango se acumulan en el
+ * primer o último día.
+ */
+public class IndiceVencimientos {
+
+    private static final LocalDate BASE = LocalDate.of(2000, 1, 1);
+    private static final int DIAS = 1 << 16;
+
+    private final NavigableMap<LocalDate, Set<UUID>> porFecha = new TreeMap<>();
+    private final Map<UUID, LocalDate> fechaDe = new HashMap<>();
+    // Árbol de Fenwick (base 1) con la cantidad de socios que vencen cada día
+    private final int[] arbol = new int[DIAS + 1];
+
+    /**
+     * Agrega el socio o lo mueve a su nueva fecha (por ejemplo, tras una renovación).
+     */
+    public synchronized void registrar(UUID id, LocalDate vencimiento) {
+        LocalDate anterior = fechaDe.put(id, vencimiento);
+        if (anterior != null) {
+            if (anterior.equals(vencimiento)) {
+                return;
+            }
+            quitarDeFecha(id, anterior);
+        }
+        porFecha.computeIfAbsent(vencimiento, f -> new LinkedHashSet<>()).add(id);
+        sumar(posicion(vencimiento), 1);
+    }
+
+    public synchronized void quitar(UUID id) {
+        LocalDate anterior = fechaDe.remove(id);
+        if (anterior != null) {
+            quitarDeFecha(id, anterior);
+        }
+    }
+
+    public synchronized int cantidad() {
+        return fechaDe.size();
+    }
+
+    /**
+     * Socios vencidos a la fecha: los que vencen hoy o antes (RN01: activo solo si vence después de hoy).
+     */
+    public synchronized int contarVencidos(LocalDate hoy) {
+        return contarHasta(hoy);
+    }
+
+    public synchronized int contarActivos(LocalDate hoy) {
+        return fechaDe.size() - contarHasta(hoy);
+    }
+
+    /**
+     * Socios activos que vencen en los próximos {@code dias} días: vencimiento en (hoy, hoy + dias].
+     */
+    public synchronized int contarPorVencer(LocalDate hoy, int dias) {
+        return contarHasta(hoy.plusDays(dias)) - contarHasta(hoy);
+    }
+
+    /**
+     * Ids con vencimiento en (desde, hasta], ordenados por fecha.
+     */
+    public synchronized List<UUID> vencenEntre(LocalDate desde, LocalDate hasta, int limite) {
+        List<UUID> resultado = new ArrayList<>(Math.min(limite, 64));
+        if (!hasta.isAfter(desde)) {
+            return resultado;
+        }
+        for (Set<UUID> mismoDia : porFecha.subMap(desde, false, hasta, true).values()) {
+            for (UUID id : mismoDia) {
+                if (resultado.size() >= limite) {
+                    return resultado;
+                }
+                resultado.add(id);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Ids de socios vencidos, del vencimiento más reciente al más antiguo.
+     */
+    public synchronized List<UUID> vencidos(LocalDate hoy, int limite) {
+        List<UUID> resultado = new ArrayList<>(Math.min(limite, 64));
+        for (Set<UUID> mismoDia : porFecha.headMap(hoy, true).descendingMap().values()) {
+            for (UUID id : mismoDia) {
+                if (resultado.size() >= limite) {
+                    return resultado;
+                }
+                resultado.add(id);
+            }
+        }
+        return resultado;
+    }
+
+    private void quitarDeFecha(UUID id, LocalDate fecha) {
+        Set<UUID> mismoDia = porFecha.get(fecha);
+        if (mismoDia != null && mismoDia.remove(id)) {
+            if (mismoDia.isEmpty()) {
+                porFecha.remove(fecha);
+            }
+            sumar(posicion(fecha), -1);
+        }
+    }
+
+    // --- Árbol de Fenwick ---
+
+    private static int posicion(LocalDate fecha) {
+        long dia = fecha.toEpochDay() - BASE.toEpochDay();
+        return (int) Math.max(0, Math.min(DIAS - 1, dia)) + 1;
+    }
+
+    private void sumar(int i, int delta) {
+        for (; i <= DIAS; i += i & -i) {
+            arbol[i] += delta;
+        }
+    }
+
+    // Cantidad de socios con vencimiento menor o igual a la fecha
+    private int contarHasta(LocalDate fecha) {
+        int total = 0;
+        for (int i = posicion(fecha); i > 0; i -= i & -i) {
+            total += arbol[i];
+        }
+        return total;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package co.fitlife.repositories;
+
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.PlantillaClase;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repositorio de plantillas de clases recurrentes, con un índice por los 64 bits altos del id
+ * para reconocer en O(1) a qué plantilla pertenece el id de una ocurrencia.
+ */
+public class PlantillaRepository {
+
+    private final List<PlantillaClase> plantillas;
+    private final Map<Long, PlantillaClase> porPrefijo = new ConcurrentHashMap<>();
+
+    public PlantillaRepository(List<PlantillaClase> cargadas) {
+        this.plantillas = new ArrayList<>(cargadas);
+        for (PlantillaClase plantilla : cargadas) {
+            porPrefijo.put(plantilla.getId().getMostSignificantBits(), plantilla);
+        }
+    }
+
+    /**
+     * @return false si ya existía una plantilla con el mismo id.
+     */
+    public synchronized boolean agregar(PlantillaClase plantilla) {
+        if (porPrefijo.putIfAbsent(plantilla.getId().getMostSignificantBits(), plantilla) != null) {
+            return false;
+        }
+        plantillas.add(plantilla);
+        return true;
+    }
+
+    /**
+     * Genera la ocurrencia con ese id, si el id corresponde a alguna plantilla.
+     */
+    public Optional<ClaseGrupal> buscarOcurrencia(UUID id) {
+        PlantillaClase plantilla = porPrefijo.get(id.getMostSignificantBits());
+        if (plantilla == null) {
+            return Optional.empty();
+        }
+        LocalDate fecha = plantilla.fechaDeOcurrencia(id);
+        return fecha == null ? Optional.empty() : Optional.of(plantilla.ocurrencia(fecha));
+    }
+
+    /**
+     * Ocurrencias de todas las plantillas con horario en el rango [desde, hasta), sin ordenar.
+     */
+    public List<ClaseGrupal> ocurrenciasEntre(LocalDateTime desde, LocalDateTime hasta) {
+        List<ClaseGrupal> resultado = new ArrayList<>();
+        for (PlantillaClase plantilla : getTodas()) {
+            resultado.addAll(plantilla.ocurrenciasEntre(desde, hasta));
+        }
+        return resultado;
+    }
+
+    public synchronized int cantidad() {
+        return plantillas.size();
+    }
+
+    public synchronized List<PlantillaClase> getTodas() {
+        return new ArrayList<>(plantillas);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package co.fitlife.repositories;
+
+import co.fitlife.model.Reserva;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repositorio de reservas con índices bidireccionales:
+ * clase -> socios inscritos, y socio -> clases reservadas.
+ * Detectar una reserva duplicada o listar el roster de una clase no requiere recorrer todas las reservas.
+ */
+public class ReservaRepository {
+
+    private final Map<UUID, Set<UUID>> sociosPorClase = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> clasesPorSocio = new ConcurrentHashMap<>();
+
+    /**
+     * Crea el repositorio a partir de las reservas cargadas y reconstruye los índices.
+     * @param cargadas Las reservas leídas del archivo de persistencia.
+     */
+    public ReservaRepository(List<Reserva> cargadas) {
+        for (Reserva reserva : cargadas) {
+            agregar(reserva.getSocioId(), reserva.getClaseId());
+        }
+    }
+
+    /**
+     * Registra la reserva en ambos índices de forma atómica respecto a duplicados.
+     * @return false si el socio ya tenía reservada esa clase.
+     */
+    public boolean agregar(UUID socioId, UUID claseId) {
+        if (!sociosPorClase.computeIfAbsent(claseId, id -> ConcurrentHashMap.newKeySet()).add(socioId)) {
+            return false;
+        }
+        clasesPorSocio.computeIfAbsent(socioId, id -> ConcurrentHashMap.newKeySet()).add(claseId);
+        return true;
+    }
+
+    /**
+     * Elimina la reserva de ambos índices (por ejemplo, si la clase resultó llena o se canceló).
+     * @return false si el socio no tenía reservada esa clase.
+     */
+    public boolean eliminar(UUID socioId, UUID claseId) {
+        Set<UUID> socios = sociosPorClase.get(claseId);
+        if (socios == null || !socios.remove(socioId)) {
+            return false;
+        }
+        Set<UUID> clases = clasesPorSocio.get(socioId);
+        if (clases != null) {
+            clases.remove(claseId);
+        }
+        return true;
+    }
+
+    /**
+     * Quita todas las reservas de una clase de ambos índices (por ejemplo, al archivarla).
+     * @return Los ids de los socios que la tenían reservada.
+     */
+    public Set<UUID> eliminarClase(UUID claseId) {
+        Set<UUID> socios = sociosPorClase.remove(claseId);
+        if (socios == null) {
+            return Set.of();
+        }
+        for (UUID socioId : socios) {
+            clasesPorSocio.computeIfPresent(socioId, (id, clases) -> {
+                clases.remove(claseId);
+                return clases.isEmpty() ? null : clases;
+            });
+        }
+        return socios;
+    }
+
+    public boolean existe(UUID socioId, UUID claseId) {
+        Set<UUID> socios = sociosPorClase.get(claseId);
+        return socios != null && socios.contains(socioId);
+    }
+
+    /**
+     * Ids de los socios inscritos en una clase (vista de solo lectura).
+     */
+    public Set<UUID> getSociosDeClase(UUID claseId) {
+        return Collections.unmodifiableSet(sociosPorClase.getOrDefault(claseId, Set.of()));
+    }
+
+    /**
+     * Ids de las clases reservadas por un socio (vista de solo lectura).
+     */
+    public Set<UUID> getClasesDeSocio(UUID socioId) {
+        return Collections.unmodifiableSet(clasesPorSocio.getOrDefault(socioId, Set.of()));
+    }
+
+    /**
+     * Todas las reservas, para escribir la instantánea.
+     */
+    public List<Reserva> getTodas() {
+        List<Reserva> todas = new ArrayList<>();
+        sociosPorClase.forEach((claseId, socios) ->
+                socios.forEach(socioId -> todas.add(new Reserva(socioId, claseId))));
+        return todas;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package co.fitlife.repositories;
+
+import co.fitlife.model.Socio;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Acceso a los socios desde la capa de servicios, independiente de cómo se almacenan.
+ * Implementaciones: {@link SocioRepositoryMemoria} (todo en el heap) y
+ * {@link SocioRepositoryMapeado} (archivo mapeado en memoria, socios materializados al acceder).
+ */
+public interface SocioRepository {
+
+    /**
+     * Agrega un socio validando la unicidad de cédula e id de forma atómica.
+     * @return false si ya existía un socio con la misma cédula o el mismo id.
+     */
+    boolean agregar(Socio socio);
+
+    /**
+     * Persiste los cambios hechos sobre un socio ya registrado (por ejemplo, una renovación).
+     */
+    void actualizar(Socio socio);
+
+    boolean existeCedula(String cedula);
+
+    Optional<Socio> buscarPorCedula(String cedula);
+
+    Optional<Socio> buscarPorId(UUID id);
+
+    int cantidad();
+
+    /**
+     * Los socios en orden de registro. Las modificaciones deben pasar por el repositorio.
+     */
+    List<Socio> getTodos();
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package co.fitlife.repositories;
+
+import co.fitlife.model.Socio;
+import co.fitlife.persistence.AlmacenSociosMapeado;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.UUID;
+
+/**
+ * Repositorio de socios sobre {@link AlmacenSociosMapeado}: nada se carga al abrir y cada socio
+ * se materializa recién cuando se accede. Pensado para bases de socios muy grandes.
+ * Cada acceso crea un objeto nuevo, por lo que los cambios deben confirmarse con {@link #actualizar}.
+ */
+public class SocioRepositoryMapeado implements SocioRepository {
+
+    private final AlmacenSociosMapeado almacen;
+
+    public SocioRepositoryMapeado(AlmacenSociosMapeado almacen) {
+        this.almacen = almacen;
+    }
+
+    /**
+     * Importa socios existentes (por ejemplo, desde socios.dat al activar este modo por primera vez).
+     * @throws IllegalArgumentException Si la cédula o el nombre de algún socio no caben en el
+     *                                  registro de ancho fijo; el mensaje indica cuál.
+     */
+    public void importar(List<Socio> existentes) {
+        for (Socio socio : existentes) {
+            try {
+                agregar(socio);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Socio con cédula " + socio.getCedula() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public boolean agregar(Socio socio) {
+        try {
+            return almacen.agregar(socio) >= 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void actualizar(Socio socio) {
+        int posicion = almacen.buscarPorId(socio.getId());
+        if (posicion >= 0) {
+            almacen.actualizarVencimiento(posicion, socio.getFechaVencimiento());
+        }
+    }
+
+    @Override
+    public boolean existeCedula(String cedula) {
+        return almacen.buscarPorCedula(cedula) >= 0;
+    }
+
+    @Override
+    public Optional<Socio> buscarPorCedula(String cedula) {
+        return materializar(almacen.buscarPorCedula(cedula));
+    }
+
+    @Override
+    public Optional<Socio> buscarPorId(UUID id) {
+        return materializar(almacen.buscarPorId(id));
+    }
+
+    @Override
+    public int cantidad() {
+        return almacen.cantidad();
+    }
+
+    /**
+     * Lista perezosa: solo materializa los socios que efectivamente se leen (por ejemplo,
+     * las filas visibles de una tabla).
+     */
+    @Override
+    public List<Socio> getTodos() {
+        int cantidad = almacen.cantidad();
+        return new VistaPerezosa(cantidad);
+    }
+
+    /**
+     * Fuerza a disco las páginas modificadas del almacén.
+     */
+    public void sincronizar() {
+        almacen.sincronizar();
+    }
+
+    public void cerrar() throws IOException {
+        almacen.close();
+    }
+
+    private Optional<Socio> materializar(int posicion) {
+        return posicion < 0 ? Optional.empty() : Optional.of(almacen.leer(posicion));
+    }
+
+    private class VistaPerezosa extends AbstractList<Socio> implements RandomAccess {
+
+        private final int cantidad;
+
+        VistaPerezosa(int cantidad) {
+            this.cantidad = cantidad;
+        }
+
+        @Override
+        public Socio get(int indice) {
+            return almacen.leer(indice);
+        }
+
+        @Override
+        public int size() {
+            return cantidad;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package co.fitlife.repositories;
+
+import co.fitlife.model.Socio;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repositorio de socios en memoria con índices hash por cédula y por UUID.
+ * Las búsquedas y la validación de unicidad (RF01) son O(1) sin importar la cantidad de socios.
+ * Es segura entre hilos: las búsquedas no bloquean y las escrituras se serializan en el repositorio.
+ */
+public class SocioRepositoryMemoria implements SocioRepository {
+
+    private final List<Socio> socios;
+    private final Map<String, Socio> porCedula;
+    private final Map<UUID, Socio> porId;
+
+    /**
+     * Crea el repositorio a partir de los socios cargados y reconstruye los índices.
+     * @param cargados Los socios leídos del archivo de persistencia.
+     */
+    public SocioRepositoryMemoria(List<Socio> cargados) {
+        this.socios = new ArrayList<>(cargados);
+        this.porCedula = new ConcurrentHashMap<>(Math.max(16, cargados.size() * 2));
+        this.porId = new ConcurrentHashMap<>(Math.max(16, cargados.size() * 2));
+        reconstruirIndices();
+    }
+
+    /**
+     * Vuelve a generar ambos índices desde la lista completa.
+     */
+    public synchronized void reconstruirIndices() {
+        porCedula.clear();
+        porId.clear();
+        for (Socio socio : socios) {
+            porCedula.put(socio.getCedula(), socio);
+            porId.put(socio.getId(), socio);
+        }
+    }
+
+    /**
+     * Agrega un socio y actualiza los índices. La verificación y la inserción son atómicas,
+     * por lo que dos registros concurrentes con la misma cédula no pueden pasar ambos.
+     * @return false si ya existía un socio con la misma cédula o el mismo id.
+     */
+    @Override
+    public synchronized boolean agregar(Socio socio) {
+        if (porCedula.containsKey(socio.getCedula()) || porId.containsKey(socio.getId())) {
+            return false;
+        }
+        socios.add(socio);
+        porCedula.put(socio.getCedula(), socio);
+        porId.put(socio.getId(), socio);
+        return true;
+    }
+
+    /**
+     * Quita los socios indicados (por ejemplo, al archivarlos) y actualiza los índices.
+     * @return La cantidad de socios quitados.
+     */
+    public synchronized int eliminar(Set<UUID> ids) {
+        int antes = socios.size();
+        socios.removeIf(socio -> ids.contains(socio.getId()));
+        for (UUID id : ids) {
+            Socio socio = porId.remove(id);
+            if (socio != null) {
+                porCedula.remove(socio.getCedula());
+            }
+        }
+        return antes - socios.size();
+    }
+
+    /**
+     * Los socios en memoria se modifican en el mismo objeto indexado: no hay nada que escribir.
+     */
+    @Override
+    public void actualizar(Socio socio) {
+    }
+
+    @Override
+    public boolean existeCedula(String cedula) {
+        return porCedula.containsKey(cedula);
+    }
+
+    @Override
+    public Optional<Socio> buscarPorCedula(String cedula) {
+        return Optional.ofNullable(porCedula.get(cedula));
+    }
+
+    @Override
+    public Optional<Socio> buscarPorId(UUID id) {
+        return Optional.ofNullable(porId.get(id));
+    }
+
+    @Override
+    public synchronized int cantidad() {
+        return socios.size();
+    }
+
+    /**
+     * Copia de los socios en orden de registro. Las modificaciones deben pasar por el repositorio
+     * para mantener los índices sincronizados.
+     */
+    @Override
+    public synchronized List<Socio> getTodos() {
+        return new ArrayList<>(socios);
+    }
+}
\ No newline at end of file
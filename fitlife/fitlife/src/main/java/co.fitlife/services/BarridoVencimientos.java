@@ -0,0 +1,96 @@
+package co.fitlife.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tarea diaria en segundo plano: poco después de cada medianoche avisa qué membresías vencieron
+ * desde el barrido anterior (y el servicio aprovecha para archivar lo que ya pasó). Se reprograma
+ * cada día, así los cambios de hora no la desfasan.
+ */
+public class BarridoVencimientos {
+
+    /**
+     * Lo que se hace en cada barrido.
+     */
+    public interface Tarea {
+        /**
+         * @param desde Fecha del barrido anterior (exclusiva).
+         * @param hasta Fecha de hoy (inclusiva).
+         */
+        void barrer(LocalDate desde, LocalDate hasta);
+    }
+
+    // Margen después de la medianoche para que DiaActual ya devuelva la fecha nueva
+    private static final long MARGEN_MS = 1_000;
+
+    private final Tarea tarea;
+    private final ScheduledExecutorService ejecutor;
+    private LocalDate ultimoBarrido;
+
+    public BarridoVencimientos(Tarea tarea) {
+        this.tarea = tarea;
+        this.ultimoBarrido = DiaActual.hoy();
+        this.ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "barrido-vencimientos");
+            t.setDaemon(true);
+            return t;
+        });
+        programar();
+    }
+
+    /**
+     * Ejecuta el barrido ya (por ejemplo, si el equipo estuvo suspendido durante la medianoche).
+     */
+    public void barrerAhora() {
+        ejecutor.execute(this::barrer);
+    }
+
+    /**
+     * Ejecuta otra tarea en el hilo del barrido, así no se superpone con él.
+     */
+    public void ejecutar(Runnable tarea) {
+        ejecutor.execute(() -> {
+            try {
+                tarea.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error en una tarea del barrido: " + e.getMessage());
+            }
+        });
+    }
+
+    public void cerrar() {
+        ejecutor.shutdownNow();
+    }
+
+    private void programar() {
+        if (ejecutor.isShutdown()) {
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime proximaMedianoche = ahora.toLocalDate().plusDays(1).atStartOfDay();
+        long espera = Duration.between(ahora, proximaMedianoche).toMillis() + MARGEN_MS;
+        ejecutor.schedule(() -> {
+            barrer();
+            programar();
+        }, espera, TimeUnit.MILLISECONDS);
+    }
+
+    private void barrer() {
+        LocalDate hoy = DiaActual.hoy();
+        if (!hoy.isAfter(ultimoBarrido)) {
+            return;
+        }
+        try {
+            tarea.barrer(ultimoBarrido, hoy);
+            ultimoBarrido = hoy;
+        } catch (RuntimeException e) {
+            // Se reintenta en el próximo barrido con el mismo rango
+            System.err.println("Error en el barrido de vencimientos: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,407 @@
+package co.fitlife.services;
+
+import co.fitlife.model.Socio;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Índice ordenado para la búsqueda de socios mientras se escribe (type-ahead).
+ * Cada socio se indexa por su cédula, su nombre completo y cada palabra del nombre, normalizados
+ * (sin tildes, mayúsculas ni signos), así una consulta por prefijo recorre solo las coincidencias
+ * y no la lista completa.
+ *
+ * Los resultados salen por orden de relevancia: cédula, nombre que empieza con el texto, todas las
+ * palabras del texto presentes en el nombre y, si faltan resultados, palabras con un error de
+ * tipeo. Cada nivel se recorre en orden alfabético y se corta apenas se completa la página, por lo
+ * que el costo de una consulta depende del tamaño de la página y no de la cantidad de socios.
+ */
+class BuscadorSocios {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+    // Las palabras más cortas admiten demasiadas variantes con un error para que sirvan
+    private static final int LARGO_MINIMO_DIFUSO = 4;
+    // Tope de claves revisadas por nivel en consultas de varias palabras que casi no coinciden
+    private static final int MAXIMO_REVISADAS = 20_000;
+
+    private final NavigableSet<Clave> porCedula = new ConcurrentSkipListSet<>();
+    private final NavigableSet<Clave> porNombre = new ConcurrentSkipListSet<>();
+    private final NavigableSet<Clave> porPalabra = new ConcurrentSkipListSet<>();
+    // Palabras de cada socio, para verificar las consultas de varias palabras
+    private final Map<UUID, String[]> palabrasDeSocio = new ConcurrentHashMap<>();
+    // Una sola instancia por palabra distinta: miles de socios comparten nombres y apellidos
+    private final Map<String, String> vocabulario = new ConcurrentHashMap<>();
+    // Cada palabra del vocabulario y sus variantes con una letra menos -> palabras de origen
+    private final Map<String, Set<String>> variantes = new ConcurrentHashMap<>();
+
+    void indexar(Socio socio) {
+        UUID id = socio.getId();
+        String nombre = normalizar(socio.getNombre());
+        String[] palabras = palabras(nombre);
+        // Primero las palabras: una consulta que encuentre al socio por una clave ya puede verificarlo
+        palabrasDeSocio.put(id, palabras);
+        agregarClave(porCedula, compactar(socio.getCedula()), id);
+        agregarClave(porNombre, nombre, id);
+        for (String palabra : palabras) {
+            agregarClave(porPalabra, palabra, id);
+        }
+    }
+
+    /**
+     * Quita las claves del socio (por ejemplo, al archivarlo). Sus palabras quedan en el
+     * vocabulario: suelen ser compartidas con otros socios.
+     */
+    void quitar(Socio socio) {
+        UUID id = socio.getId();
+        String[] palabras = palabrasDeSocio.remove(id);
+        porCedula.remove(new Clave(compactar(socio.getCedula()), id));
+        porNombre.remove(new Clave(normalizar(socio.getNombre()), id));
+        if (palabras != null) {
+            for (String palabra : palabras) {
+                porPalabra.remove(new Clave(palabra, id));
+            }
+        }
+    }
+
+    /**
+     * Carga inicial de todos los socios. Normaliza en paralelo y agrega las claves ya ordenadas:
+     * insertar en orden en la skip list es varias veces más rápido que hacerlo al azar.
+     */
+    void indexarTodos(List<Socio> socios) {
+        Clave[] cedulas = new Clave[socios.size()];
+        Clave[] nombres = new Clave[socios.size()];
+        String[][] palabrasPorSocio = new String[socios.size()][];
+        IntStream.range(0, socios.size()).parallel().forEach(i -> {
+            Socio socio = socios.get(i);
+            UUID id = socio.getId();
+            String nombre = normalizar(socio.getNombre());
+            palabrasPorSocio[i] = palabras(nombre);
+            palabrasDeSocio.put(id, palabrasPorSocio[i]);
+            cedulas[i] = new Clave(compactar(socio.getCedula()), id);
+            nombres[i] = new Clave(nombre, id);
+        });
+
+        int total = 0;
+        for (String[] palabras : palabrasPorSocio) {
+            total += palabras.length;
+        }
+        Clave[] claves = new Clave[total];
+        int siguiente = 0;
+        for (int i = 0; i < palabrasPorSocio.length; i++) {
+            for (String palabra : palabrasPorSocio[i]) {
+                claves[siguiente++] = new Clave(palabra, nombres[i].id);
+            }
+        }
+        agregarOrdenadas(porCedula, cedulas);
+        agregarOrdenadas(porNombre, nombres);
+        agregarOrdenadas(porPalabra, claves);
+    }
+
+    /**
+     * Ids de los primeros socios que coinciden con el texto, por orden de relevancia.
+     * @param limite Cantidad máxima de resultados.
+     */
+    List<UUID> buscar(String texto, int limite) {
+        return buscar(texto, 0, limite);
+    }
+
+    /**
+     * Una página de los socios que coinciden con el texto, por orden de relevancia.
+     * @param desde Cantidad de resultados a saltear (las páginas anteriores).
+     * @param limite Cantidad máxima de resultados de la página.
+     */
+    List<UUID> buscar(String texto, int desde, int limite) {
+        String consulta = normalizar(texto);
+        if (consulta.isEmpty() || limite <= 0) {
+            return new ArrayList<>();
+        }
+        int necesarios = desde + limite;
+        Set<UUID> encontrados = new LinkedHashSet<>();
+        String[] terminos = consulta.split(" ");
+        String principal = masLargo(terminos);
+
+        String cedula = compactar(texto);
+        if (contieneDigito(cedula)) {
+            recorrerPrefijo(porCedula, cedula, null, encontrados, necesarios);
+        }
+        recorrerPrefijo(porNombre, consulta, null, encontrados, necesarios);
+        recorrerPrefijo(porPalabra, principal, terminos, encontrados, necesarios);
+        if (encontrados.size() < necesarios && principal.length() >= LARGO_MINIMO_DIFUSO) {
+            for (String parecida : parecidas(principal)) {
+                recorrerPalabra(parecida, principal, terminos, encontrados, necesarios);
+            }
+        }
+
+        List<UUID> resultado = new ArrayList<>(encontrados);
+        return desde >= resultado.size() ? new ArrayList<>() : resultado.subList(desde, resultado.size());
+    }
+
+    /**
+     * Texto en minúsculas, sin tildes ni signos, con las palabras separadas por un espacio.
+     */
+    static String normalizar(String texto) {
+        String resultado = texto.toLowerCase(Locale.ROOT);
+        if (!esAscii(resultado)) {
+            resultado = MARCAS.matcher(Normalizer.normalize(resultado, Normalizer.Form.NFD)).replaceAll("");
+        }
+        return SEPARADORES.matcher(resultado).replaceAll(" ").trim();
+    }
+
+    // --- Recorridos ---
+
+    /**
+     * Agrega los socios de las claves que empiezan con el prefijo. Con términos, solo los socios
+     * que tienen todos los términos como prefijo de alguna de sus palabras.
+     */
+    private void recorrerPrefijo(NavigableSet<Clave> indice, String prefijo, String[] terminos,
+                                 Set<UUID> encontrados, int necesarios) {
+        int revisadas = 0;
+        for (Clave clave : indice.tailSet(new Clave(prefijo, null), true)) {
+            if (encontrados.size() >= necesarios || !clave.texto.startsWith(prefijo)) {
+                return;
+            }
+            if (terminos == null || tieneTodos(clave.id, terminos, null)) {
+                encontrados.add(clave.id);
+            } else if (++revisadas >= MAXIMO_REVISADAS) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Agrega los socios que tienen exactamente esa palabra, que reemplaza al término principal
+     * mal escrito; el resto de los términos puede coincidir por prefijo o con un error.
+     */
+    private void recorrerPalabra(String palabra, String principal, String[] terminos,
+                                 Set<UUID> encontrados, int necesarios) {
+        int revisadas = 0;
+        for (Clave clave : porPalabra.tailSet(new Clave(palabra, null), true)) {
+            if (encontrados.size() >= necesarios || !clave.texto.equals(palabra)) {
+                return;
+            }
+            if (tieneTodos(clave.id, terminos, principal)) {
+                encontrados.add(clave.id);
+            } else if (++revisadas >= MAXIMO_REVISADAS) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Si cada término es prefijo de alguna palabra del socio. En la búsqueda difusa se indica el
+     * término principal, que ya se sabe que coincide, y los demás también admiten un error de tipeo.
+     */
+    private boolean tieneTodos(UUID id, String[] terminos, String principal) {
+        String[] palabras = palabrasDeSocio.get(id);
+        if (palabras == null) {
+            return false;
+        }
+        for (String termino : terminos) {
+            if (termino.equals(principal)) {
+                continue;
+            }
+            boolean presente = false;
+            for (int i = 0; i < palabras.length && !presente; i++) {
+                presente = palabras[i].startsWith(termino)
+                        || (principal != null && termino.length() >= LARGO_MINIMO_DIFUSO
+                        && distanciaUno(termino, palabras[i]));
+            }
+            if (!presente) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --- Búsqueda difusa ---
+
+    /**
+     * Palabras del vocabulario a un error de tipeo (una letra de más, de menos, cambiada o dos
+     * letras invertidas), en orden alfabético. Se comparan las variantes con una letra menos de
+     * ambos lados, así no hace falta recorrer el vocabulario.
+     */
+    private Set<String> parecidas(String termino) {
+        Set<String> resultado = new TreeSet<>();
+        agregarOrigenes(termino, resultado);
+        for (String variante : borrados(termino)) {
+            agregarOrigenes(variante, resultado);
+        }
+        resultado.remove(termino);
+        return resultado;
+    }
+
+    private void agregarOrigenes(String variante, Set<String> resultado) {
+        Set<String> origenes = variantes.get(variante);
+        if (origenes != null) {
+            resultado.addAll(origenes);
+        }
+    }
+
+    private String agregarAlVocabulario(String palabra) {
+        // Casi siempre la palabra ya está; consultar primero evita bloquear su casillero del mapa
+        String existente = vocabulario.get(palabra);
+        if (existente != null) {
+            return existente;
+        }
+        existente = vocabulario.putIfAbsent(palabra, palabra);
+        if (existente != null) {
+            return existente;
+        }
+        if (palabra.length() >= LARGO_MINIMO_DIFUSO - 1) {
+            registrarVariante(palabra, palabra);
+            for (String variante : borrados(palabra)) {
+                registrarVariante(variante, palabra);
+            }
+        }
+        return palabra;
+    }
+
+    private void registrarVariante(String variante, String palabra) {
+        variantes.computeIfAbsent(variante, v -> ConcurrentHashMap.newKeySet()).add(palabra);
+    }
+
+    private static Set<String> borrados(String palabra) {
+        if (palabra.length() < 2) {
+            return Collections.emptySet();
+        }
+        Set<String> resultado = new LinkedHashSet<>();
+        for (int i = 0; i < palabra.length(); i++) {
+            resultado.add(palabra.substring(0, i) + palabra.substring(i + 1));
+        }
+        return resultado;
+    }
+
+    /**
+     * Si el término coincide con la palabra salvo una letra de más, de menos o cambiada.
+     */
+    private static boolean distanciaUno(String termino, String palabra) {
+        int diferencia = termino.length() - palabra.length();
+        if (Math.abs(diferencia) > 1) {
+            return false;
+        }
+        int i = 0;
+        int j = 0;
+        boolean error = false;
+        while (i < termino.length() && j < palabra.length()) {
+            if (termino.charAt(i) == palabra.charAt(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            if (error) {
+                return false;
+            }
+            error = true;
+            if (diferencia > 0) {
+                i++;
+            } else if (diferencia < 0) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return !error || (i == termino.length() && j == palabra.length());
+    }
+
+    // --- Auxiliares ---
+
+    private String[] palabras(String nombre) {
+        String[] palabras = nombre.isEmpty() ? new String[0] : nombre.split(" ");
+        for (int i = 0; i < palabras.length; i++) {
+            palabras[i] = agregarAlVocabulario(palabras[i]);
+        }
+        return palabras;
+    }
+
+    private static void agregarOrdenadas(NavigableSet<Clave> indice, Clave[] claves) {
+        Arrays.parallelSort(claves);
+        for (Clave clave : claves) {
+            if (!clave.texto.isEmpty()) {
+                indice.add(clave);
+            }
+        }
+    }
+
+    private static void agregarClave(NavigableSet<Clave> indice, String texto, UUID id) {
+        if (!texto.isEmpty()) {
+            indice.add(new Clave(texto, id));
+        }
+    }
+
+    /**
+     * La cédula sin espacios ni signos: "1.234.567-8" se busca igual que "12345678".
+     */
+    private static String compactar(String cedula) {
+        return normalizar(cedula).replace(" ", "");
+    }
+
+    private static String masLargo(String[] terminos) {
+        String resultado = terminos[0];
+        for (String termino : terminos) {
+            if (termino.length() > resultado.length()) {
+                resultado = termino;
+            }
+        }
+        return resultado;
+    }
+
+    private static boolean contieneDigito(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (Character.isDigit(texto.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean esAscii(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Texto indexado más el id del socio, para admitir varios socios con el mismo nombre.
+     * El id nulo ordena antes que cualquier otro y sirve de inicio de un recorrido.
+     */
+    private static final class Clave implements Comparable<Clave> {
+
+        private final String texto;
+        private final UUID id;
+
+        Clave(String texto, UUID id) {
+            this.texto = texto;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Clave otra) {
+            int comparacion = texto.compareTo(otra.texto);
+            if (comparacion != 0 || id == otra.id) {
+                return comparacion;
+            }
+            if (id == null || otra.id == null) {
+                return id == null ? -1 : 1;
+            }
+            return id.compareTo(otra.id);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package co.fitlife.services;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * La fecha de hoy, calculada una sola vez por día. Evita llamar a {@link LocalDate#now()}
+ * (zona horaria y reloj) en cada fila cuando se evalúa el estado de muchos socios.
+ */
+public final class DiaActual {
+
+    private static final class Dia {
+        final LocalDate fecha;
+        final long finMillis; // Primer instante del día siguiente
+
+        Dia(LocalDate fecha, long finMillis) {
+            this.fecha = fecha;
+            this.finMillis = finMillis;
+        }
+    }
+
+    private static volatile Dia actual = calcular();
+
+    private DiaActual() {
+    }
+
+    /**
+     * La fecha de hoy. Solo se recalcula al pasar la medianoche.
+     */
+    public static LocalDate hoy() {
+        Dia dia = actual;
+        if (System.currentTimeMillis() >= dia.finMillis) {
+            dia = calcular();
+            actual = dia;
+        }
+        return dia.fecha;
+    }
+
+    private static Dia calcular() {
+        ZoneId zona = ZoneId.systemDefault();
+        LocalDate hoy = LocalDate.now(zona);
+        long fin = hoy.plusDays(1).atStartOfDay(zona).toInstant().toEpochMilli();
+        return new Dia(hoy, fin);
+    }
+}
\ No newline at end of file
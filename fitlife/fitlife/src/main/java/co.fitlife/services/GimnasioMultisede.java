@@ -0,0 +1,278 @@
+package co.fitlife.services;
+
+import co.fitlife.model.Socio;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Varias sedes en un mismo despliegue. Cada sede es una partición independiente: un
+ * {@link GimnasioService} con su propia carpeta (socios.dat, clases.dat, diario...), así una
+ * reserva en una sede nunca reescribe los archivos de otra.
+ *
+ * Estructura en disco: una subcarpeta por sede dentro del directorio raíz. Al abrir, las sedes se
+ * cargan en paralelo. Un índice compartido cédula -> sede permite encontrar a un socio sin saber
+ * en qué sede está; se construye en la primera consulta (en paralelo por sede) y luego se
+ * mantiene con los socios que se agregan en cada sede.
+ */
+public class GimnasioMultisede {
+
+    // Nombres de sede válidos como nombre de carpeta en cualquier sistema de archivos
+    private static final Pattern NOMBRE_SEDE = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final File raiz;
+    private final ModoAlmacen modo;
+    private final Map<String, GimnasioService> sedes = new ConcurrentHashMap<>();
+
+    // Índice cédula -> sede; se construye en la primera consulta para no demorar el arranque
+    private final Object bloqueoIndice = new Object();
+    private Map<String, String> sedePorCedula;
+    // Cédulas reservadas en el índice por un registro que todavía no terminó
+    private final Set<String> cedulasEnRegistro = ConcurrentHashMap.newKeySet();
+
+    private GimnasioMultisede(File raiz, ModoAlmacen modo) {
+        this.raiz = raiz;
+        this.modo = modo;
+    }
+
+    /**
+     * Abre todas las sedes del directorio raíz (una por subcarpeta), cargándolas en paralelo.
+     * @param modo Modo de almacenamiento de los socios en cada sede.
+     * @param directorioRaiz Carpeta que contiene una subcarpeta por sede; se crea si no existe.
+     * @throws IOException Si no se puede crear el directorio raíz.
+     */
+    public static GimnasioMultisede abrir(ModoAlmacen modo, String directorioRaiz) throws IOException {
+        File raiz = new File(directorioRaiz);
+        if (!raiz.isDirectory() && !raiz.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio de sedes " + raiz.getPath());
+        }
+        GimnasioMultisede multisede = new GimnasioMultisede(raiz, modo);
+
+        List<String> nombres = new ArrayList<>();
+        File[] carpetas = raiz.listFiles(File::isDirectory);
+        if (carpetas != null) {
+            for (File carpeta : carpetas) {
+                if (NOMBRE_SEDE.matcher(carpeta.getName()).matches()) {
+                    nombres.add(carpeta.getName());
+                }
+            }
+        }
+        try {
+            multisede.cargarEnParalelo(nombres);
+        } catch (IOException e) {
+            // Las sedes que sí cargaron tienen diarios e hilos abiertos
+            multisede.cerrar();
+            throw e;
+        }
+        return multisede;
+    }
+
+    /**
+     * Crea una sede nueva (su carpeta y sus archivos vacíos), o retorna la existente.
+     * @param nombre Letras, dígitos, guiones o guiones bajos (es el nombre de la carpeta).
+     */
+    public GimnasioService crearSede(String nombre) throws IOException {
+        if (!NOMBRE_SEDE.matcher(nombre).matches()) {
+            throw new IllegalArgumentException("Nombre de sede inválido: " + nombre);
+        }
+        File carpeta = new File(raiz, nombre);
+        if (!carpeta.isDirectory() && !carpeta.mkdirs()) {
+            throw new IOException("No se pudo crear la carpeta de la sede " + carpeta.getPath());
+        }
+        return sedes.computeIfAbsent(nombre, this::abrirSede);
+    }
+
+    /**
+     * El servicio de una sede, para operar sobre sus socios, clases y reservas.
+     */
+    public Optional<GimnasioService> sede(String nombre) {
+        return Optional.ofNullable(sedes.get(nombre));
+    }
+
+    /**
+     * Nombres de las sedes, en orden alfabético.
+     */
+    public Set<String> getSedes() {
+        return new TreeSet<>(sedes.keySet());
+    }
+
+    // --- Socios entre sedes ---
+
+    /**
+     * RF01 entre sedes: registra al socio en una sede si su cédula no está registrada en ninguna.
+     * @throws ReglaNegocioException Si la cédula ya existe en esta u otra sede.
+     * @throws IOException Si no se puede registrar el cambio.
+     */
+    public void registrarSocio(String sede, String cedula, String nombre) throws ReglaNegocioException, IOException {
+        GimnasioService servicio = sede(sede)
+                .orElseThrow(() -> new IllegalArgumentException("No existe la sede " + sede));
+        Map<String, String> indice = getIndice();
+
+        // Reservar la cédula en el índice compartido es la validación atómica entre sedes
+        cedulasEnRegistro.add(cedula);
+        boolean registrado = false;
+        try {
+            String existente = indice.putIfAbsent(cedula, sede);
+            if (existente != null) {
+                throw new ReglaNegocioException(ReglaNegocioException.Regla.CEDULA_DUPLICADA,
+                        "El socio con cédula " + cedula + " ya existe en la sede " + existente + ".");
+            }
+            try {
+                servicio.registrarSocio(cedula, nombre);
+                registrado = true;
+            } finally {
+                if (!registrado) {
+                    indice.remove(cedula, sede);
+                }
+            }
+        } finally {
+            cedulasEnRegistro.remove(cedula);
+        }
+    }
+
+    /**
+     * Sede donde está registrado el socio con esa cédula.
+     */
+    public Optional<String> sedeDeSocio(String cedula) {
+        return Optional.ofNullable(getIndice().get(cedula));
+    }
+
+    /**
+     * Búsqueda de un socio por cédula en todas las sedes: una consulta al índice compartido y
+     * otra al índice de la sede.
+     */
+    public Optional<Socio> buscarSocioPorCedula(String cedula) {
+        return sedeDeSocio(cedula)
+                .flatMap(this::sede)
+                .flatMap(servicio -> servicio.buscarSocioPorCedula(cedula));
+    }
+
+    public int contarSocios() {
+        return getIndice().size();
+    }
+
+    /**
+     * Cierra todas las sedes en paralelo, guardando lo pendiente de cada una.
+     */
+    public void cerrar() {
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (GimnasioService servicio : sedes.values()) {
+                ejecutor.submit(servicio::cerrar);
+            }
+        }
+    }
+
+    // --- Internos ---
+
+    private void cargarEnParalelo(List<String> nombres) throws IOException {
+        // Cada sede lee sus archivos y reproduce su diario en su propio hilo
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<GimnasioService>> cargas = new ArrayList<>(nombres.size());
+            for (String nombre : nombres) {
+                cargas.add(ejecutor.submit(() -> abrirSede(nombre)));
+            }
+            IOException error = null;
+            for (int i = 0; i < nombres.size(); i++) {
+                try {
+                    sedes.put(nombres.get(i), esperar(cargas.get(i)));
+                } catch (IOException e) {
+                    error = error == null ? e : error;
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+
+    private GimnasioService abrirSede(String nombre) {
+        GimnasioService servicio = new GimnasioService(modo, new File(raiz, nombre).getPath());
+        servicio.agregarOyente(new OyenteCambios() {
+            @Override
+            public void socioCambiado(TipoCambio tipo, Socio socio) {
+                if (tipo == TipoCambio.AGREGADO) {
+                    indexar(socio.getCedula(), nombre);
+                }
+            }
+
+            @Override
+            public void datosRecargados() {
+                // Importación masiva o archivado en la sede: su parte del índice se rehace con los
+                // socios vigentes y los archivados (que conservan la cédula). Las cédulas que un
+                // registro reservó y todavía no confirmó quedan como están.
+                synchronized (bloqueoIndice) {
+                    if (sedePorCedula != null) {
+                        Set<String> cedulas = cedulasDeSede(servicio);
+                        for (String cedula : cedulas) {
+                            sedePorCedula.putIfAbsent(cedula, nombre);
+                        }
+                        sedePorCedula.entrySet().removeIf(e -> e.getValue().equals(nombre)
+                                && !cedulas.contains(e.getKey()) && !cedulasEnRegistro.contains(e.getKey()));
+                    }
+                }
+            }
+        });
+        return servicio;
+    }
+
+    private Map<String, String> getIndice() {
+        synchronized (bloqueoIndice) {
+            if (sedePorCedula == null) {
+                Map<String, String> nuevo = new ConcurrentHashMap<>();
+                // Una tarea por sede; el mapa concurrente admite las inserciones simultáneas
+                try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    sedes.forEach((nombre, servicio) -> ejecutor.submit(() -> {
+                        for (String cedula : cedulasDeSede(servicio)) {
+                            nuevo.putIfAbsent(cedula, nombre);
+                        }
+                    }));
+                }
+                sedePorCedula = nuevo;
+            }
+            return sedePorCedula;
+        }
+    }
+
+    /**
+     * Las cédulas que la sede tiene ocupadas: las de sus socios y las de los que archivó.
+     */
+    private static Set<String> cedulasDeSede(GimnasioService servicio) {
+        Set<String> cedulas = new HashSet<>(servicio.getCedulasArchivadas());
+        for (Socio socio : servicio.getSocios()) {
+            cedulas.add(socio.getCedula());
+        }
+        return cedulas;
+    }
+
+    private void indexar(String cedula, String sede) {
+        synchronized (bloqueoIndice) {
+            // Si todavía no se construyó, la cédula se incluirá al construirlo
+            if (sedePorCedula != null) {
+                sedePorCedula.putIfAbsent(cedula, sede);
+            }
+        }
+    }
+
+    private static <T> T esperar(Future<T> futuro) throws IOException {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Carga de sedes interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error cargando una sede: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
\ No newline at end of file
@@ -1,49 +1,786 @@
 package co.fitlife.services;
 
+import co.fitlife.analitica.AgregadosOcupacion;
+import co.fitlife.analitica.Ocupacion;
+import co.fitlife.metricas.Medicion;
+import co.fitlife.metricas.Metricas;
 import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.ListaEspera;
+import co.fitlife.model.PlantillaClase;
+import co.fitlife.model.Reserva;
 import co.fitlife.model.Socio;
+import co.fitlife.persistence.DiarioCambios;
+import co.fitlife.persistence.AlmacenSociosMapeado;
+import co.fitlife.persistence.ArchivoHistorico;
+import co.fitlife.persistence.ClaseGrupalCodec;
+import co.fitlife.persistence.FormatoIntercambio;
 import co.fitlife.persistence.GestorArchivos;
+import co.fitlife.persistence.PlantillaClaseCodec;
+import co.fitlife.persistence.ReservaCodec;
+import co.fitlife.persistence.SocioCodec;
+import co.fitlife.repositories.ClaseRepository;
+import co.fitlife.repositories.IndiceVencimientos;
+import co.fitlife.repositories.PlantillaRepository;
+import co.fitlife.repositories.ReservaRepository;
+import co.fitlife.repositories.SocioRepository;
+import co.fitlife.repositories.SocioRepositoryMapeado;
+import co.fitlife.repositories.SocioRepositoryMemoria;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Capa de Servicios: Contiene la lógica de negocio y centraliza el acceso a los datos.
+ * Es segura para compartir entre hilos (varios kioscos y recepciones a la vez).
  */
 public class GimnasioService {
 
-    private List<Socio> listaSocios;
-    private List<ClaseGrupal> listaClases;
+    // Repositorios con índices (cédula, UUID, horario)
+    private final SocioRepository socios;
+    private final ClaseRepository clases;
+    private final ReservaRepository reservas;
+    private final PlantillaRepository plantillas;
 
-    // Nombres de archivos para persistencia
-    private final String FILE_SOCIOS = "socios.dat";
-    private final String FILE_CLASES = "clases.dat";
+    // Nombres de archivos para persistencia (relativos al directorio de datos)
+    private final String FILE_SOCIOS;
+    private final String FILE_CLASES;
+    private final String FILE_RESERVAS;
+    private final String FILE_PLANTILLAS;
+    private final String FILE_DIARIO;
+    private final String FILE_SOCIOS_MAPEADO;
+    private final String FILE_SOCIOS_INDICE;
+    private final String FILE_HISTORICO;
+    // Manifiesto de la instantánea en curso: los .dat se reemplazan juntos o ninguno
+    private final String FILE_MANIFIESTO;
+
+    // Codificadores binarios de cada archivo
+    private static final SocioCodec CODEC_SOCIO = new SocioCodec();
+    private static final ClaseGrupalCodec CODEC_CLASE = new ClaseGrupalCodec();
+    private static final ReservaCodec CODEC_RESERVA = new ReservaCodec();
+    private static final PlantillaClaseCodec CODEC_PLANTILLA = new PlantillaClaseCodec();
+
+    // Cantidad de registros en el diario a partir de la cual se compacta en una instantánea
+    private static final int UMBRAL_COMPACTACION = 10_000;
+
+    // Días que se conserva en memoria un socio vencido antes de pasarlo al archivo histórico
+    private static final int DIAS_RETENCION_SOCIOS = 365;
+
+    // Antigüedad máxima de los cambios no guardados en la instantánea (guardado diferido)
+    private static final long RETRASO_MAXIMO_GUARDADO_MS = 500;
+
+    // Diario de cambios; si es null se usa el modo clásico (instantánea completa tras cada ráfaga de cambios)
+    private DiarioCambios diario;
+
+    // Las mutaciones toman el bloqueo de lectura (corren en paralelo entre sí);
+    // la compactación toma el de escritura para que ningún cambio quede fuera de la instantánea.
+    private final ReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    // Las instantáneas se escriben en segundo plano, agrupando las solicitudes de cada ráfaga
+    private final GuardadoDiferido guardadoDiferido = new GuardadoDiferido(this::guardarCambios, RETRASO_MAXIMO_GUARDADO_MS);
+
+    // Suscriptores a los cambios (la interfaz aplica solo el delta)
+    private final List<OyenteCambios> oyentes = new CopyOnWriteArrayList<>();
+
+    // Índice de búsqueda por prefijo; se construye en segundo plano al abrir el servicio y se
+    // publica recién terminado. Los cambios que llegan mientras tanto esperan en la cola.
+    private final Object bloqueoBuscador = new Object();
+    private volatile BuscadorSocios buscador;
+    private final List<Consumer<BuscadorSocios>> cambiosBuscador = new ArrayList<>();
+    private final CountDownLatch buscadorTerminado = new CountDownLatch(1);
+
+    // Índice por fecha de vencimiento; también se construye en la primera consulta
+    private final Object bloqueoVencimientos = new Object();
+    private IndiceVencimientos vencimientos;
+
+    // Ocupación por clase, franja y día; se calcula en la primera consulta y luego se mantiene con cada cambio
+    private final Object bloqueoOcupacion = new Object();
+    private AgregadosOcupacion ocupacion;
+
+    // Clases ya dictadas y socios vencidos hace tiempo, fuera de la memoria; si es null no se archiva
+    private ArchivoHistorico historico;
+    private final Object bloqueoArchivado = new Object();
+
+    // Aviso diario de las membresías que vencieron (y archivado de lo que ya pasó)
+    private final BarridoVencimientos barridoVencimientos;
 
     public GimnasioService() {
-        // Cargar datos al iniciar desde los archivos binarios (Serialización)
-        this.listaSocios = GestorArchivos.cargarDatos(FILE_SOCIOS);
-        this.listaClases = GestorArchivos.cargarDatos(FILE_CLASES);
+        this(ModoAlmacen.desdePropiedades());
+    }
+
+    /**
+     * @param modo Dónde se guardan los socios: en el heap o en un archivo mapeado en memoria.
+     */
+    public GimnasioService(ModoAlmacen modo) {
+        this(modo, ".");
+    }
+
+    /**
+     * @param modo Dónde se guardan los socios: en el heap o en un archivo mapeado en memoria.
+     * @param directorio Carpeta donde están (o se crean) los archivos de datos.
+     */
+    public GimnasioService(ModoAlmacen modo, String directorio) {
+        Medicion medicion = Metricas.iniciar("servicio.arranque");
+        try {
+            this.FILE_SOCIOS = archivo(directorio, "socios.dat");
+            this.FILE_CLASES = archivo(directorio, "clases.dat");
+            this.FILE_RESERVAS = archivo(directorio, "reservas.dat");
+            this.FILE_PLANTILLAS = archivo(directorio, "plantillas.dat");
+            this.FILE_DIARIO = archivo(directorio, "cambios.journal");
+            this.FILE_SOCIOS_MAPEADO = archivo(directorio, "socios.map");
+            this.FILE_SOCIOS_INDICE = archivo(directorio, "socios.idx");
+            this.FILE_HISTORICO = archivo(directorio, "historico.dat");
+            this.FILE_MANIFIESTO = archivo(directorio, "instantanea.confirmada");
+
+            // Una instantánea interrumpida se completa o se descarta entera antes de cargar
+            try {
+                GestorArchivos.recuperarConjunto(FILE_MANIFIESTO, List.of(FILE_SOCIOS, FILE_CLASES, FILE_RESERVAS, FILE_PLANTILLAS));
+            } catch (IOException e) {
+                System.err.println("No se pudo completar la instantánea interrumpida: " + e.getMessage());
+            }
+
+            // Cargar la última instantánea desde los archivos binarios (formato propio por codec;
+            // los archivos antiguos con serialización Java se leen y se migran al guardar)
+            // Los índices se reconstruyen al crear cada repositorio
+            this.socios = abrirSocios(modo);
+            this.clases = new ClaseRepository(GestorArchivos.cargarDatos(FILE_CLASES, CODEC_CLASE));
+            this.reservas = new ReservaRepository(GestorArchivos.cargarDatos(FILE_RESERVAS, CODEC_RESERVA));
+            this.plantillas = new PlantillaRepository(GestorArchivos.cargarDatos(FILE_PLANTILLAS, CODEC_PLANTILLA));
+
+            // Reproducir sobre la instantánea los cambios registrados después de ella
+            try {
+                this.diario = new DiarioCambios(FILE_DIARIO);
+                AplicadorDiario aplicador = new AplicadorDiario();
+                diario.reproducir(aplicador);
+                aplicador.recontarReservas();
+            } catch (IOException e) {
+                System.err.println("No se pudo abrir el diario de cambios, se usará reescritura completa: " + e.getMessage());
+                this.diario = null;
+            }
+
+            // Solo se leen las cabeceras de los segmentos: el histórico no se carga en memoria
+            try {
+                this.historico = new ArchivoHistorico(FILE_HISTORICO);
+            } catch (IOException e) {
+                System.err.println("No se pudo abrir el archivo histórico, no se archivará: " + e.getMessage());
+                this.historico = null;
+            }
+
+            this.barridoVencimientos = new BarridoVencimientos(this::barridoDiario);
+
+            Thread construccion = new Thread(this::construirBuscador, "indice-busqueda");
+            construccion.setDaemon(true);
+            construccion.start();
+
+            medicion.completada();
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    private static String archivo(String directorio, String nombre) {
+        return new File(directorio, nombre).getPath();
+    }
+
+    /**
+     * En modo MAPEADO abre el almacén sin leer los registros; si todavía no existe, importa
+     * socios.dat una única vez. Mientras dura la importación queda una marca junto al almacén: si
+     * la aplicación se cae antes de terminarla, el próximo inicio descarta lo importado a medias y
+     * vuelve a empezar. Si no se puede mapear, o algún socio no cabe en el registro de ancho fijo,
+     * vuelve al modo en memoria.
+     */
+    private SocioRepository abrirSocios(ModoAlmacen modo) {
+        if (modo == ModoAlmacen.MAPEADO) {
+            Path marca = Path.of(FILE_SOCIOS_MAPEADO + ".importando");
+            boolean importar = !new File(FILE_SOCIOS_MAPEADO).exists() || Files.exists(marca);
+            SocioRepositoryMapeado mapeado = null;
+            try {
+                if (importar) {
+                    Files.write(marca, new byte[0]);
+                    Files.deleteIfExists(Path.of(FILE_SOCIOS_MAPEADO));
+                    Files.deleteIfExists(Path.of(FILE_SOCIOS_INDICE));
+                }
+                mapeado = new SocioRepositoryMapeado(new AlmacenSociosMapeado(FILE_SOCIOS_MAPEADO, FILE_SOCIOS_INDICE));
+                if (importar) {
+                    mapeado.importar(GestorArchivos.cargarDatos(FILE_SOCIOS, CODEC_SOCIO));
+                    mapeado.sincronizar();
+                    Files.delete(marca);
+                }
+                return mapeado;
+            } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+                // La marca queda: el próximo inicio vuelve a intentar la importación completa
+                System.err.println("No se pudo abrir el almacén mapeado, se cargan los socios en memoria: " + e.getMessage());
+                cerrarSilencioso(mapeado);
+            }
+        }
+        return new SocioRepositoryMemoria(GestorArchivos.cargarDatos(FILE_SOCIOS, CODEC_SOCIO));
+    }
+
+    private static void cerrarSilencioso(SocioRepositoryMapeado mapeado) {
+        if (mapeado != null) {
+            try {
+                mapeado.cerrar();
+            } catch (IOException e) {
+                System.err.println("Error cerrando el almacén mapeado: " + e.getMessage());
+            }
+        }
+    }
+
+    // --- Eventos de cambio ---
+
+    public void agregarOyente(OyenteCambios oyente) {
+        oyentes.add(oyente);
+    }
+
+    public void quitarOyente(OyenteCambios oyente) {
+        oyentes.remove(oyente);
+    }
+
+    private void publicarSocio(OyenteCambios.TipoCambio tipo, Socio socio) {
+        for (OyenteCambios oyente : oyentes) {
+            oyente.socioCambiado(tipo, socio);
+        }
+    }
+
+    private void publicarClase(OyenteCambios.TipoCambio tipo, ClaseGrupal clase) {
+        for (OyenteCambios oyente : oyentes) {
+            oyente.claseCambiada(tipo, clase);
+        }
+    }
+
+    private void publicarVencidos(LocalDate desde, LocalDate hasta) {
+        if (oyentes.isEmpty()) {
+            return;
+        }
+        List<Socio> vencidos = materializarSocios(getVencimientos().vencenEntre(desde, hasta, Integer.MAX_VALUE));
+        if (!vencidos.isEmpty()) {
+            for (OyenteCambios oyente : oyentes) {
+                oyente.membresiasVencidas(vencidos);
+            }
+        }
+    }
+
+    private void barridoDiario(LocalDate desde, LocalDate hasta) {
+        publicarVencidos(desde, hasta);
+        archivarSilencioso();
+    }
+
+    private void publicarRecarga() {
+        for (OyenteCambios oyente : oyentes) {
+            oyente.datosRecargados();
+        }
     }
 
     // --- Métodos de Acceso a Datos ---
 
+    /**
+     * Dónde quedaron los socios: puede ser MEMORIA aunque se haya pedido MAPEADO, si no se pudo mapear.
+     */
+    public ModoAlmacen getModoAlmacen() {
+        return socios instanceof SocioRepositoryMapeado ? ModoAlmacen.MAPEADO : ModoAlmacen.MEMORIA;
+    }
+
+    /**
+     * Los socios en orden de registro. En modo MAPEADO es una vista perezosa: cada socio se lee
+     * del almacén recién al pedirlo por posición.
+     */
     public List<Socio> getSocios() {
-        return listaSocios;
+        return socios.getTodos();
     }
 
     public List<ClaseGrupal> getClases() {
-        return listaClases;
+        return clases.getTodas();
+    }
+
+    /**
+     * Búsqueda por prefijo de cédula, nombre o palabra del nombre (para escribir y ver resultados).
+     * No distingue tildes ni mayúsculas y tolera un error de tipeo en la palabra más larga.
+     * @param texto Lo que el usuario lleva escrito.
+     * @param limite Cantidad máxima de resultados.
+     */
+    public List<Socio> buscarSocios(String texto, int limite) {
+        return buscarSocios(texto, 0, limite);
+    }
+
+    /**
+     * Una página de la búsqueda de socios, ordenada por relevancia: cédula, nombre que empieza con
+     * el texto, nombre que contiene todas sus palabras y, al final, coincidencias con un error.
+     * Mientras el índice se construye (al abrir el servicio) solo encuentra la cédula exacta.
+     * @param texto Lo que el usuario lleva escrito.
+     * @param desde Cantidad de resultados a saltear (las páginas anteriores).
+     * @param limite Tamaño de la página.
+     */
+    public List<Socio> buscarSocios(String texto, int desde, int limite) {
+        Medicion medicion = Metricas.iniciar("servicio.buscarSocios");
+        try {
+            BuscadorSocios listo = buscador;
+            List<Socio> resultado;
+            if (listo != null) {
+                resultado = materializarSocios(listo.buscar(texto, desde, limite));
+            } else {
+                resultado = new ArrayList<>();
+                if (desde == 0 && limite > 0) {
+                    socios.buscarPorCedula(texto.trim()).ifPresent(resultado::add);
+                }
+            }
+            medicion.registros(resultado.size()).completada();
+            return resultado;
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    /**
+     * Espera a que termine la construcción del índice de búsqueda (para pruebas y mediciones).
+     * @return false si no terminó dentro del plazo.
+     */
+    public boolean esperarIndiceBusqueda(long milisegundos) throws InterruptedException {
+        return buscadorTerminado.await(milisegundos, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Construye el índice fuera de cualquier bloqueo; al publicarlo aplica los altas y bajas que
+     * llegaron durante la construcción (indexar dos veces al mismo socio no lo duplica).
+     * Si la construcción falla se publica igual, con los socios que se pudieron indexar de a uno:
+     * la cola de cambios pendientes siempre se vacía y deja de usarse.
+     */
+    private void construirBuscador() {
+        Medicion medicion = Metricas.iniciar("servicio.construirBuscador");
+        BuscadorSocios nuevo = new BuscadorSocios();
+        try {
+            nuevo.indexarTodos(socios.getTodos());
+            medicion.registros(socios.cantidad()).completada();
+        } catch (RuntimeException e) {
+            System.err.println("No se pudo construir el índice de búsqueda, se indexan los socios de a uno: " + e.getMessage());
+            nuevo = indexarDeAUno();
+        } finally {
+            publicarBuscador(nuevo);
+            medicion.terminar();
+            buscadorTerminado.countDown();
+        }
+    }
+
+    /**
+     * Índice de respaldo: omite los socios que no se pueden indexar en lugar de abandonar todo.
+     */
+    private BuscadorSocios indexarDeAUno() {
+        BuscadorSocios parcial = new BuscadorSocios();
+        int omitidos = 0;
+        try {
+            for (Socio socio : socios.getTodos()) {
+                try {
+                    parcial.indexar(socio);
+                } catch (RuntimeException e) {
+                    omitidos++;
+                }
+            }
+        } catch (RuntimeException e) {
+            // No se pudo recorrer el repositorio: queda lo que se alcanzó a indexar
+            System.err.println("Índice de búsqueda incompleto: " + e.getMessage());
+        }
+        if (omitidos > 0) {
+            System.err.println("Se omitieron " + omitidos + " socios del índice de búsqueda.");
+            Metricas.contar("buscador.omitidos", omitidos);
+        }
+        return parcial;
+    }
+
+    private void publicarBuscador(BuscadorSocios nuevo) {
+        synchronized (bloqueoBuscador) {
+            for (Consumer<BuscadorSocios> cambio : cambiosBuscador) {
+                try {
+                    cambio.accept(nuevo);
+                } catch (RuntimeException e) {
+                    System.err.println("No se pudo aplicar un cambio pendiente al índice de búsqueda: " + e.getMessage());
+                }
+            }
+            cambiosBuscador.clear();
+            buscador = nuevo;
+        }
+    }
+
+    /**
+     * Aplica el cambio al índice de búsqueda, o lo deja en la cola si todavía se está construyendo.
+     */
+    private void cambiarBuscador(Consumer<BuscadorSocios> cambio) {
+        synchronized (bloqueoBuscador) {
+            if (buscador != null) {
+                cambio.accept(buscador);
+            } else {
+                cambiosBuscador.add(cambio);
+            }
+        }
+    }
+
+    private void indexarBusqueda(Socio socio) {
+        cambiarBuscador(b -> b.indexar(socio));
     }
 
+    private IndiceVencimientos getVencimientos() {
+        synchronized (bloqueoVencimientos) {
+            if (vencimientos == null) {
+                IndiceVencimientos nuevo = new IndiceVencimientos();
+                for (Socio socio : socios.getTodos()) {
+                    nuevo.registrar(socio.getId(), socio.getFechaVencimiento());
+                }
+                vencimientos = nuevo;
+            }
+            return vencimientos;
+        }
+    }
+
+    private void indexarVencimiento(Socio socio) {
+        synchronized (bloqueoVencimientos) {
+            // Si todavía no se construyó, el socio se incluirá al construirlo
+            if (vencimientos != null) {
+                vencimientos.registrar(socio.getId(), socio.getFechaVencimiento());
+            }
+        }
+    }
+
+    // --- Consultas por vencimiento (sin recorrer todos los socios) ---
+
     /**
-     * Guarda los cambios en ambos archivos de persistencia. (RF03, RNF02)
+     * Cantidad de socios con la membresía activa hoy (RN01).
+     */
+    public int contarSociosActivos() {
+        return getVencimientos().contarActivos(DiaActual.hoy());
+    }
+
+    public int contarSociosVencidos() {
+        return getVencimientos().contarVencidos(DiaActual.hoy());
+    }
+
+    /**
+     * Cantidad de socios activos que vencen en los próximos días.
+     */
+    public int contarSociosPorVencer(int dias) {
+        return getVencimientos().contarPorVencer(DiaActual.hoy(), dias);
+    }
+
+    /**
+     * Socios activos que vencen en los próximos días, del más próximo al más lejano (recordatorios).
+     * @param dias Ventana en días a partir de hoy (un socio que vence mañana entra con 1).
+     * @param limite Cantidad máxima de socios a retornar.
+     */
+    public List<Socio> getSociosPorVencer(int dias, int limite) {
+        LocalDate hoy = DiaActual.hoy();
+        return materializarSocios(getVencimientos().vencenEntre(hoy, hoy.plusDays(dias), limite));
+    }
+
+    /**
+     * Socios con la membresía vencida, del vencimiento más reciente al más antiguo.
+     */
+    public List<Socio> getSociosVencidos(int limite) {
+        return materializarSocios(getVencimientos().vencidos(DiaActual.hoy(), limite));
+    }
+
+    // --- Ocupación de las clases (tablero de gestión) ---
+
+    public Ocupacion getOcupacionTotal() {
+        return getOcupacion().getTotal();
+    }
+
+    /**
+     * Ocupación de las clases con ese nombre (por ejemplo, todas las de "Yoga").
+     */
+    public Ocupacion getOcupacionDeClase(String nombre) {
+        return getOcupacion().getPorNombre(nombre);
+    }
+
+    /**
+     * Ocupación de cada nombre de clase, ordenada por nombre.
+     */
+    public Map<String, Ocupacion> getOcupacionPorClase() {
+        return getOcupacion().getPorNombre();
+    }
+
+    public Ocupacion getOcupacionPorDia(DayOfWeek dia) {
+        return getOcupacion().getPorDia(dia);
+    }
+
+    /**
+     * @param hora Hora de inicio de las clases, de 0 a 23.
+     */
+    public Ocupacion getOcupacionPorFranja(int hora) {
+        return getOcupacion().getPorFranja(hora);
+    }
+
+    /**
+     * Tasa de ocupación por día de la semana (fila, lunes = 0) y hora de inicio (columna),
+     * para detectar las horas pico.
+     */
+    public double[][] getMapaCalorOcupacion() {
+        return getOcupacion().getMapaCalor();
+    }
+
+    /**
+     * Vuelve a calcular la ocupación desde todas las clases en memoria, en paralelo (sin las ya
+     * archivadas, igual que los agregados al día). Normalmente no hace falta: los agregados se
+     * actualizan con cada clase, reserva y archivado.
+     */
+    public void recalcularOcupacion() {
+        synchronized (bloqueoOcupacion) {
+            ocupacion = AgregadosOcupacion.recalcular(clases.getTodas());
+        }
+    }
+
+    private AgregadosOcupacion getOcupacion() {
+        synchronized (bloqueoOcupacion) {
+            if (ocupacion == null) {
+                ocupacion = AgregadosOcupacion.recalcular(clases.getTodas());
+            }
+            return ocupacion;
+        }
+    }
+
+    private void registrarOcupacion(ClaseGrupal clase) {
+        synchronized (bloqueoOcupacion) {
+            // Si todavía no se calculó, la clase se incluirá al calcularla
+            if (ocupacion != null) {
+                ocupacion.registrar(clase);
+            }
+        }
+    }
+
+    private List<Socio> materializarSocios(List<UUID> ids) {
+        List<Socio> resultado = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            socios.buscarPorId(id).ifPresent(resultado::add);
+        }
+        return resultado;
+    }
+
+    /**
+     * Búsqueda O(1) de un socio por cédula (recepción).
+     */
+    public Optional<Socio> buscarSocioPorCedula(String cedula) {
+        Medicion medicion = Metricas.iniciar("servicio.buscarSocioPorCedula");
+        try {
+            Optional<Socio> socio = socios.buscarPorCedula(cedula);
+            medicion.completada();
+            return socio;
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    public Optional<Socio> buscarSocioPorId(UUID id) {
+        return socios.buscarPorId(id);
+    }
+
+    /**
+     * Busca la clase registrada con ese id o, si no la hay, la ocurrencia de plantilla con ese id.
+     */
+    public Optional<ClaseGrupal> buscarClasePorId(UUID id) {
+        Optional<ClaseGrupal> registrada = clases.buscarPorId(id);
+        return registrada.isPresent() ? registrada : plantillas.buscarOcurrencia(id);
+    }
+
+    /**
+     * Clases programadas en el rango [desde, hasta), ordenadas por horario: las registradas y las
+     * ocurrencias de las plantillas que todavía no tienen reservas.
+     */
+    public List<ClaseGrupal> buscarClasesEntre(LocalDateTime desde, LocalDateTime hasta) {
+        List<ClaseGrupal> registradas = clases.buscarEntre(desde, hasta);
+        if (plantillas.cantidad() == 0) {
+            return registradas;
+        }
+        return combinarOcurrencias(registradas, desde, hasta);
+    }
+
+    /**
+     * Todas las clases registradas más las ocurrencias de plantillas de los próximos días que
+     * todavía no tienen reservas (para la tabla de clases).
+     */
+    public List<ClaseGrupal> getClasesProgramadas(int dias) {
+        List<ClaseGrupal> todas = clases.getTodas();
+        if (plantillas.cantidad() == 0) {
+            return todas;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        return combinarOcurrencias(todas, ahora, ahora.plusDays(dias));
+    }
+
+    /**
+     * Agrega a las clases registradas las ocurrencias del rango que no están registradas,
+     * ordenando todo por horario.
+     */
+    private List<ClaseGrupal> combinarOcurrencias(List<ClaseGrupal> registradas, LocalDateTime desde, LocalDateTime hasta) {
+        List<ClaseGrupal> resultado = new ArrayList<>(registradas);
+        for (ClaseGrupal ocurrencia : plantillas.ocurrenciasEntre(desde, hasta)) {
+            if (clases.buscarPorId(ocurrencia.getId()).isEmpty()) {
+                resultado.add(ocurrencia);
+            }
+        }
+        resultado.sort(Comparator.comparing(ClaseGrupal::getHorario));
+        return resultado;
+    }
+
+    public List<PlantillaClase> getPlantillas() {
+        return plantillas.getTodas();
+    }
+
+    /**
+     * Roster de una clase: socios que la reservaron, sin recorrer todas las reservas.
+     */
+    public List<Socio> getAsistentes(ClaseGrupal clase) {
+        List<Socio> asistentes = new ArrayList<>();
+        for (UUID socioId : reservas.getSociosDeClase(clase.getId())) {
+            socios.buscarPorId(socioId).ifPresent(asistentes::add);
+        }
+        return asistentes;
+    }
+
+    /**
+     * Agenda de un socio: clases reservadas que aún no ocurrieron, ordenadas por horario.
+     */
+    public List<ClaseGrupal> getProximasClases(Socio socio) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<ClaseGrupal> agenda = new ArrayList<>();
+        for (UUID claseId : reservas.getClasesDeSocio(socio.getId())) {
+            clases.buscarPorId(claseId)
+                    .filter(c -> c.getHorario().isAfter(ahora))
+                    .ifPresent(agenda::add);
+        }
+        agenda.sort(Comparator.comparing(ClaseGrupal::getHorario));
+        return agenda;
+    }
+
+    public boolean tieneReserva(Socio socio, ClaseGrupal clase) {
+        return reservas.existe(socio.getId(), clase.getId());
+    }
+
+    /**
+     * Guarda los cambios en los archivos de persistencia. (RF03, RNF02)
+     * Funciona como compactación: escribe una instantánea completa y descarta el diario anterior.
+     * Normalmente lo invoca el guardado diferido en segundo plano; se puede llamar para forzarlo.
      * @throws IOException Si ocurre un error de entrada/salida al escribir el archivo.
      */
     public void guardarCambios() throws IOException {
-        GestorArchivos.guardarDatos(FILE_SOCIOS, listaSocios);
-        GestorArchivos.guardarDatos(FILE_CLASES, listaClases);
+        guardarInstantanea(null);
+    }
+
+    private interface CambiosPrevios {
+        void aplicar() throws IOException;
+    }
+
+    /**
+     * Escribe la instantánea completa.
+     * @param cambiosPrevios Cambios a aplicar bajo el bloqueo de escritura justo antes de copiar los
+     *                       datos (puede ser null). Quedan en la instantánea; si además los registran
+     *                       en el diario, el registro cae en el segmento que se descarta con ella.
+     *                       Si fallan, no se escribe la instantánea.
+     */
+    private synchronized void guardarInstantanea(CambiosPrevios cambiosPrevios) throws IOException {
+        Medicion medicion = Metricas.iniciar("servicio.guardarCambios");
+        try {
+            List<Socio> copiaSocios = null;
+            List<ClaseGrupal> copiaClases;
+            List<Reserva> copiaReservas;
+            List<PlantillaClase> copiaPlantillas;
+
+            // Bajo el bloqueo de escritura solo se copian referencias y se rota el diario,
+            // así las mutaciones quedan detenidas muy poco tiempo
+            bloqueo.writeLock().lock();
+            try {
+                if (cambiosPrevios != null) {
+                    cambiosPrevios.aplicar();
+                }
+                if (!(socios instanceof SocioRepositoryMapeado)) {
+                    copiaSocios = socios.getTodos();
+                }
+                copiaClases = clases.getTodas();
+                copiaReservas = reservas.getTodas();
+                copiaPlantillas = plantillas.getTodas();
+                if (diario != null) {
+                    diario.rotar();
+                }
+            } finally {
+                bloqueo.writeLock().unlock();
+            }
+
+            // Cada archivo se escribe en un temporal y se reemplazan todos juntos al confirmar el
+            // conjunto: una caída a mitad del guardado no mezcla archivos de dos instantáneas
+            List<String> conjunto = new ArrayList<>(4);
+            if (socios instanceof SocioRepositoryMapeado mapeado) {
+                // El almacén mapeado ya es la instantánea: basta con forzarlo a disco
+                mapeado.sincronizar();
+            } else {
+                GestorArchivos.guardarPendiente(FILE_SOCIOS, copiaSocios, CODEC_SOCIO);
+                conjunto.add(FILE_SOCIOS);
+            }
+            GestorArchivos.guardarPendiente(FILE_CLASES, copiaClases, CODEC_CLASE);
+            GestorArchivos.guardarPendiente(FILE_RESERVAS, copiaReservas, CODEC_RESERVA);
+            GestorArchivos.guardarPendiente(FILE_PLANTILLAS, copiaPlantillas, CODEC_PLANTILLA);
+            conjunto.addAll(List.of(FILE_CLASES, FILE_RESERVAS, FILE_PLANTILLAS));
+            GestorArchivos.confirmarConjunto(FILE_MANIFIESTO, conjunto);
+            if (diario != null) {
+                diario.descartarAnterior();
+            }
+
+            medicion.completada();
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    /**
+     * Métricas del guardado diferido (latencia de guardado y tamaño de los lotes agrupados).
+     */
+    public GuardadoDiferido getGuardadoDiferido() {
+        return guardadoDiferido;
+    }
+
+    /**
+     * Escribe lo pendiente y cierra el diario de cambios. Llamar al cerrar la aplicación.
+     */
+    public void cerrar() {
+        barridoVencimientos.cerrar();
+        try {
+            guardadoDiferido.cerrar();
+        } catch (IOException e) {
+            System.err.println("Error guardando los cambios pendientes: " + e.getMessage());
+        }
+        if (diario != null) {
+            try {
+                diario.close();
+            } catch (IOException e) {
+                System.err.println("Error cerrando el diario de cambios: " + e.getMessage());
+            }
+        }
+        if (socios instanceof SocioRepositoryMapeado mapeado) {
+            try {
+                mapeado.cerrar();
+            } catch (IOException e) {
+                System.err.println("Error cerrando el almacén de socios: " + e.getMessage());
+            }
+        }
     }
 
     // --- Lógica del Módulo Socios ---
@@ -52,17 +789,74 @@ public class GimnasioService {
      * RF01: Registra un nuevo socio aplicando la validación de unicidad.
      * @param cedula El documento de identidad único.
      * @param nombre El nombre completo del socio.
-     * @throws Exception Si el socio con esa cédula ya existe.
+     * @throws ReglaNegocioException Si el socio con esa cédula ya existe, aunque esté archivado.
+     * @throws IOException Si no se puede registrar el cambio.
      */
-    public void registrarSocio(String cedula, String nombre) throws Exception {
-        // Búsqueda de unicidad (RF01)
-        boolean existe = listaSocios.stream().anyMatch(s -> s.getCedula().equals(cedula));
-        if (existe) {
-            throw new Exception("El socio con cédula " + cedula + " ya existe.");
+    public void registrarSocio(String cedula, String nombre) throws ReglaNegocioException, IOException {
+        Medicion medicion = Metricas.iniciar("servicio.registrarSocio");
+        try {
+            // Búsqueda de unicidad (RF01) sobre el índice hash por cédula
+            if (socios.existeCedula(cedula)) {
+                throw new ReglaNegocioException(ReglaNegocioException.Regla.CEDULA_DUPLICADA,
+                        "El socio con cédula " + cedula + " ya existe.");
+            }
+            // Un socio archivado conserva su cédula: se lo consulta en el historial
+            if (historico != null && historico.contieneCedula(cedula)) {
+                throw new ReglaNegocioException(ReglaNegocioException.Regla.CEDULA_DUPLICADA,
+                        "El socio con cédula " + cedula + " ya existe en el archivo histórico.");
+            }
+
+            Socio socio = new Socio(cedula, nombre);
+            bloqueo.readLock().lock();
+            try {
+                // La inserción vuelve a validar de forma atómica por si otro hilo registró la misma cédula
+                if (!socios.agregar(socio)) {
+                    throw new ReglaNegocioException(ReglaNegocioException.Regla.CEDULA_DUPLICADA,
+                            "El socio con cédula " + cedula + " ya existe.");
+                }
+                registrarEnDiario(d -> d.registrarSocio(socio));
+            } finally {
+                bloqueo.readLock().unlock();
+            }
+            indexarBusqueda(socio);
+            indexarVencimiento(socio);
+            compactarSiNecesario();
+            publicarSocio(OyenteCambios.TipoCambio.AGREGADO, socio);
+
+            medicion.completada();
+        } catch (ReglaNegocioException e) {
+            medicion.rechazada(e.getRegla().getCodigo());
+            throw e;
+        } finally {
+            medicion.terminar();
         }
+    }
 
-        listaSocios.add(new Socio(cedula, nombre));
-        guardarCambios();
+    /**
+     * RF03: Renueva la membresía de un socio y registra el cambio.
+     * @param socio El socio a renovar.
+     * @param dias Cantidad de días de la renovación.
+     * @throws IOException Si no se puede persistir el cambio.
+     */
+    public void renovarMembresia(Socio socio, int dias) throws IOException {
+        Medicion medicion = Metricas.iniciar("servicio.renovarMembresia");
+        try {
+            bloqueo.readLock().lock();
+            try {
+                socio.renovarMembresia(dias);
+                socios.actualizar(socio);
+                registrarEnDiario(d -> d.registrarRenovacion(socio));
+            } finally {
+                bloqueo.readLock().unlock();
+            }
+            indexarVencimiento(socio);
+            compactarSiNecesario();
+            publicarSocio(OyenteCambios.TipoCambio.ACTUALIZADO, socio);
+
+            medicion.completada();
+        } finally {
+            medicion.terminar();
+        }
     }
 
     // --- Lógica del Módulo Clases y Reservas ---
@@ -71,29 +865,1023 @@ public class GimnasioService {
      * RF02: Crea y registra una nueva clase grupal.
      */
     public void registrarClase(String nombre, LocalDateTime horario, int cupo) throws IOException {
-        listaClases.add(new ClaseGrupal(nombre, horario, cupo));
-        guardarCambios();
+        Medicion medicion = Metricas.iniciar("servicio.registrarClase");
+        try {
+            ClaseGrupal clase = new ClaseGrupal(nombre, horario, cupo);
+            bloqueo.readLock().lock();
+            try {
+                clases.agregar(clase);
+                registrarEnDiario(d -> d.registrarClase(clase));
+            } finally {
+                bloqueo.readLock().unlock();
+            }
+            registrarOcupacion(clase);
+            compactarSiNecesario();
+            publicarClase(OyenteCambios.TipoCambio.AGREGADO, clase);
+
+            medicion.completada();
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    /**
+     * Programa una clase que se repite cada semana. No se crea ninguna clase: las ocurrencias se
+     * generan al consultar un rango y solo se registran (y guardan) cuando reciben una reserva.
+     * @param dias Días de la semana en que se dicta.
+     * @param desde Primera fecha (inclusive).
+     * @param hasta Última fecha (inclusive).
+     * @return La plantilla creada.
+     * @throws IOException Si no se puede registrar el cambio.
+     */
+    public PlantillaClase registrarPlantilla(String nombre, Set<DayOfWeek> dias, LocalTime hora, int cupo,
+                                             LocalDate desde, LocalDate hasta) throws IOException {
+        PlantillaClase plantilla = new PlantillaClase(nombre, dias, hora, cupo, desde, hasta);
+        bloqueo.readLock().lock();
+        try {
+            plantillas.agregar(plantilla);
+            registrarEnDiario(d -> d.registrarPlantilla(plantilla));
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+        compactarSiNecesario();
+        // Aparecen muchas clases a la vez en las consultas por rango
+        publicarRecarga();
+        return plantilla;
+    }
+
+    /**
+     * La instancia registrada de la clase. Una ocurrencia de plantilla se registra (y pasa a
+     * guardarse) la primera vez que se la necesita; si dos hilos la registran a la vez, ambos
+     * continúan con la misma instancia.
+     */
+    private ClaseGrupal registrarOcurrencia(ClaseGrupal clase) throws IOException {
+        Optional<ClaseGrupal> registrada = clases.buscarPorId(clase.getId());
+        if (registrada.isPresent()) {
+            return registrada.get();
+        }
+        if (plantillas.buscarOcurrencia(clase.getId()).isEmpty()) {
+            return clase;
+        }
+        bloqueo.readLock().lock();
+        try {
+            if (!clases.agregar(clase)) {
+                return clases.buscarPorId(clase.getId()).orElse(clase);
+            }
+            registrarEnDiario(d -> d.registrarClase(clase));
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+        Metricas.contar("plantillas.ocurrenciasRegistradas", 1);
+        return clase;
     }
 
     /**
-     * RF04: Realiza una reserva aplicando las reglas de negocio críticas.
+     * La instancia registrada de la clase, o la misma si no está registrada (ocurrencia sin reservas).
+     */
+    private ClaseGrupal registrada(ClaseGrupal clase) {
+        return clases.buscarPorId(clase.getId()).orElse(clase);
+    }
+
+    /**
+     * RF04: Realiza una reserva aplicando las reglas de negocio críticas. Si la clase está llena,
+     * el socio entra a la lista de espera y obtiene el cupo automáticamente cuando se libere uno.
+     * Mientras haya socios esperando, los cupos que se liberan son para ellos: una reserva nueva
+     * va al final de la lista aunque en ese instante haya un cupo libre.
      * @param socio El socio que intenta reservar.
      * @param clase La clase seleccionada.
-     * @throws Exception Si falla alguna Regla de Negocio (RN01 o RN02).
+     * @return Si el cupo quedó confirmado o el socio quedó en espera (con su posición).
+     * @throws ReglaNegocioException Si falla alguna Regla de Negocio (RN01, o RN02 con la lista de
+     *         espera también completa) o el socio ya tenía la clase reservada o estaba esperando.
+     * @throws IOException Si no se puede registrar el cambio.
+     */
+    public ResultadoReserva realizarReserva(Socio socio, ClaseGrupal seleccionada) throws ReglaNegocioException, IOException {
+        Medicion medicion = Metricas.iniciar("servicio.realizarReserva");
+        try {
+            // RN01: Acceso Denegado (Membresía activa)
+            if (!socio.esActivo()) {
+                throw new ReglaNegocioException(ReglaNegocioException.Regla.MEMBRESIA_VENCIDA,
+                        "Acceso Denegado: La membresía del socio está vencida. Renueve el plan.");
+            }
+
+            // Las reglas se prueban sobre la instancia sin registrar: una ocurrencia de plantilla
+            // pasa a guardarse recién cuando la reserva se acepta
+            verificarReserva(socio, registrada(seleccionada));
+            ClaseGrupal clase = registrarOcurrencia(seleccionada);
+            ListaEspera espera = clase.getListaEspera();
+            ResultadoReserva resultado;
+            bloqueo.readLock().lock();
+            try {
+                boolean sinEspera = espera.estaVacia();
+                // Reserva duplicada: el índice clase -> socios lo detecta en O(1) y de forma atómica
+                if (sinEspera ? !reservas.agregar(socio.getId(), clase.getId()) : reservas.existe(socio.getId(), clase.getId())) {
+                    throw new ReglaNegocioException(ReglaNegocioException.Regla.RESERVA_DUPLICADA,
+                            "Reserva Duplicada: " + socio.getNombre() + " ya tiene un cupo en " + clase.getNombreClase() + ".");
+                }
+
+                // RN02: Control de Aforo. Verificar y reservar es una sola operación atómica (CAS)
+                // por clase, así que reservas concurrentes nunca superan la capacidad y las de
+                // clases distintas no se bloquean entre sí.
+                int ocupados = sinEspera ? clase.reclamarCupo() : -1;
+                if (ocupados >= 0) {
+                    registrarEnDiario(d -> d.registrarReserva(clase, socio, ocupados));
+                    resultado = ResultadoReserva.confirmada();
+                } else {
+                    if (sinEspera) {
+                        reservas.eliminar(socio.getId(), clase.getId());
+                    }
+                    // La lista de espera admite tantos socios como cupos tiene la clase. El alta y
+                    // su registro en el diario van juntos: un promotor no puede registrar la salida
+                    // del socio antes que su entrada
+                    int posicion;
+                    synchronized (espera) {
+                        posicion = espera.agregar(socio.getId(), clase.getCapacidadMaxima());
+                        if (posicion > 0) {
+                            registrarEnDiario(d -> d.registrarEspera(clase, socio.getId()));
+                        }
+                    }
+                    if (posicion < 0) {
+                        throw new ReglaNegocioException(ReglaNegocioException.Regla.CLASE_LLENA,
+                                "Control de Aforo: La clase no tiene cupos disponibles y su lista de espera está completa (Clase Llena).");
+                    }
+                    if (posicion == 0) {
+                        throw new ReglaNegocioException(ReglaNegocioException.Regla.RESERVA_DUPLICADA,
+                                "Reserva Duplicada: " + socio.getNombre() + " ya está en la lista de espera de " + clase.getNombreClase() + ".");
+                    }
+                    resultado = ResultadoReserva.enEspera(posicion);
+                }
+            } finally {
+                bloqueo.readLock().unlock();
+            }
+
+            if (resultado.estaConfirmada()) {
+                registrarOcupacion(clase);
+                compactarSiNecesario();
+                publicarClase(OyenteCambios.TipoCambio.ACTUALIZADO, clase);
+            } else {
+                // Un cupo pudo liberarse mientras el socio entraba a la lista
+                promoverEspera(clase);
+                Metricas.contar("reservas.enEspera", 1);
+            }
+
+            medicion.completada();
+            return resultado;
+        } catch (ReglaNegocioException e) {
+            medicion.rechazada(e.getRegla().getCodigo());
+            throw e;
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    /**
+     * Los rechazos de RF04 según el estado actual de la clase, sin tomar cupos ni registrarla.
+     * realizarReserva vuelve a verificarlos de forma atómica al reservar.
+     */
+    private void verificarReserva(Socio socio, ClaseGrupal clase) throws ReglaNegocioException {
+        ListaEspera espera = clase.getListaEspera();
+        if (reservas.existe(socio.getId(), clase.getId())) {
+            throw new ReglaNegocioException(ReglaNegocioException.Regla.RESERVA_DUPLICADA,
+                    "Reserva Duplicada: " + socio.getNombre() + " ya tiene un cupo en " + clase.getNombreClase() + ".");
+        }
+        if (espera.contiene(socio.getId())) {
+            throw new ReglaNegocioException(ReglaNegocioException.Regla.RESERVA_DUPLICADA,
+                    "Reserva Duplicada: " + socio.getNombre() + " ya está en la lista de espera de " + clase.getNombreClase() + ".");
+        }
+        boolean entraDirecto = espera.estaVacia() && clase.hayCupo();
+        if (!entraDirecto && espera.tamano() >= clase.getCapacidadMaxima()) {
+            throw new ReglaNegocioException(ReglaNegocioException.Regla.CLASE_LLENA,
+                    "Control de Aforo: La clase no tiene cupos disponibles y su lista de espera está completa (Clase Llena).");
+        }
+    }
+
+    /**
+     * RF04 en lote, para entrenadores y grupos corporativos que reservan varios socios en varias
+     * clases a la vez. Valida RN01 y RN02 para cada par (socio, clase), aplica los aceptados bajo
+     * un solo bloqueo y los agrega al diario en un único registro, que al reproducirse se aplica
+     * completo o no se aplica. Las reservas en lote no entran a la lista de espera: una clase sin
+     * cupos, o con socios esperando el próximo cupo, rechaza el par por RN02.
+     * @param solicitudes Pares (socio, clase) por id, en el orden en que se asignan los cupos.
+     * @param modo Si un rechazo cancela el lote completo o solo ese par.
+     * @return El resultado de cada par, en el orden pedido.
+     * @throws IOException Si no se puede registrar el lote.
+     */
+    public ResultadoLote realizarReservas(List<Reserva> solicitudes, ModoLote modo) throws IOException {
+        Medicion medicion = Metricas.iniciar("servicio.realizarReservas");
+        try {
+            ResultadoLote resultado = realizarReservasSinMedir(solicitudes, modo);
+            medicion.registros(resultado.getConfirmadas()).completada();
+            Metricas.contar("rechazos.servicio.realizarReservas", resultado.getRechazadas());
+            return resultado;
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    private ResultadoLote realizarReservasSinMedir(List<Reserva> solicitudes, ModoLote modo) throws IOException {
+        ResultadoLote resultado = new ResultadoLote(modo, solicitudes);
+        int cantidad = solicitudes.size();
+        Socio[] sociosLote = new Socio[cantidad];
+        ClaseGrupal[] clasesLote = new ClaseGrupal[cantidad];
+
+        // Primero lo que no depende de los cupos: existencia, RN01 y pares repetidos en el lote
+        Map<UUID, ClaseGrupal> registradas = new HashMap<>();
+        Map<UUID, Set<UUID>> pedidas = new HashMap<>();
+        for (int i = 0; i < cantidad; i++) {
+            Reserva solicitud = solicitudes.get(i);
+            Optional<Socio> socio = socios.buscarPorId(solicitud.getSocioId());
+            if (socio.isEmpty()) {
+                resultado.rechazar(i, null, "No existe el socio " + solicitud.getSocioId() + ".");
+                continue;
+            }
+            if (!socio.get().esActivo()) {
+                resultado.rechazar(i, ReglaNegocioException.Regla.MEMBRESIA_VENCIDA,
+                        "Acceso Denegado: La membresía de " + socio.get().getNombre() + " está vencida. Renueve el plan.");
+                continue;
+            }
+            ClaseGrupal clase = registradas.get(solicitud.getClaseId());
+            if (clase == null) {
+                Optional<ClaseGrupal> encontrada = buscarClasePorId(solicitud.getClaseId());
+                if (encontrada.isEmpty()) {
+                    resultado.rechazar(i, null, "No existe la clase " + solicitud.getClaseId() + ".");
+                    continue;
+                }
+                clase = encontrada.get();
+            }
+            if (!pedidas.computeIfAbsent(clase.getId(), id -> new HashSet<>()).add(solicitud.getSocioId())) {
+                resultado.rechazar(i, ReglaNegocioException.Regla.RESERVA_DUPLICADA,
+                        "Reserva Duplicada: " + socio.get().getNombre() + " aparece dos veces en el lote para " + clase.getNombreClase() + ".");
+                continue;
+            }
+            registradas.put(clase.getId(), clase);
+            sociosLote[i] = socio.get();
+            clasesLote[i] = clase;
+        }
+        if (modo == ModoLote.TODO_O_NADA && resultado.getRechazadas() > 0) {
+            return resultado;
+        }
+
+        // Después los cupos, probados sobre las instancias sin registrar: una ocurrencia de
+        // plantilla pasa a guardarse recién cuando el lote va a reservar en ella
+        Map<UUID, Integer> tomados = new HashMap<>();
+        for (int i = 0; i < cantidad; i++) {
+            if (clasesLote[i] == null) {
+                continue;
+            }
+            Socio socio = sociosLote[i];
+            ClaseGrupal clase = registradas.get(clasesLote[i].getId());
+            int ocupados = clase.getReservasActuales() + tomados.getOrDefault(clase.getId(), 0);
+            if (!clase.getListaEspera().estaVacia()) {
+                resultado.rechazar(i, ReglaNegocioException.Regla.CLASE_LLENA,
+                        "Control de Aforo: " + clase.getNombreClase() + " tiene socios en lista de espera (Clase Llena).");
+            } else if (reservas.existe(socio.getId(), clase.getId())) {
+                resultado.rechazar(i, ReglaNegocioException.Regla.RESERVA_DUPLICADA,
+                        "Reserva Duplicada: " + socio.getNombre() + " ya tiene un cupo en " + clase.getNombreClase() + ".");
+            } else if (ocupados >= clase.getCapacidadMaxima()) {
+                resultado.rechazar(i, ReglaNegocioException.Regla.CLASE_LLENA,
+                        "Control de Aforo: " + clase.getNombreClase() + " no tiene cupos disponibles (Clase Llena).");
+            } else {
+                tomados.merge(clase.getId(), 1, Integer::sum);
+                continue;
+            }
+            clasesLote[i] = null;
+        }
+        if (modo == ModoLote.TODO_O_NADA && resultado.getRechazadas() > 0) {
+            return resultado;
+        }
+        for (UUID claseId : tomados.keySet()) {
+            registradas.put(claseId, registrarOcurrencia(registradas.get(claseId)));
+        }
+
+        List<Reserva> confirmadas = new ArrayList<>();
+        int[] reservasActuales = new int[cantidad];
+        Map<UUID, ClaseGrupal> afectadas = new LinkedHashMap<>();
+        boolean revertido = false;
+        bloqueo.readLock().lock();
+        try {
+            for (int i = 0; i < cantidad; i++) {
+                if (clasesLote[i] == null) {
+                    continue;
+                }
+                Socio socio = sociosLote[i];
+                ClaseGrupal clase = registradas.get(clasesLote[i].getId());
+                // Los cupos que se liberan son primero para quienes ya están esperando
+                if (!clase.getListaEspera().estaVacia()) {
+                    resultado.rechazar(i, ReglaNegocioException.Regla.CLASE_LLENA,
+                            "Control de Aforo: " + clase.getNombreClase() + " tiene socios en lista de espera (Clase Llena).");
+                } else if (!reservas.agregar(socio.getId(), clase.getId())) {
+                    resultado.rechazar(i, ReglaNegocioException.Regla.RESERVA_DUPLICADA,
+                            "Reserva Duplicada: " + socio.getNombre() + " ya tiene un cupo en " + clase.getNombreClase() + ".");
+                } else {
+                    int ocupados = clase.reclamarCupo();
+                    if (ocupados < 0) {
+                        reservas.eliminar(socio.getId(), clase.getId());
+                        resultado.rechazar(i, ReglaNegocioException.Regla.CLASE_LLENA,
+                                "Control de Aforo: " + clase.getNombreClase() + " no tiene cupos disponibles (Clase Llena).");
+                    } else {
+                        reservasActuales[confirmadas.size()] = ocupados;
+                        confirmadas.add(solicitudes.get(i));
+                        afectadas.put(clase.getId(), clase);
+                        resultado.confirmar(i);
+                    }
+                }
+                if (modo == ModoLote.TODO_O_NADA && resultado.getRechazadas() > 0) {
+                    break;
+                }
+            }
+
+            if (modo == ModoLote.TODO_O_NADA && resultado.getRechazadas() > 0) {
+                // Se devuelven los cupos ya tomados; ninguno llegó al diario
+                for (Reserva reserva : confirmadas) {
+                    reservas.eliminar(reserva.getSocioId(), reserva.getClaseId());
+                    afectadas.get(reserva.getClaseId()).liberarCupo();
+                }
+                resultado.descartarConfirmadas();
+                revertido = true;
+            } else if (!confirmadas.isEmpty()) {
+                registrarEnDiario(d -> d.registrarReservas(confirmadas, reservasActuales));
+            }
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+
+        for (ClaseGrupal clase : afectadas.values()) {
+            if (revertido) {
+                // Mientras el lote tenía el cupo, otro socio pudo entrar a la lista de espera
+                promoverEspera(clase);
+            } else {
+                registrarOcupacion(clase);
+                publicarClase(OyenteCambios.TipoCambio.ACTUALIZADO, clase);
+            }
+        }
+        if (!revertido && !confirmadas.isEmpty()) {
+            compactarSiNecesario();
+        }
+        return resultado;
+    }
+
+    /**
+     * Cancela la reserva del socio (o lo saca de la lista de espera). El cupo liberado pasa al
+     * primero de la lista de espera.
+     * @return false si el socio no tenía reserva ni estaba esperando en esa clase.
+     * @throws IOException Si no se puede registrar el cambio.
+     */
+    public boolean cancelarReserva(Socio socio, ClaseGrupal seleccionada) throws IOException {
+        Medicion medicion = Metricas.iniciar("servicio.cancelarReserva");
+        try {
+            ClaseGrupal clase = registrada(seleccionada);
+            boolean cancelada;
+            boolean salioDeEspera = false;
+            bloqueo.readLock().lock();
+            try {
+                cancelada = reservas.eliminar(socio.getId(), clase.getId());
+                if (cancelada) {
+                    clase.liberarCupo();
+                    registrarEnDiario(d -> d.registrarCancelacion(clase, socio));
+                } else {
+                    ListaEspera espera = clase.getListaEspera();
+                    synchronized (espera) {
+                        if (espera.quitar(socio.getId())) {
+                            salioDeEspera = true;
+                            registrarEnDiario(d -> d.registrarSalidaEspera(clase, socio.getId()));
+                        }
+                    }
+                }
+            } finally {
+                bloqueo.readLock().unlock();
+            }
+
+            if (cancelada) {
+                registrarOcupacion(clase);
+                promoverEspera(clase);
+                publicarClase(OyenteCambios.TipoCambio.ACTUALIZADO, clase);
+            }
+            if (cancelada || salioDeEspera) {
+                compactarSiNecesario();
+            }
+            medicion.completada();
+            return cancelada || salioDeEspera;
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    /**
+     * Agrega cupos a una clase; los nuevos cupos pasan primero a la lista de espera.
+     * @throws IOException Si no se puede registrar el cambio.
+     */
+    public void ampliarCupo(ClaseGrupal seleccionada, int cuposAdicionales) throws IOException {
+        if (cuposAdicionales <= 0) {
+            throw new IllegalArgumentException("La cantidad de cupos a agregar debe ser positiva.");
+        }
+        ClaseGrupal clase = registrarOcurrencia(seleccionada);
+        bloqueo.readLock().lock();
+        try {
+            // Solo se amplía: una reducción podría dejar la clase con más reservas que cupos
+            synchronized (clase) {
+                clase.setCapacidadMaxima(Math.addExact(clase.getCapacidadMaxima(), cuposAdicionales));
+                registrarEnDiario(d -> d.registrarAmpliacionCupo(clase));
+            }
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+        registrarOcupacion(clase);
+        promoverEspera(clase);
+        compactarSiNecesario();
+        publicarClase(OyenteCambios.TipoCambio.ACTUALIZADO, clase);
+    }
+
+    /**
+     * Socios en la lista de espera de la clase, en orden de llegada.
+     */
+    public List<Socio> getListaEspera(ClaseGrupal clase) {
+        return materializarSocios(registrada(clase).getListaEspera().getSocios());
+    }
+
+    /**
+     * Posición del socio en la lista de espera de la clase (la primera es 1), o 0 si no está esperando.
+     */
+    public int getPosicionEnEspera(Socio socio, ClaseGrupal clase) {
+        return registrada(clase).getListaEspera().posicion(socio.getId());
+    }
+
+    /**
+     * Pasa socios de la lista de espera a la clase mientras haya cupos. Primero se reclama el cupo
+     * (CAS) y recién después se saca al primero de la lista, así dos hilos que promueven a la vez
+     * nunca sacan más socios que cupos. La salida se registra en el diario con el monitor de la
+     * lista tomado, después de la entrada del socio. La llaman quienes liberan o agregan cupos y
+     * quienes entran a la lista, de modo que un cupo libre con socios esperando no queda sin asignar.
+     */
+    private void promoverEspera(ClaseGrupal clase) throws IOException {
+        ListaEspera espera = clase.getListaEspera();
+        List<Socio> promovidos = new ArrayList<>();
+        bloqueo.readLock().lock();
+        try {
+            while (!espera.estaVacia()) {
+                int ocupados = clase.reclamarCupo();
+                if (ocupados < 0) {
+                    break;
+                }
+                UUID socioId;
+                synchronized (espera) {
+                    socioId = espera.retirarPrimero();
+                    if (socioId != null) {
+                        registrarEnDiario(d -> d.registrarSalidaEspera(clase, socioId));
+                    }
+                }
+                if (socioId == null) {
+                    // Otro hilo promovió o quitó al último mientras se reclamaba el cupo
+                    clase.liberarCupo();
+                    break;
+                }
+
+                // RN01 se vuelve a verificar: la membresía pudo vencer mientras esperaba
+                Optional<Socio> socio = socios.buscarPorId(socioId);
+                if (socio.isEmpty() || !socio.get().esActivo() || !reservas.agregar(socioId, clase.getId())) {
+                    clase.liberarCupo();
+                    continue;
+                }
+                registrarEnDiario(d -> d.registrarReserva(clase, socio.get(), ocupados));
+                promovidos.add(socio.get());
+            }
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+
+        if (!promovidos.isEmpty()) {
+            Metricas.contar("reservas.promovidas", promovidos.size());
+            registrarOcupacion(clase);
+            compactarSiNecesario();
+            publicarClase(OyenteCambios.TipoCambio.ACTUALIZADO, clase);
+            for (Socio socio : promovidos) {
+                for (OyenteCambios oyente : oyentes) {
+                    oyente.esperaPromovida(clase, socio);
+                }
+            }
+        }
+    }
+
+    // --- Importación y exportación masiva ---
+
+    /**
+     * Importa socios desde un CSV (cedula,nombre[,vencimiento]) o NDJSON con esos campos.
+     * Las filas se validan en paralelo (campos obligatorios, formato y unicidad de la cédula contra
+     * los socios existentes y dentro del mismo archivo) y las válidas se agregan en un solo lote,
+     * con una única escritura de la instantánea. Las filas inválidas se informan en el resultado.
+     * @throws IOException Si no se puede leer el origen o guardar la instantánea.
+     */
+    public ResultadoImportacion importarSocios(Reader origen, FormatoIntercambio formato) throws IOException {
+        Medicion medicion = Metricas.iniciar("servicio.importarSocios");
+        try {
+            ResultadoImportacion resultado = importarSociosSinMedir(origen, formato);
+            medicion.registros(resultado.getAceptados()).completada();
+            Metricas.contar("rechazos.servicio.importarSocios", resultado.getRechazos().size());
+            return resultado;
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    /**
+     * RF01 contra los socios registrados y los archivados.
+     */
+    private boolean existeCedula(String cedula) {
+        return socios.existeCedula(cedula) || (historico != null && historico.contieneCedula(cedula));
+    }
+
+    private ResultadoImportacion importarSociosSinMedir(Reader origen, FormatoIntercambio formato) throws IOException {
+        ResultadoImportacion resultado = new ResultadoImportacion();
+        Set<String> cedulasDelArchivo = new HashSet<>();
+        List<ImportadorMasivo.Fila<Socio>> validas = new ArrayList<>();
+
+        ImportadorMasivo.procesar(enBuffer(origen), formato, ImportadorMasivo.COLUMNAS_SOCIO,
+                ImportadorMasivo.socio(this::existeCedula), fila -> {
+                    resultado.contarLeido();
+                    if (fila.error != null) {
+                        resultado.rechazar(fila.linea, fila.error);
+                    } else if (!cedulasDelArchivo.add(fila.valor.getCedula())) {
+                        resultado.rechazar(fila.linea, "Cédula " + fila.valor.getCedula() + " repetida en el archivo.");
+                    } else {
+                        validas.add(fila);
+                    }
+                });
+
+        List<Socio> agregados = new ArrayList<>(validas.size());
+        importarLote(() -> {
+            for (ImportadorMasivo.Fila<Socio> fila : validas) {
+                try {
+                    // Vuelve a validar: otro hilo pudo registrar la misma cédula durante la lectura
+                    if (socios.agregar(fila.valor)) {
+                        agregados.add(fila.valor);
+                        resultado.contarAceptado();
+                    } else {
+                        resultado.rechazar(fila.linea, "El socio con cédula " + fila.valor.getCedula() + " ya existe.");
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Almacén mapeado: cédula o nombre más largos de lo que admite el registro
+                    resultado.rechazar(fila.linea, e.getMessage());
+                }
+            }
+        }, !validas.isEmpty());
+
+        for (Socio socio : agregados) {
+            indexarBusqueda(socio);
+            indexarVencimiento(socio);
+        }
+        return resultado;
+    }
+
+    /**
+     * Importa clases desde un CSV (nombre,horario,capacidad) o NDJSON con esos campos, en un solo
+     * lote y con una única escritura. La columna reservas de las exportaciones se ignora.
+     * @throws IOException Si no se puede leer el origen o guardar la instantánea.
+     */
+    public ResultadoImportacion importarClases(Reader origen, FormatoIntercambio formato) throws IOException {
+        Medicion medicion = Metricas.iniciar("servicio.importarClases");
+        try {
+            ResultadoImportacion resultado = importarClasesSinMedir(origen, formato);
+            medicion.registros(resultado.getAceptados()).completada();
+            Metricas.contar("rechazos.servicio.importarClases", resultado.getRechazos().size());
+            return resultado;
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    private ResultadoImportacion importarClasesSinMedir(Reader origen, FormatoIntercambio formato) throws IOException {
+        ResultadoImportacion resultado = new ResultadoImportacion();
+        List<ClaseGrupal> validas = new ArrayList<>();
+
+        ImportadorMasivo.procesar(enBuffer(origen), formato, ImportadorMasivo.COLUMNAS_CLASE,
+                ImportadorMasivo.clase(), fila -> {
+                    resultado.contarLeido();
+                    if (fila.error != null) {
+                        resultado.rechazar(fila.linea, fila.error);
+                    } else {
+                        validas.add(fila.valor);
+                    }
+                });
+
+        importarLote(() -> {
+            for (ClaseGrupal clase : validas) {
+                clases.agregar(clase);
+                resultado.contarAceptado();
+            }
+        }, !validas.isEmpty());
+
+        for (ClaseGrupal clase : validas) {
+            registrarOcupacion(clase);
+        }
+        return resultado;
+    }
+
+    /**
+     * Aplica el lote y guarda la instantánea en la misma sección crítica, así ningún cambio del
+     * diario queda ordenado antes del lote. Si el guardado falla, el lote queda en memoria y se
+     * reintenta con el guardado diferido. El lote no pasa por el diario: la instantánea se confirma
+     * como un conjunto, así que una caída deja el lote entero o ninguna parte de él.
+     */
+    private void importarLote(Runnable lote, boolean hayCambios) throws IOException {
+        if (!hayCambios) {
+            return;
+        }
+        try {
+            guardarInstantanea(lote::run);
+        } catch (IOException e) {
+            guardadoDiferido.solicitar();
+            throw e;
+        } finally {
+            publicarRecarga();
+        }
+    }
+
+    /**
+     * Exporta los socios (cedula,nombre,vencimiento) escribiendo uno por línea, sin armar el
+     * archivo completo en memoria.
+     * @return Cantidad de socios exportados.
+     */
+    public int exportarSocios(Writer destino, FormatoIntercambio formato) throws IOException {
+        Medicion medicion = Metricas.iniciar("servicio.exportarSocios");
+        try {
+            int cantidad = ImportadorMasivo.exportar(socios.getTodos(), enBuffer(destino), formato,
+                    ImportadorMasivo.COLUMNAS_SOCIO, ImportadorMasivo::valores);
+            medicion.registros(cantidad).completada();
+            return cantidad;
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    /**
+     * Exporta las clases (nombre,horario,capacidad,reservas) escribiendo una por línea.
+     * @return Cantidad de clases exportadas.
+     */
+    public int exportarClases(Writer destino, FormatoIntercambio formato) throws IOException {
+        Medicion medicion = Metricas.iniciar("servicio.exportarClases");
+        try {
+            int cantidad = ImportadorMasivo.exportar(clases.getTodas(), enBuffer(destino), formato,
+                    ImportadorMasivo.COLUMNAS_CLASE, ImportadorMasivo::valores);
+            medicion.registros(cantidad).completada();
+            return cantidad;
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    private static BufferedReader enBuffer(Reader origen) {
+        return origen instanceof BufferedReader br ? br : new BufferedReader(origen, 1 << 16);
+    }
+
+    private static Writer enBuffer(Writer destino) {
+        return destino instanceof BufferedWriter ? destino : new BufferedWriter(destino, 1 << 16);
+    }
+
+    // --- Archivo histórico (clases pasadas y socios vencidos) ---
+
+    /**
+     * Pasa al archivo histórico las clases anteriores a hoy y los socios vencidos hace más de un
+     * año (sin reservas en clases que sigan en memoria). Lo hace el barrido diario; se puede llamar
+     * para forzarlo.
+     * @throws IOException Si no se puede escribir el archivo histórico o la instantánea.
+     */
+    public ResultadoArchivado archivarHistorico() throws IOException {
+        LocalDate hoy = DiaActual.hoy();
+        return archivarHistorico(hoy.atStartOfDay(), hoy.minusDays(DIAS_RETENCION_SOCIOS));
+    }
+
+    /**
+     * Pasa al archivo histórico las clases con horario anterior a {@code clasesAntesDe} y los socios
+     * que vencieron antes de {@code vencidosAntesDe}. Primero se agregan al archivo (forzado a disco)
+     * y después se quitan de la memoria guardando la instantánea en la misma sección crítica.
+     * Si el proceso se interrumpe entre ambos pasos, el próximo archivado los vuelve a agregar y las
+     * consultas se quedan con la última copia. Los archivos de la instantánea se confirman como un
+     * conjunto ({@link GestorArchivos#confirmarConjunto}), nunca clases quitadas con sus reservas
+     * todavía presentes, y la baja queda también en el diario: reproducirlo después de una caída no
+     * devuelve a memoria lo que ya se archivó.
+     * @throws IOException Si no se puede escribir el archivo histórico o la instantánea.
+     */
+    public ResultadoArchivado archivarHistorico(LocalDateTime clasesAntesDe, LocalDate vencidosAntesDe) throws IOException {
+        Medicion medicion = Metricas.iniciar("servicio.archivarHistorico");
+        try {
+            ResultadoArchivado resultado = archivarHistoricoSinMedir(clasesAntesDe, vencidosAntesDe);
+            medicion.registros(resultado.getClases() + resultado.getSocios()).completada();
+            Metricas.contar("historico.clasesArchivadas", resultado.getClases());
+            Metricas.contar("historico.sociosArchivados", resultado.getSocios());
+            return resultado;
+        } finally {
+            medicion.terminar();
+        }
+    }
+
+    private ResultadoArchivado archivarHistoricoSinMedir(LocalDateTime clasesAntesDe, LocalDate vencidosAntesDe) throws IOException {
+        ResultadoArchivado resultado = new ResultadoArchivado();
+        if (historico == null) {
+            return resultado;
+        }
+        synchronized (bloqueoArchivado) {
+            // Clases ya dictadas, con los socios que las reservaron en este momento
+            Map<UUID, Set<UUID>> asistentesPorClase = new HashMap<>();
+            Map<UUID, ClaseGrupal> candidatas = new HashMap<>();
+            List<ArchivoHistorico.ClaseArchivada> clasesArchivadas = new ArrayList<>();
+            for (ClaseGrupal clase : clases.buscarEntre(LocalDateTime.MIN, clasesAntesDe)) {
+                Set<UUID> asistentes = new HashSet<>(reservas.getSociosDeClase(clase.getId()));
+                asistentesPorClase.put(clase.getId(), asistentes);
+                candidatas.put(clase.getId(), clase);
+                clasesArchivadas.add(new ArchivoHistorico.ClaseArchivada(clase, asistentes));
+            }
+
+            // El almacén mapeado no admite bajas: en ese modo los socios quedan donde están
+            List<Socio> sociosArchivados = new ArrayList<>();
+            if (socios instanceof SocioRepositoryMemoria) {
+                List<UUID> vencidos = getVencimientos().vencenEntre(LocalDate.MIN, vencidosAntesDe.minusDays(1), Integer.MAX_VALUE);
+                for (Socio socio : materializarSocios(vencidos)) {
+                    if (asistentesPorClase.keySet().containsAll(reservas.getClasesDeSocio(socio.getId()))) {
+                        sociosArchivados.add(socio);
+                    }
+                }
+            }
+            if (clasesArchivadas.isEmpty() && sociosArchivados.isEmpty()) {
+                return resultado;
+            }
+
+            historico.agregar(clasesArchivadas, sociosArchivados);
+
+            List<Socio> quitados = new ArrayList<>();
+            Set<UUID> idsClases = new HashSet<>();
+            List<ClaseGrupal> clasesQuitadas = new ArrayList<>();
+            try {
+                guardarInstantanea(() -> {
+                    // Lo que cambió mientras se escribía el archivo queda para el próximo archivado
+                    asistentesPorClase.forEach((claseId, asistentes) -> {
+                        if (asistentes.equals(reservas.getSociosDeClase(claseId))) {
+                            idsClases.add(claseId);
+                        }
+                    });
+                    // Un socio se archiva si todas sus reservas son de clases que se quitan ahora
+                    Set<UUID> idsSocios = new HashSet<>();
+                    List<Socio> sociosQuitables = new ArrayList<>();
+                    for (Socio socio : sociosArchivados) {
+                        if (socio.getFechaVencimiento().isBefore(vencidosAntesDe)
+                                && idsClases.containsAll(reservas.getClasesDeSocio(socio.getId()))) {
+                            idsSocios.add(socio.getId());
+                            sociosQuitables.add(socio);
+                        }
+                    }
+                    if (idsClases.isEmpty() && idsSocios.isEmpty()) {
+                        return;
+                    }
+
+                    // Antes de quitarlos: si el registro falla, todo queda como estaba. Si la
+                    // aplicación se cae entre confirmar la instantánea y descartar el segmento
+                    // anterior, al reproducirlo este registro los vuelve a quitar
+                    registrarEnDiario(d -> d.registrarArchivado(idsClases, idsSocios));
+
+                    resultado.contarClases(clases.eliminar(idsClases));
+                    for (UUID claseId : idsClases) {
+                        reservas.eliminarClase(claseId);
+                        clasesQuitadas.add(candidatas.get(claseId));
+                    }
+                    if (!idsSocios.isEmpty()) {
+                        resultado.contarSocios(((SocioRepositoryMemoria) socios).eliminar(idsSocios));
+                        quitados.addAll(sociosQuitables);
+                    }
+                });
+            } catch (IOException e) {
+                guardadoDiferido.solicitar();
+                throw e;
+            } finally {
+                quitarDeIndices(quitados, clasesQuitadas);
+                publicarRecarga();
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Quita los socios y las clases archivadas de los índices perezosos. La ocupación al día
+     * resta lo que aportaron las clases: cuenta solo las que siguen en memoria, igual que al
+     * recalcularla después de reabrir.
+     */
+    private void quitarDeIndices(List<Socio> quitados, List<ClaseGrupal> clasesQuitadas) {
+        cambiarBuscador(b -> quitados.forEach(b::quitar));
+        synchronized (bloqueoVencimientos) {
+            if (vencimientos != null) {
+                quitados.forEach(socio -> vencimientos.quitar(socio.getId()));
+            }
+        }
+        synchronized (bloqueoOcupacion) {
+            if (ocupacion != null) {
+                ocupacion.quitar(clasesQuitadas);
+            }
+        }
+    }
+
+    /**
+     * Archiva en el hilo del barrido diario, sin demorar a quien lo pide (por ejemplo, al abrir la
+     * aplicación, que en una recepción se cierra todas las noches y no llega al barrido).
+     */
+    public void archivarEnSegundoPlano() {
+        barridoVencimientos.ejecutar(this::archivarSilencioso);
+    }
+
+    private void archivarSilencioso() {
+        try {
+            ResultadoArchivado resultado = archivarHistorico();
+            if (resultado.getClases() + resultado.getSocios() > 0) {
+                System.out.println("Archivado histórico: " + resultado);
+            }
+        } catch (IOException e) {
+            System.err.println("Error archivando el histórico: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Si alguna vez se archivó algo (por ejemplo, para no volver a cargar datos de ejemplo).
+     */
+    public boolean tieneHistorial() {
+        return historico != null && historico.tieneDatos();
+    }
+
+    /**
+     * Clases del rango [desde, hasta), de la memoria y del archivo histórico, ordenadas por
+     * horario (reportes). Solo se descomprimen los segmentos del archivo que cubren el rango.
+     * @throws IOException Si no se puede leer el archivo histórico.
+     */
+    public List<ClaseGrupal> getHistorialClases(LocalDateTime desde, LocalDateTime hasta) throws IOException {
+        Map<UUID, ClaseGrupal> porId = new LinkedHashMap<>();
+        if (historico != null) {
+            for (ArchivoHistorico.ClaseArchivada archivada : historico.clasesEntre(desde, hasta)) {
+                porId.put(archivada.getClase().getId(), archivada.getClase());
+            }
+        }
+        // Si una clase está en ambos lados (archivado interrumpido), vale la de memoria
+        for (ClaseGrupal clase : clases.buscarEntre(desde, hasta)) {
+            porId.put(clase.getId(), clase);
+        }
+        List<ClaseGrupal> resultado = new ArrayList<>(porId.values());
+        resultado.sort(Comparator.comparing(ClaseGrupal::getHorario));
+        return resultado;
+    }
+
+    /**
+     * Todas las clases que reservó un socio, archivadas o no, ordenadas por horario.
+     * @throws IOException Si no se puede leer el archivo histórico.
+     */
+    public List<ClaseGrupal> getHistorialDeSocio(Socio socio) throws IOException {
+        Map<UUID, ClaseGrupal> porId = new LinkedHashMap<>();
+        if (historico != null) {
+            for (ArchivoHistorico.ClaseArchivada archivada : historico.clasesDeSocio(socio.getId())) {
+                porId.put(archivada.getClase().getId(), archivada.getClase());
+            }
+        }
+        for (UUID claseId : reservas.getClasesDeSocio(socio.getId())) {
+            clases.buscarPorId(claseId).ifPresent(clase -> porId.put(claseId, clase));
+        }
+        List<ClaseGrupal> resultado = new ArrayList<>(porId.values());
+        resultado.sort(Comparator.comparing(ClaseGrupal::getHorario));
+        return resultado;
+    }
+
+    /**
+     * Las cédulas de los socios archivados (para la unicidad entre sedes).
+     */
+    public Set<String> getCedulasArchivadas() {
+        return historico != null ? historico.getCedulas() : Set.of();
+    }
+
+    /**
+     * Busca el socio por cédula en memoria y, si no está, en el archivo histórico.
+     * @throws IOException Si no se puede leer el archivo histórico.
+     */
+    public Optional<Socio> buscarSocioEnHistorial(String cedula) throws IOException {
+        Optional<Socio> activo = socios.buscarPorCedula(cedula);
+        if (activo.isPresent() || historico == null) {
+            return activo;
+        }
+        return historico.buscarSocioPorCedula(cedula);
+    }
+
+    /**
+     * Ocupación de las clases del rango, incluidas las archivadas. El tablero cuenta solo las clases
+     * en memoria (al archivar una, deja de sumar); esta consulta es para los reportes de períodos
+     * pasados.
+     * @throws IOException Si no se puede leer el archivo histórico.
+     */
+    public AgregadosOcupacion getOcupacionHistorica(LocalDateTime desde, LocalDateTime hasta) throws IOException {
+        return AgregadosOcupacion.recalcular(getHistorialClases(desde, hasta));
+    }
+
+    // --- Persistencia incremental ---
+
+    private interface Registro {
+        void escribir(DiarioCambios diario) throws IOException;
+    }
+
+    /**
+     * Agrega la mutación al diario (costo proporcional al cambio, no al total de datos).
+     * Debe llamarse con el bloqueo de lectura tomado, justo después de aplicar el cambio en memoria.
+     */
+    private void registrarEnDiario(Registro registro) throws IOException {
+        if (diario != null) {
+            registro.escribir(diario);
+        }
+    }
+
+    /**
+     * Sin diario disponible pide una instantánea completa; con diario, solo cuando supera el umbral.
+     * En ambos casos el guardado ocurre en segundo plano y agrupa las solicitudes de la ráfaga.
+     * Se llama fuera del bloqueo de lectura.
+     */
+    private void compactarSiNecesario() {
+        if (diario == null || diario.getRegistros() >= UMBRAL_COMPACTACION) {
+            guardadoDiferido.solicitar();
+        }
+    }
+
+    /**
+     * Aplica los registros del diario sobre los repositorios cargados de la instantánea.
+     * Cada operación es idempotente (ver {@link DiarioCambios.Aplicador}).
      */
-    public void realizarReserva(Socio socio, ClaseGrupal clase) throws Exception {
-        // RN01: Acceso Denegado (Membresía activa)
-        if (!socio.esActivo()) {
-            throw new Exception("Acceso Denegado: La membresía del socio está vencida. Renueve el plan.");
+    private class AplicadorDiario implements DiarioCambios.Aplicador {
+
+        // Clases con reservas o cancelaciones en el diario
+        private final Set<UUID> clasesTocadas = new HashSet<>();
+
+        /**
+         * Deja el contador de cada clase tocada igual a su roster. Las reservas concurrentes pueden
+         * quedar en el diario fuera de orden respecto de las cancelaciones, así que los contadores
+         * registrados no son confiables: el roster reconstruido sí.
+         */
+        void recontarReservas() {
+            for (UUID claseId : clasesTocadas) {
+                clases.buscarPorId(claseId).ifPresent(c ->
+                        c.setReservasActuales(reservas.getSociosDeClase(claseId).size()));
+            }
+        }
+
+        @Override
+        public void socioRegistrado(Socio socio) {
+            socios.agregar(socio);
+        }
+
+        @Override
+        public void membresiaRenovada(UUID socioId, LocalDate nuevoVencimiento) {
+            socios.buscarPorId(socioId).ifPresent(s -> {
+                s.setFechaVencimiento(nuevoVencimiento);
+                socios.actualizar(s);
+            });
+        }
+
+        @Override
+        public void claseCreada(ClaseGrupal clase) {
+            clases.agregar(clase);
+        }
+
+        @Override
+        public void reservaRealizada(UUID claseId, UUID socioId, int reservasActuales) {
+            // El contador se recalcula al terminar la reproducción (ver recontarReservas)
+            reservas.agregar(socioId, claseId);
+            clasesTocadas.add(claseId);
+        }
+
+        @Override
+        public void reservaCancelada(UUID claseId, UUID socioId) {
+            // Reproducirlo dos veces no resta de más: el contador sale del roster
+            reservas.eliminar(socioId, claseId);
+            clasesTocadas.add(claseId);
         }
 
-        // RN02: Control de Aforo
-        if (!clase.hayCupo()) {
-            throw new Exception("Control de Aforo: La clase no tiene cupos disponibles (Clase Llena).");
+        @Override
+        public void esperaAgregada(UUID claseId, UUID socioId) {
+            clases.buscarPorId(claseId).ifPresent(c -> c.getListaEspera().agregar(socioId, Integer.MAX_VALUE));
         }
 
-        // Si ambas validaciones pasan, se realiza la reserva
-        clase.agregarReserva();
-        guardarCambios();
+        @Override
+        public void esperaRetirada(UUID claseId, UUID socioId) {
+            clases.buscarPorId(claseId).ifPresent(c -> c.getListaEspera().quitar(socioId));
+        }
+
+        @Override
+        public void plantillaCreada(PlantillaClase plantilla) {
+            plantillas.agregar(plantilla);
+        }
+
+        @Override
+        public void cupoAmpliado(UUID claseId, int capacidadMaxima) {
+            clases.buscarPorId(claseId).ifPresent(c ->
+                    c.setCapacidadMaxima(Math.max(c.getCapacidadMaxima(), capacidadMaxima)));
+        }
+
+        @Override
+        public void archivado(List<UUID> claseIds, List<UUID> socioIds) {
+            // Ya están en el archivo histórico; lo anterior del segmento pudo volver a crearlos
+            clases.eliminar(new HashSet<>(claseIds));
+            for (UUID claseId : claseIds) {
+                reservas.eliminarClase(claseId);
+            }
+            if (socios instanceof SocioRepositoryMemoria memoria) {
+                memoria.eliminar(new HashSet<>(socioIds));
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package co.fitlife.services;
+
+import co.fitlife.metricas.Metricas;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guardado diferido (write-behind): las mutaciones solo piden un guardado y un hilo de fondo
+ * agrupa todas las solicitudes de una ráfaga en una sola escritura.
+ *
+ * Garantía de antigüedad: la primera solicitud de una ráfaga programa el guardado para dentro de
+ * {@code retrasoMaximoMs}; todo lo solicitado hasta entonces se guarda en esa misma escritura.
+ */
+public class GuardadoDiferido {
+
+    /**
+     * La operación de guardado que se ejecuta en segundo plano.
+     */
+    public interface Tarea {
+        void guardar() throws IOException;
+    }
+
+    private final Tarea tarea;
+    private final long retrasoMaximoMs;
+    private final ScheduledExecutorService ejecutor;
+
+    // Estado de la ráfaga actual
+    private int solicitudesPendientes;
+
+    // Métricas
+    private long guardados;
+    private long fallidos;
+    private long latenciaTotalNanos;
+    private long latenciaMaximaNanos;
+    private long ultimaLatenciaNanos;
+    private long solicitudesAgrupadas;
+    private int loteMaximo;
+
+    /**
+     * @param tarea La operación de guardado.
+     * @param retrasoMaximoMs Tiempo máximo entre una solicitud y el inicio del guardado que la incluye.
+     */
+    public GuardadoDiferido(Tarea tarea, long retrasoMaximoMs) {
+        this.tarea = tarea;
+        this.retrasoMaximoMs = retrasoMaximoMs;
+        this.ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "guardado-diferido");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Pide un guardado. Retorna de inmediato; la escritura ocurre en segundo plano.
+     */
+    public synchronized void solicitar() {
+        if (solicitudesPendientes++ == 0) {
+            programar();
+        }
+    }
+
+    /**
+     * Ejecuta ya el guardado pendiente (si hay) y espera a que termine.
+     * @throws IOException Si el guardado falla.
+     */
+    public void vaciar() throws IOException {
+        Future<?> resultado = ejecutor.submit(() -> {
+            ejecutar();
+            return null;
+        });
+        try {
+            resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Guardado interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error en el guardado diferido: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Vacía lo pendiente y detiene el hilo de fondo. Llamar al cerrar la aplicación.
+     */
+    public void cerrar() throws IOException {
+        try {
+            vaciar();
+        } finally {
+            ejecutor.shutdown();
+        }
+    }
+
+    // --- Métricas ---
+
+    public synchronized long getGuardados() { return guardados; }
+    public synchronized long getFallidos() { return fallidos; }
+    public synchronized long getUltimaLatenciaMs() { return TimeUnit.NANOSECONDS.toMillis(ultimaLatenciaNanos); }
+    public synchronized long getLatenciaMaximaMs() { return TimeUnit.NANOSECONDS.toMillis(latenciaMaximaNanos); }
+    public synchronized double getLatenciaPromedioMs() {
+        return guardados == 0 ? 0 : latenciaTotalNanos / 1_000_000.0 / guardados;
+    }
+    public synchronized int getLoteMaximo() { return loteMaximo; }
+    public synchronized double getLotePromedio() {
+        return guardados == 0 ? 0 : (double) solicitudesAgrupadas / guardados;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("guardados=%d fallidos=%d latencia(ms) última=%d prom=%.1f máx=%d lote prom=%.1f máx=%d",
+                guardados, fallidos, getUltimaLatenciaMs(), getLatenciaPromedioMs(), getLatenciaMaximaMs(),
+                getLotePromedio(), loteMaximo);
+    }
+
+    // --- Ejecución en el hilo de fondo ---
+
+    private void programar() {
+        // Tras cerrar, lo pendiente ya se vació en cerrar(); no hay hilo al que delegar
+        if (!ejecutor.isShutdown()) {
+            ejecutor.schedule(() -> {
+                ejecutar();
+                return null;
+            }, retrasoMaximoMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void ejecutar() throws IOException {
+        int lote;
+        synchronized (this) {
+            lote = solicitudesPendientes;
+            solicitudesPendientes = 0;
+        }
+        if (lote == 0) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            tarea.guardar();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error en el guardado diferido, se reintentará: " + e.getMessage());
+            // Se vuelven a marcar como pendientes para reintentar en la próxima ventana
+            synchronized (this) {
+                fallidos++;
+                Metricas.contar("guardadoDiferido.fallidos", 1);
+                if (solicitudesPendientes == 0) {
+                    programar();
+                }
+                solicitudesPendientes += lote;
+            }
+            throw e;
+        }
+        long latencia = System.nanoTime() - inicio;
+
+        synchronized (this) {
+            guardados++;
+            ultimaLatenciaNanos = latencia;
+            latenciaTotalNanos += latencia;
+            latenciaMaximaNanos = Math.max(latenciaMaximaNanos, latencia);
+            solicitudesAgrupadas += lote;
+            loteMaximo = Math.max(loteMaximo, lote);
+        }
+        Metricas.contar("guardadoDiferido.solicitudesAgrupadas", lote);
+    }
+}
\ No newline at end of file
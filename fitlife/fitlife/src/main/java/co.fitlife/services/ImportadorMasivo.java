@@ -0,0 +1,206 @@
+package co.fitlife.services;
+
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.Socio;
+import co.fitlife.persistence.FormatoIntercambio;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Lectura y validación de archivos de importación (CSV o NDJSON) y escritura de exportaciones.
+ *
+ * El archivo se lee por bloques de líneas: cada bloque se interpreta y valida en paralelo y los
+ * resultados se entregan en el orden del archivo, así nunca se tiene el texto completo en memoria.
+ */
+final class ImportadorMasivo {
+
+    static final String[] COLUMNAS_SOCIO = {"cedula", "nombre", "vencimiento"};
+    // La columna reservas solo se exporta (informativa); al importar se ignora
+    static final String[] COLUMNAS_CLASE = {"nombre", "horario", "capacidad", "reservas"};
+
+    private static final int LINEAS_POR_BLOQUE = 8192;
+
+    /**
+     * Resultado de interpretar una línea: el valor o el motivo del rechazo.
+     */
+    static final class Fila<T> {
+        final int linea;
+        final T valor;
+        final String error;
+
+        private Fila(int linea, T valor, String error) {
+            this.linea = linea;
+            this.valor = valor;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Convierte los campos de un registro en una entidad.
+     * Lanza IllegalArgumentException con el motivo si el registro no es válido.
+     */
+    interface Conversor<T> {
+        T convertir(Map<String, String> campos);
+    }
+
+    private ImportadorMasivo() {
+    }
+
+    /**
+     * Lee todo el origen, valida cada bloque en paralelo y entrega las filas en orden de línea.
+     * Las líneas en blanco y la cabecera (CSV) se saltan.
+     */
+    static <T> void procesar(BufferedReader origen, FormatoIntercambio formato, String[] columnas,
+                             Conversor<T> conversor, Consumer<Fila<T>> destino) throws IOException {
+        List<String> textos = new ArrayList<>(LINEAS_POR_BLOQUE);
+        List<Integer> numeros = new ArrayList<>(LINEAS_POR_BLOQUE);
+        int numero = 0;
+        String linea;
+        while ((linea = origen.readLine()) != null) {
+            numero++;
+            if (linea.isBlank() || (numero == 1 && formato.esCabecera(linea, columnas))) {
+                continue;
+            }
+            textos.add(linea);
+            numeros.add(numero);
+            if (textos.size() == LINEAS_POR_BLOQUE) {
+                validarBloque(textos, numeros, formato, columnas, conversor, destino);
+                textos.clear();
+                numeros.clear();
+            }
+        }
+        validarBloque(textos, numeros, formato, columnas, conversor, destino);
+    }
+
+    private static <T> void validarBloque(List<String> textos, List<Integer> numeros, FormatoIntercambio formato,
+                                          String[] columnas, Conversor<T> conversor, Consumer<Fila<T>> destino) {
+        List<Fila<T>> filas = new ArrayList<>(textos.size());
+        // El stream paralelo conserva el orden de encuentro al recolectar
+        IntStream.range(0, textos.size()).parallel()
+                .mapToObj(i -> interpretar(textos.get(i), numeros.get(i), formato, columnas, conversor))
+                .forEachOrdered(filas::add);
+        filas.forEach(destino);
+    }
+
+    private static <T> Fila<T> interpretar(String texto, int linea, FormatoIntercambio formato,
+                                           String[] columnas, Conversor<T> conversor) {
+        try {
+            return new Fila<>(linea, conversor.convertir(formato.leer(texto, columnas)), null);
+        } catch (IllegalArgumentException e) {
+            return new Fila<>(linea, null, e.getMessage());
+        }
+    }
+
+    // --- Conversores ---
+
+    /**
+     * Socio a partir de cédula y nombre (obligatorios) y vencimiento (opcional, AAAA-MM-DD;
+     * si falta, la membresía inicial de 30 días).
+     * @param existeCedula Validación de unicidad contra los socios ya registrados (RF01).
+     */
+    static Conversor<Socio> socio(Predicate<String> existeCedula) {
+        return campos -> {
+            String cedula = obligatorio(campos, "cedula");
+            String nombre = obligatorio(campos, "nombre");
+            if (existeCedula.test(cedula)) {
+                throw new IllegalArgumentException("El socio con cédula " + cedula + " ya existe.");
+            }
+            String vencimiento = opcional(campos, "vencimiento");
+            if (vencimiento == null) {
+                return new Socio(cedula, nombre);
+            }
+            try {
+                return new Socio(UUID.randomUUID(), cedula, nombre, LocalDate.parse(vencimiento));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Vencimiento inválido (use AAAA-MM-DD): " + vencimiento);
+            }
+        };
+    }
+
+    /**
+     * Clase a partir de nombre, horario (AAAA-MM-DDTHH:MM, también con espacio) y capacidad positiva.
+     */
+    static Conversor<ClaseGrupal> clase() {
+        return campos -> {
+            String nombre = obligatorio(campos, "nombre");
+            String horarioTexto = obligatorio(campos, "horario");
+            String capacidadTexto = obligatorio(campos, "capacidad");
+            LocalDateTime horario;
+            try {
+                horario = LocalDateTime.parse(horarioTexto.replace(' ', 'T'));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Horario inválido (use AAAA-MM-DDTHH:MM): " + horarioTexto);
+            }
+            int capacidad;
+            try {
+                capacidad = Integer.parseInt(capacidadTexto);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("La capacidad debe ser un número entero: " + capacidadTexto);
+            }
+            if (capacidad <= 0) {
+                throw new IllegalArgumentException("La capacidad debe ser positiva.");
+            }
+            return new ClaseGrupal(nombre, horario, capacidad);
+        };
+    }
+
+    private static String obligatorio(Map<String, String> campos, String columna) {
+        String valor = opcional(campos, columna);
+        if (valor == null) {
+            throw new IllegalArgumentException("Falta el campo obligatorio " + columna + ".");
+        }
+        return valor;
+    }
+
+    private static String opcional(Map<String, String> campos, String columna) {
+        String valor = campos.get(columna);
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        return valor.trim();
+    }
+
+    // --- Exportación ---
+
+    /**
+     * Escribe un registro por línea a medida que recorre los elementos.
+     * @return Cantidad de registros escritos.
+     */
+    static <T> int exportar(Iterable<T> elementos, Writer destino, FormatoIntercambio formato, String[] columnas,
+                            Function<T, Object[]> valores) throws IOException {
+        String cabecera = formato.cabecera(columnas);
+        if (cabecera != null) {
+            destino.write(cabecera);
+            destino.write('\n');
+        }
+        int cantidad = 0;
+        for (T elemento : elementos) {
+            destino.write(formato.escribir(columnas, valores.apply(elemento)));
+            destino.write('\n');
+            cantidad++;
+        }
+        destino.flush();
+        return cantidad;
+    }
+
+    static Object[] valores(Socio socio) {
+        return new Object[]{socio.getCedula(), socio.getNombre(), socio.getFechaVencimiento().toString()};
+    }
+
+    static Object[] valores(ClaseGrupal clase) {
+        return new Object[]{clase.getNombreClase(), clase.getHorario().toString(), clase.getCapacidadMaxima(),
+                clase.getReservasActuales()};
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package co.fitlife.services;
+
+/**
+ * Modo de almacenamiento de los socios en GimnasioService.
+ */
+public enum ModoAlmacen {
+
+    // Todos los socios en el heap, instantánea en socios.dat (modo por defecto)
+    MEMORIA,
+
+    // Archivo de registros de ancho fijo mapeado en memoria; arranque constante y carga perezosa
+    MAPEADO;
+
+    /**
+     * Lee el modo desde la propiedad del sistema fitlife.almacen (ej: -Dfitlife.almacen=mapeado).
+     */
+    public static ModoAlmacen desdePropiedades() {
+        String valor = System.getProperty("fitlife.almacen", "memoria");
+        return valor.equalsIgnoreCase("mapeado") ? MAPEADO : MEMORIA;
+    }
+}
\ No newline at end of file
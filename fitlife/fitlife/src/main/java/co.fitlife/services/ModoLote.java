@@ -0,0 +1,13 @@
+package co.fitlife.services;
+
+/**
+ * Qué hacer con un lote de reservas cuando alguno de sus pares es rechazado.
+ */
+public enum ModoLote {
+
+    // Un solo rechazo cancela el lote completo (por ejemplo, un grupo que asiste junto o no asiste)
+    TODO_O_NADA,
+
+    // Se confirman los pares aceptados y se informan los rechazados
+    PARCIAL
+}
\ No newline at end of file
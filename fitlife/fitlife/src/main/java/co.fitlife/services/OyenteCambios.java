@@ -0,0 +1,41 @@
+package co.fitlife.services;
+
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.Socio;
+import java.util.List;
+
+/**
+ * Recibe los cambios que publica GimnasioService, para que la interfaz (u otro consumidor)
+ * aplique solo el delta en lugar de recargar todas las listas.
+ * Se invoca en el hilo que hizo el cambio, después de persistirlo.
+ */
+public interface OyenteCambios {
+
+    enum TipoCambio { AGREGADO, ACTUALIZADO, ELIMINADO }
+
+    default void socioCambiado(TipoCambio tipo, Socio socio) {
+    }
+
+    default void claseCambiada(TipoCambio tipo, ClaseGrupal clase) {
+    }
+
+    /**
+     * Un socio de la lista de espera obtuvo un cupo que se liberó o se agregó en la clase.
+     */
+    default void esperaPromovida(ClaseGrupal clase, Socio socio) {
+    }
+
+    /**
+     * Cambios masivos (por ejemplo, una importación): conviene volver a leer las listas completas
+     * en lugar de recibir un evento por elemento.
+     */
+    default void datosRecargados() {
+    }
+
+    /**
+     * Socios cuya membresía venció desde el último barrido diario (ver {@link BarridoVencimientos}).
+     * Se invoca en el hilo del barrido.
+     */
+    default void membresiasVencidas(List<Socio> vencidos) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package co.fitlife.services;
+
+/**
+ * Una operación rechazada por una regla de negocio. El mensaje es el que se muestra al usuario;
+ * la regla permite reaccionar distinto a cada caso (por ejemplo, el código HTTP de la API).
+ */
+public class ReglaNegocioException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Regla {
+        // RF01: la cédula ya está registrada
+        CEDULA_DUPLICADA("RF01"),
+        // RN01: membresía vencida
+        MEMBRESIA_VENCIDA("RN01"),
+        // RN02: la clase no tiene cupos
+        CLASE_LLENA("RN02"),
+        // El socio ya tenía un cupo en la clase
+        RESERVA_DUPLICADA("DUPLICADA");
+
+        private final String codigo;
+
+        Regla(String codigo) {
+            this.codigo = codigo;
+        }
+
+        /**
+         * Código de la regla en el documento de requisitos (RF01, RN01, RN02...).
+         */
+        public String getCodigo() {
+            return codigo;
+        }
+    }
+
+    private final Regla regla;
+
+    public ReglaNegocioException(Regla regla, String mensaje) {
+        super(mensaje);
+        this.regla = regla;
+    }
+
+    public Regla getRegla() {
+        return regla;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package co.fitlife.services;
+
+/**
+ * Resumen de un archivado: cuántas clases y socios pasaron de la memoria al archivo histórico.
+ */
+public class ResultadoArchivado {
+
+    private int clases;
+    private int socios;
+
+    void contarClases(int cantidad) {
+        clases += cantidad;
+    }
+
+    void contarSocios(int cantidad) {
+        socios += cantidad;
+    }
+
+    public int getClases() { return clases; }
+    public int getSocios() { return socios; }
+
+    @Override
+    public String toString() {
+        return "clases=" + clases + " socios=" + socios;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package co.fitlife.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva: registros leídos, aceptados y el detalle de cada rechazo.
+ */
+public class ResultadoImportacion {
+
+    /**
+     * Una fila rechazada, con su número de línea en el archivo (la primera línea es la 1).
+     */
+    public static class Rechazo {
+        private final int linea;
+        private final String motivo;
+
+        public Rechazo(int linea, String motivo) {
+            this.linea = linea;
+            this.motivo = motivo;
+        }
+
+        public int getLinea() { return linea; }
+        public String getMotivo() { return motivo; }
+
+        @Override
+        public String toString() {
+            return "línea " + linea + ": " + motivo;
+        }
+    }
+
+    private int leidos;
+    private int aceptados;
+    private final List<Rechazo> rechazos = new ArrayList<>();
+
+    void contarLeido() {
+        leidos++;
+    }
+
+    void contarAceptado() {
+        aceptados++;
+    }
+
+    void rechazar(int linea, String motivo) {
+        rechazos.add(new Rechazo(linea, motivo));
+    }
+
+    public int getLeidos() { return leidos; }
+    public int getAceptados() { return aceptados; }
+
+    /**
+     * Las filas rechazadas, ordenadas por número de línea.
+     */
+    public List<Rechazo> getRechazos() {
+        List<Rechazo> ordenados = new ArrayList<>(rechazos);
+        ordenados.sort((a, b) -> Integer.compare(a.linea, b.linea));
+        return Collections.unmodifiableList(ordenados);
+    }
+
+    @Override
+    public String toString() {
+        return "leídos=" + leidos + " aceptados=" + aceptados + " rechazados=" + rechazos.size();
+    }
+}
\ No newline at end of file
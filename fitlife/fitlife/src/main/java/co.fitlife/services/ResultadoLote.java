@@ -0,0 +1,109 @@
+package co.fitlife.services;
+
+import co.fitlife.model.Reserva;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una reserva en lote: el detalle de cada par (socio, clase) en el orden pedido.
+ */
+public class ResultadoLote {
+
+    public enum Estado {
+        CONFIRMADA,
+        RECHAZADA,
+        // No se aplicó porque otro par del lote fue rechazado (modo todo o nada)
+        NO_APLICADA
+    }
+
+    /**
+     * Un par del lote con su estado y, si fue rechazado, la regla que lo rechazó.
+     */
+    public static class Item {
+        private final Reserva solicitud;
+        private Estado estado = Estado.NO_APLICADA;
+        private ReglaNegocioException.Regla regla;
+        private String mensaje;
+
+        Item(Reserva solicitud) {
+            this.solicitud = solicitud;
+        }
+
+        public Reserva getSolicitud() { return solicitud; }
+        public Estado getEstado() { return estado; }
+
+        /**
+         * La regla que rechazó el par, o null si no fue rechazado o si el socio o la clase no existen.
+         */
+        public ReglaNegocioException.Regla getRegla() { return regla; }
+        public String getMensaje() { return mensaje; }
+
+        @Override
+        public String toString() {
+            return solicitud.getSocioId() + " -> " + solicitud.getClaseId() + ": " + estado
+                    + (mensaje == null ? "" : " (" + mensaje + ")");
+        }
+    }
+
+    private final ModoLote modo;
+    private final List<Item> items;
+    private int confirmadas;
+    private int rechazadas;
+
+    ResultadoLote(ModoLote modo, List<Reserva> solicitudes) {
+        this.modo = modo;
+        this.items = new ArrayList<>(solicitudes.size());
+        for (Reserva solicitud : solicitudes) {
+            items.add(new Item(solicitud));
+        }
+    }
+
+    void confirmar(int indice) {
+        items.get(indice).estado = Estado.CONFIRMADA;
+        confirmadas++;
+    }
+
+    void rechazar(int indice, ReglaNegocioException.Regla regla, String mensaje) {
+        Item item = items.get(indice);
+        item.estado = Estado.RECHAZADA;
+        item.regla = regla;
+        item.mensaje = mensaje;
+        rechazadas++;
+    }
+
+    /**
+     * Las confirmadas vuelven a no aplicadas (el lote se revirtió).
+     */
+    void descartarConfirmadas() {
+        for (Item item : items) {
+            if (item.estado == Estado.CONFIRMADA) {
+                item.estado = Estado.NO_APLICADA;
+            }
+        }
+        confirmadas = 0;
+    }
+
+    public ModoLote getModo() { return modo; }
+    public int getConfirmadas() { return confirmadas; }
+    public int getRechazadas() { return rechazadas; }
+
+    /**
+     * Si se confirmaron todos los pares del lote.
+     */
+    public boolean estaCompleto() {
+        return confirmadas == items.size();
+    }
+
+    /**
+     * Cada par del lote, en el orden en que se pidió.
+     */
+    public List<Item> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    @Override
+    public String toString() {
+        return "pares=" + items.size() + " confirmadas=" + confirmadas + " rechazadas=" + rechazadas;
+    }
+}
\ No newline at end of file
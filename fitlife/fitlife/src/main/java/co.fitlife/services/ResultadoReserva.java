@@ -0,0 +1,40 @@
+package co.fitlife.services;
+
+/**
+ * Resultado de una reserva aceptada: cupo confirmado o lugar en la lista de espera de la clase.
+ */
+public class ResultadoReserva {
+
+    public enum Estado { CONFIRMADA, EN_ESPERA }
+
+    private static final ResultadoReserva CONFIRMADA = new ResultadoReserva(Estado.CONFIRMADA, 0);
+
+    private final Estado estado;
+    private final int posicion;
+
+    private ResultadoReserva(Estado estado, int posicion) {
+        this.estado = estado;
+        this.posicion = posicion;
+    }
+
+    static ResultadoReserva confirmada() {
+        return CONFIRMADA;
+    }
+
+    static ResultadoReserva enEspera(int posicion) {
+        return new ResultadoReserva(Estado.EN_ESPERA, posicion);
+    }
+
+    public Estado getEstado() { return estado; }
+    public boolean estaConfirmada() { return estado == Estado.CONFIRMADA; }
+
+    /**
+     * Posición en la lista de espera al momento de entrar (la primera es 1); 0 si está confirmada.
+     */
+    public int getPosicion() { return posicion; }
+
+    @Override
+    public String toString() {
+        return estaConfirmada() ? "confirmada" : "en espera (posición " + posicion + ")";
+    }
+}
\ No newline at end of file
@@ -3,6 +3,12 @@ module fitlife {
     requires javafx.controls;
     requires javafx.fxml;
 
+    // Servidor HTTP del JDK para la API (co.fitlife.api)
+    requires jdk.httpserver;
+
+    // Eventos de Flight Recorder para las métricas operativas (co.fitlife.metricas)
+    requires jdk.jfr;
+
     // 2. Abrir paquetes a JavaFX para que pueda acceder a las clases
     // El paquete de controladores necesita ser abierto para que el FXMLLoader lo use
     opens co.fitlife.controllers to javafx.fxml;
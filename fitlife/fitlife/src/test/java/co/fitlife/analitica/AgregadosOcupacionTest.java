@@ -0,0 +1,69 @@
+package co.fitlife.analitica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import co.fitlife.model.ClaseGrupal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Los agregados incrementales deben coincidir con un recálculo completo después de cada cambio.
+ */
+class AgregadosOcupacionTest {
+
+    private static final LocalDateTime LUNES_9 = LocalDateTime.of(2025, 6, 2, 9, 0);
+
+    @Test
+    void ampliarElCupoActualizaLaCapacidad() {
+        ClaseGrupal clase = new ClaseGrupal(UUID.randomUUID(), "Yoga", LUNES_9, 10, 5);
+        AgregadosOcupacion agregados = new AgregadosOcupacion();
+        agregados.registrar(clase);
+
+        clase.setCapacidadMaxima(20);
+        agregados.registrar(clase);
+
+        Ocupacion total = agregados.getTotal();
+        assertEquals(1, total.getClases());
+        assertEquals(20, total.getCapacidad());
+        assertEquals(5, total.getReservas());
+        assertEquals(20, agregados.getPorNombre("yoga").getCapacidad());
+        assertEquals(AgregadosOcupacion.recalcular(List.of(clase)).getTotal().toString(), total.toString());
+    }
+
+    @Test
+    void unRecalculoSigueRegistrandoLosCambiosDeCapacidad() {
+        ClaseGrupal clase = new ClaseGrupal(UUID.randomUUID(), "Spinning", LUNES_9, 10, 2);
+        AgregadosOcupacion agregados = AgregadosOcupacion.recalcular(List.of(clase));
+
+        clase.setCapacidadMaxima(15);
+        clase.setReservasActuales(3);
+        agregados.registrar(clase);
+
+        assertEquals(15, agregados.getTotal().getCapacidad());
+        assertEquals(3, agregados.getTotal().getReservas());
+        assertEquals(1, agregados.getTotal().getClases());
+    }
+
+    @Test
+    void quitarUnaClaseArchivadaCoincideConUnRecalculo() {
+        ClaseGrupal archivada = new ClaseGrupal(UUID.randomUUID(), "Pilates", LUNES_9, 12, 8);
+        ClaseGrupal vigente = new ClaseGrupal(UUID.randomUUID(), "Pilates", LUNES_9.plusDays(7), 12, 4);
+        ClaseGrupal unica = new ClaseGrupal(UUID.randomUUID(), "Zumba", LUNES_9, 20, 10);
+        AgregadosOcupacion agregados = AgregadosOcupacion.recalcular(List.of(archivada, vigente, unica));
+
+        agregados.quitar(List.of(archivada, unica));
+        vigente.setReservasActuales(5);
+        agregados.registrar(vigente);
+
+        Ocupacion total = agregados.getTotal();
+        assertEquals(1, total.getClases());
+        assertEquals(12, total.getCapacidad());
+        assertEquals(5, total.getReservas());
+        AgregadosOcupacion recalculados = AgregadosOcupacion.recalcular(List.of(vigente));
+        assertEquals(recalculados.getPorNombre().toString(), agregados.getPorNombre().toString());
+        assertEquals(recalculados.getPorDia(LUNES_9.getDayOfWeek()).toString(),
+                agregados.getPorDia(LUNES_9.getDayOfWeek()).toString());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package co.fitlife.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import co.fitlife.model.Socio;
+import co.fitlife.services.OyenteCambios.TipoCambio;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ordenar la tabla por una columna no debe hacer que un cambio reemplace o quite otra fila.
+ */
+class FilasTablaTest {
+
+    private static final LocalDate VENCE = LocalDate.of(2030, 1, 1);
+
+    @Test
+    void actualizarDespuesDeOrdenarReemplazaLaFilaCorrecta() {
+        Socio carla = socio("3", "Carla");
+        Socio ana = socio("1", "Ana");
+        Socio beto = socio("2", "Beto");
+        FilasTabla<Socio> filas = new FilasTabla<>(Socio::getId);
+        filas.cargar(List.of(carla, ana, beto));
+
+        // Lo que hace la tabla al hacer clic en la cabecera de Nombre
+        filas.getOrdenadas().setComparator(Comparator.comparing(Socio::getNombre));
+        assertEquals(List.of(ana, beto, carla), List.copyOf(filas.getOrdenadas()));
+
+        Socio anaRenovada = new Socio(ana.getId(), "1", "Ana", VENCE.plusYears(1));
+        filas.aplicar(TipoCambio.ACTUALIZADO, anaRenovada);
+        assertEquals(List.of(anaRenovada, beto, carla), List.copyOf(filas.getOrdenadas()));
+
+        filas.aplicar(TipoCambio.ELIMINADO, beto);
+        assertEquals(List.of(anaRenovada, carla), List.copyOf(filas.getOrdenadas()));
+
+        Socio carlaRenovada = new Socio(carla.getId(), "3", "Carla", VENCE.plusYears(2));
+        filas.aplicar(TipoCambio.ACTUALIZADO, carlaRenovada);
+        assertEquals(List.of(anaRenovada, carlaRenovada), List.copyOf(filas.getOrdenadas()));
+    }
+
+    private static Socio socio(String cedula, String nombre) {
+        return new Socio(UUID.randomUUID(), cedula, nombre, VENCE);
+    }
+}
\ No newline at end of file
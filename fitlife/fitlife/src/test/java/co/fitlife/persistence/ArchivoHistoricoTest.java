@@ -0,0 +1,73 @@
+package co.fitlife.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import co.fitlife.model.ClaseGrupal;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Al abrir el histórico solo se corta un segmento que quedó incompleto al final; cualquier otro
+ * daño se respalda y no se toca.
+ */
+class ArchivoHistoricoTest {
+
+    private static final LocalDateTime DESDE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void seDescartaElSegmentoCortadoAlFinal() throws IOException {
+        Path archivo = directorio.resolve("historico.dat");
+        ArchivoHistorico historico = new ArchivoHistorico(archivo.toString());
+        historico.agregar(List.of(clase("Yoga")), List.of());
+        long sano = Files.size(archivo);
+        historico.agregar(List.of(clase("Pilates")), List.of());
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            canal.truncate(Files.size(archivo) - 3);
+        }
+
+        ArchivoHistorico reabierto = new ArchivoHistorico(archivo.toString());
+
+        assertEquals(sano, Files.size(archivo));
+        assertEquals(1, reabierto.clasesEntre(DESDE, DESDE.plusYears(10)).size());
+        reabierto.agregar(List.of(clase("Spinning")), List.of());
+        assertEquals(2, reabierto.clasesEntre(DESDE, DESDE.plusYears(10)).size());
+    }
+
+    @Test
+    void unaCabeceraInvalidaSeRespaldaSinCortar() throws IOException {
+        Path archivo = directorio.resolve("historico.dat");
+        ArchivoHistorico historico = new ArchivoHistorico(archivo.toString());
+        historico.agregar(List.of(clase("Yoga")), List.of());
+        long sano = Files.size(archivo);
+        historico.agregar(List.of(clase("Pilates")), List.of());
+        historico.agregar(List.of(clase("Spinning")), List.of());
+        byte[] bytes = Files.readAllBytes(archivo);
+        bytes[(int) sano] ^= 0x7F;
+        Files.write(archivo, bytes);
+
+        ArchivoHistorico reabierto = new ArchivoHistorico(archivo.toString());
+
+        assertEquals(bytes.length, Files.size(archivo));
+        assertTrue(Files.exists(directorio.resolve("historico.dat.corrupto")));
+        assertEquals(1, reabierto.clasesEntre(DESDE, DESDE.plusYears(10)).size());
+        assertThrows(IOException.class, () -> reabierto.agregar(List.of(clase("Box")), List.of()));
+        assertEquals(bytes.length, Files.size(archivo));
+    }
+
+    private static ArchivoHistorico.ClaseArchivada clase(String nombre) {
+        return new ArchivoHistorico.ClaseArchivada(new ClaseGrupal(nombre, DESDE.plusDays(1), 20), List.of(UUID.randomUUID()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package co.fitlife.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import co.fitlife.model.Socio;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Un archivo de datos dañado se respalda como .corrupto y se carga vacío, sin agotar la memoria.
+ */
+class GestorArchivosTest {
+
+    // Cabecera (magia, versión, cantidad) + id del primer socio: ahí empieza la longitud de su cédula
+    private static final int LONGITUD_PRIMERA_CEDULA = 12 + 16;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void unaLongitudDeTextoDanadaSeRespalda() throws IOException {
+        Path archivo = directorio.resolve("socios.dat");
+        GestorArchivos.guardarDatos(archivo.toString(),
+                List.of(new Socio("111", "Ana Pérez"), new Socio("222", "Beto Gómez")), new SocioCodec());
+        byte[] bytes = Files.readAllBytes(archivo);
+        ByteBuffer.wrap(bytes).putInt(LONGITUD_PRIMERA_CEDULA, Integer.MAX_VALUE - 8);
+        Files.write(archivo, bytes);
+
+        List<Socio> cargados = GestorArchivos.cargarDatos(archivo.toString(), new SocioCodec());
+
+        assertEquals(0, cargados.size());
+        assertTrue(Files.exists(directorio.resolve("socios.dat.corrupto")));
+    }
+
+    @Test
+    void unaLongitudNegativaSeRespalda() throws IOException {
+        Path archivo = directorio.resolve("socios.dat");
+        GestorArchivos.guardarDatos(archivo.toString(), List.of(new Socio("111", "Ana Pérez")), new SocioCodec());
+        byte[] bytes = Files.readAllBytes(archivo);
+        ByteBuffer.wrap(bytes).putInt(LONGITUD_PRIMERA_CEDULA, -5);
+        Files.write(archivo, bytes);
+
+        assertEquals(0, GestorArchivos.cargarDatos(archivo.toString(), new SocioCodec()).size());
+        assertTrue(Files.exists(directorio.resolve("socios.dat.corrupto")));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package co.fitlife.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import co.fitlife.model.Socio;
+import co.fitlife.persistence.AlmacenSociosMapeado;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Importación de socios.dat al almacén mapeado la primera vez que se abre en modo MAPEADO.
+ */
+class AlmacenMapeadoTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void unaImportacionInterrumpidaSeRehaceAlAbrir() throws Exception {
+        registrarEnMemoria("Socio Uno", "Socio Dos", "Socio Tres");
+
+        GimnasioService mapeado = new GimnasioService(ModoAlmacen.MAPEADO, directorio.toString());
+        mapeado.cerrar();
+        assertFalse(Files.exists(directorio.resolve("socios.map.importando")));
+
+        // Caída a mitad de la primera importación: la marca quedó y el almacén tiene otro contenido
+        Files.delete(directorio.resolve("socios.map"));
+        Files.delete(directorio.resolve("socios.idx"));
+        try (AlmacenSociosMapeado almacen = new AlmacenSociosMapeado(
+                directorio.resolve("socios.map").toString(), directorio.resolve("socios.idx").toString())) {
+            almacen.agregar(new Socio("C9", "Socio Parcial"));
+        }
+        Files.write(directorio.resolve("socios.map.importando"), new byte[0]);
+
+        GimnasioService reabierto = new GimnasioService(ModoAlmacen.MAPEADO, directorio.toString());
+        try {
+            assertEquals(3, reabierto.getSocios().size());
+            assertTrue(reabierto.buscarSocioPorCedula("C9").isEmpty());
+            assertFalse(Files.exists(directorio.resolve("socios.map.importando")));
+        } finally {
+            reabierto.cerrar();
+        }
+    }
+
+    @Test
+    void unSocioQueNoCabeVuelveAlModoEnMemoria() throws Exception {
+        registrarEnMemoria("Socio Uno", "N".repeat(200));
+
+        GimnasioService servicio = new GimnasioService(ModoAlmacen.MAPEADO, directorio.toString());
+        try {
+            assertEquals(2, servicio.getSocios().size());
+            assertTrue(servicio.buscarSocioPorCedula("C1").isPresent());
+        } finally {
+            servicio.cerrar();
+        }
+    }
+
+    private void registrarEnMemoria(String... nombres) throws Exception {
+        GimnasioService servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            for (int i = 0; i < nombres.length; i++) {
+                servicio.registrarSocio("C" + i, nombres[i]);
+            }
+            servicio.guardarCambios();
+        } finally {
+            servicio.cerrar();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package co.fitlife.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.Socio;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * La ocupación del tablero cuenta solo las clases en memoria: después de archivar da lo mismo
+ * antes y después de reabrir.
+ */
+class ArchivadoOcupacionTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void laOcupacionNoCambiaAlReabrirTrasArchivar() throws Exception {
+        LocalDateTime manana = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        String total;
+        String porClase;
+        GimnasioService servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            servicio.registrarSocio("111", "Socio Uno");
+            servicio.registrarSocio("222", "Socio Dos");
+            servicio.registrarClase("Yoga", manana, 10);
+            servicio.registrarClase("Yoga", manana.plusDays(7), 10);
+            servicio.registrarClase("Spinning", manana, 15);
+            List<Socio> socios = servicio.getSocios();
+            for (ClaseGrupal clase : servicio.getClases()) {
+                for (Socio socio : socios) {
+                    servicio.realizarReserva(socio, clase);
+                }
+            }
+            // Los agregados ya calculados se mantienen al día durante el archivado
+            assertEquals(3, servicio.getOcupacionTotal().getClases());
+
+            ResultadoArchivado archivado = servicio.archivarHistorico(manana.plusDays(1), LocalDate.of(2000, 1, 1));
+            assertEquals(2, archivado.getClases());
+            assertEquals(1, servicio.getOcupacionTotal().getClases());
+            total = servicio.getOcupacionTotal().toString();
+            porClase = servicio.getOcupacionPorClase().toString();
+        } finally {
+            servicio.cerrar();
+        }
+
+        GimnasioService reabierto = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            assertEquals(total, reabierto.getOcupacionTotal().toString());
+            assertEquals(porClase, reabierto.getOcupacionPorClase().toString());
+        } finally {
+            reabierto.cerrar();
+        }
+    }
+}
\ No newline at end of file
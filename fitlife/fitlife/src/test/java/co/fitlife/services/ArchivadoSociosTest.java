@@ -0,0 +1,103 @@
+package co.fitlife.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.Socio;
+import co.fitlife.persistence.DiarioCambios;
+import co.fitlife.persistence.FormatoIntercambio;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * RF01 alcanza a los socios archivados: su cédula no se puede volver a registrar.
+ */
+class ArchivadoSociosTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void laCedulaDeUnSocioArchivadoNoSeRepite() throws Exception {
+        GimnasioService servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            servicio.importarSocios(new StringReader("cedula,nombre,vencimiento\n111,Socio Antiguo,2020-01-01\n"),
+                    FormatoIntercambio.CSV);
+            assertEquals(1, servicio.archivarHistorico().getSocios());
+            assertEquals(0, servicio.getSocios().size());
+
+            assertThrows(ReglaNegocioException.class, () -> servicio.registrarSocio("111", "Otro Socio"));
+            ResultadoImportacion importacion = servicio.importarSocios(
+                    new StringReader("cedula,nombre\n111,Otro Socio\n"), FormatoIntercambio.CSV);
+            assertEquals(0, importacion.getAceptados());
+        } finally {
+            servicio.cerrar();
+        }
+
+        GimnasioService reabierto = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            ReglaNegocioException error = assertThrows(ReglaNegocioException.class,
+                    () -> reabierto.registrarSocio("111", "Otro Socio"));
+            assertEquals(ReglaNegocioException.Regla.CEDULA_DUPLICADA, error.getRegla());
+        } finally {
+            reabierto.cerrar();
+        }
+    }
+
+    /**
+     * Caída entre confirmar la instantánea del archivado y descartar el segmento anterior del
+     * diario: ese segmento tiene el alta de lo archivado y, al final, el registro de la baja.
+     */
+    @Test
+    void reproducirElSegmentoAnteriorNoDevuelveLoArchivado() throws Exception {
+        LocalDateTime manana = LocalDateTime.now().plusDays(1);
+        Socio vencido;
+        Socio vigente;
+        ClaseGrupal clase;
+        GimnasioService servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            servicio.importarSocios(new StringReader("cedula,nombre,vencimiento\n111,Socio Antiguo,2020-01-01\n"),
+                    FormatoIntercambio.CSV);
+            servicio.registrarSocio("222", "Socio Vigente");
+            servicio.registrarClase("Yoga", manana, 10);
+            vencido = servicio.buscarSocioPorCedula("111").orElseThrow();
+            vigente = servicio.buscarSocioPorCedula("222").orElseThrow();
+            clase = servicio.getClases().get(0);
+            servicio.realizarReserva(vigente, clase);
+
+            ResultadoArchivado archivado = servicio.archivarHistorico(manana.plusDays(1), LocalDate.of(2021, 1, 1));
+            assertEquals(1, archivado.getClases());
+            assertEquals(1, archivado.getSocios());
+        } finally {
+            servicio.cerrar();
+        }
+
+        Path segmento = directorio.resolve("segmento.journal");
+        try (DiarioCambios diario = new DiarioCambios(segmento.toString())) {
+            diario.registrarSocio(vencido);
+            diario.registrarClase(clase);
+            diario.registrarReserva(clase, vigente, 1);
+            diario.registrarArchivado(List.of(clase.getId()), List.of(vencido.getId()));
+        }
+        Files.move(segmento, directorio.resolve("cambios.journal.anterior"));
+
+        GimnasioService reabierto = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            assertTrue(reabierto.getClases().isEmpty());
+            assertTrue(reabierto.buscarSocioPorCedula("111").isEmpty());
+            assertTrue(reabierto.buscarSocioPorCedula("222").isPresent());
+            assertFalse(reabierto.tieneReserva(vigente, clase));
+        } finally {
+            reabierto.cerrar();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package co.fitlife.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import co.fitlife.model.Socio;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * El índice de búsqueda se construye en segundo plano al abrir el servicio: los socios que se
+ * registran mientras tanto no se pierden.
+ */
+class BusquedaSociosTest {
+
+    private static final int SOCIOS = 20_000;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void losRegistrosDuranteLaConstruccionQuedanIndexados() throws Exception {
+        GimnasioService servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        for (int i = 0; i < SOCIOS; i++) {
+            servicio.registrarSocio("C" + i, "Socio " + i);
+        }
+        servicio.cerrar();
+
+        servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            servicio.registrarSocio("99887766", "Zoilo Urquiza");
+            // Antes de que termine la construcción, la cédula exacta igual se encuentra
+            assertEquals(1, servicio.buscarSocios("99887766", 10).size());
+
+            assertTrue(servicio.esperarIndiceBusqueda(60_000));
+            List<Socio> encontrados = servicio.buscarSocios("zoilo", 10);
+            assertEquals(1, encontrados.size());
+            assertEquals("99887766", encontrados.get(0).getCedula());
+            assertEquals(SOCIOS, servicio.buscarSocios("socio", 0, SOCIOS + 10).size());
+        } finally {
+            servicio.cerrar();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package co.fitlife.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import co.fitlife.persistence.FormatoIntercambio;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * El índice de cédulas entre sedes conserva las de los socios archivados.
+ */
+class MultisedeIndiceTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void archivarEnUnaSedeNoLiberaLaCedulaParaOtra() throws Exception {
+        GimnasioMultisede multisede = GimnasioMultisede.abrir(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            GimnasioService norte = multisede.crearSede("norte");
+            multisede.crearSede("sur");
+            // Se consulta antes de archivar para que el índice ya esté construido
+            assertEquals(Optional.empty(), multisede.sedeDeSocio("111"));
+            norte.importarSocios(new StringReader("cedula,nombre,vencimiento\n111,Socio Antiguo,2020-01-01\n"),
+                    FormatoIntercambio.CSV);
+            assertEquals(1, norte.archivarHistorico().getSocios());
+
+            assertEquals(Optional.of("norte"), multisede.sedeDeSocio("111"));
+            ReglaNegocioException error = assertThrows(ReglaNegocioException.class,
+                    () -> multisede.registrarSocio("sur", "111", "Otro Socio"));
+            assertEquals(ReglaNegocioException.Regla.CEDULA_DUPLICADA, error.getRegla());
+        } finally {
+            multisede.cerrar();
+        }
+    }
+}
\ No newline at end of file
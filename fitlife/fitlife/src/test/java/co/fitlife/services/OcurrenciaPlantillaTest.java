@@ -0,0 +1,66 @@
+package co.fitlife.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.Reserva;
+import co.fitlife.model.Socio;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Una ocurrencia de plantilla pasa a guardarse recién cuando una reserva en ella se acepta.
+ */
+class OcurrenciaPlantillaTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void loteRechazadoNoRegistraLaOcurrencia() throws Exception {
+        GimnasioService servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            servicio.registrarSocio("1", "Ana");
+            Socio ana = servicio.buscarSocioPorCedula("1").orElseThrow();
+            servicio.registrarSocio("2", "Beto");
+            Socio beto = servicio.buscarSocioPorCedula("2").orElseThrow();
+            servicio.registrarPlantilla("Yoga", EnumSet.allOf(DayOfWeek.class), LocalTime.of(20, 0), 1,
+                    LocalDate.now().plusDays(1), LocalDate.now().plusDays(7));
+            ClaseGrupal ocurrencia = servicio.getClasesProgramadas(7).get(0);
+
+            ResultadoLote resultado = servicio.realizarReservas(List.of(
+                    new Reserva(ana.getId(), ocurrencia.getId()),
+                    new Reserva(beto.getId(), ocurrencia.getId())), ModoLote.TODO_O_NADA);
+
+            assertEquals(0, resultado.getConfirmadas());
+            assertEquals(0, servicio.getClases().size());
+        } finally {
+            servicio.cerrar();
+        }
+    }
+
+    @Test
+    void reservaAceptadaRegistraLaOcurrencia() throws Exception {
+        GimnasioService servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            servicio.registrarSocio("1", "Ana");
+            Socio ana = servicio.buscarSocioPorCedula("1").orElseThrow();
+            servicio.registrarPlantilla("Yoga", EnumSet.allOf(DayOfWeek.class), LocalTime.of(20, 0), 1,
+                    LocalDate.now().plusDays(1), LocalDate.now().plusDays(7));
+            ClaseGrupal ocurrencia = servicio.getClasesProgramadas(7).get(0);
+
+            servicio.realizarReserva(ana, ocurrencia);
+
+            assertEquals(1, servicio.getClases().size());
+            assertEquals(1, servicio.getClases().get(0).getReservasActuales());
+        } finally {
+            servicio.cerrar();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package co.fitlife.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import co.fitlife.model.ClaseGrupal;
+import co.fitlife.model.Socio;
+import co.fitlife.persistence.DiarioCambios;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Prueba de estrés de RN02: muchos hilos reservan a la vez la misma clase y ninguno debe
+ * obtener un cupo de más, ni en memoria ni al reproducir el diario tras una caída.
+ */
+class ReservaConcurrenteTest {
+
+    private static final int HILOS = 64;
+    private static final int SOCIOS = 400;
+    private static final int CAPACIDAD = 25;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void reservasSimultaneasNoSuperanElCupo() throws Exception {
+        GimnasioService servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            for (int i = 0; i < SOCIOS; i++) {
+                servicio.registrarSocio("C" + i, "Socio " + i);
+            }
+            servicio.registrarClase("Spinning", LocalDateTime.now().plusDays(1), CAPACIDAD);
+            ClaseGrupal clase = servicio.getClases().get(0);
+            List<Socio> socios = servicio.getSocios();
+
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<Boolean>> intentos = new ArrayList<>(SOCIOS);
+            ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+            try {
+                for (Socio socio : socios) {
+                    intentos.add(ejecutor.submit(() -> {
+                        largada.await();
+                        try {
+                            return servicio.realizarReserva(socio, clase).estaConfirmada();
+                        } catch (ReglaNegocioException e) {
+                            // Clase y lista de espera completas
+                            return false;
+                        }
+                    }));
+                }
+                largada.countDown();
+                int confirmadas = 0;
+                for (Future<Boolean> intento : intentos) {
+                    if (intento.get()) {
+                        confirmadas++;
+                    }
+                }
+
+                assertEquals(CAPACIDAD, confirmadas);
+                assertEquals(CAPACIDAD, clase.getReservasActuales());
+                assertEquals(CAPACIDAD, servicio.getAsistentes(clase).size());
+            } finally {
+                ejecutor.shutdownNow();
+            }
+        } finally {
+            servicio.cerrar();
+        }
+    }
+
+    @Test
+    void reproducirElDiarioRecuentaLasReservasDesdeElRoster() throws Exception {
+        GimnasioService servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        servicio.registrarSocio("A", "Socio A");
+        servicio.registrarSocio("B", "Socio B");
+        servicio.registrarClase("Spinning", LocalDateTime.now().plusDays(1), CAPACIDAD);
+        Socio a = servicio.buscarSocioPorCedula("A").get();
+        Socio b = servicio.buscarSocioPorCedula("B").get();
+        ClaseGrupal clase = servicio.getClases().get(0);
+        servicio.cerrar();
+
+        // A reserva (1), B reserva (2) y A cancela; la reserva de B llega al diario después de la cancelación
+        try (DiarioCambios diario = new DiarioCambios(directorio.resolve("cambios.journal").toString())) {
+            diario.registrarReserva(clase, a, 1);
+            diario.registrarCancelacion(clase, a);
+            diario.registrarReserva(clase, b, 2);
+        }
+
+        GimnasioService reabierto = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            ClaseGrupal recuperada = reabierto.getClases().get(0);
+            assertEquals(1, reabierto.getAsistentes(recuperada).size());
+            assertEquals(1, recuperada.getReservasActuales());
+        } finally {
+            reabierto.cerrar();
+        }
+    }
+
+    @Test
+    void lasPromocionesConcurrentesSeReproducenIgual() throws Exception {
+        GimnasioService servicio = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        for (int i = 0; i < 3 * CAPACIDAD; i++) {
+            servicio.registrarSocio("C" + i, "Socio " + i);
+        }
+        servicio.registrarClase("Spinning", LocalDateTime.now().plusDays(1), CAPACIDAD);
+        ClaseGrupal clase = servicio.getClases().get(0);
+        List<Socio> socios = servicio.getSocios();
+        List<Socio> titulares = socios.subList(0, CAPACIDAD);
+        for (Socio socio : titulares) {
+            servicio.realizarReserva(socio, clase);
+        }
+
+        // Los titulares cancelan (y promueven) mientras los demás entran a la lista de espera
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        try {
+            for (Socio socio : socios) {
+                boolean titular = titulares.contains(socio);
+                tareas.add(ejecutor.submit(() -> {
+                    largada.await();
+                    if (titular) {
+                        servicio.cancelarReserva(socio, clase);
+                    } else {
+                        try {
+                            servicio.realizarReserva(socio, clase);
+                        } catch (ReglaNegocioException e) {
+                            // Lista de espera completa
+                        }
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+        Set<UUID> asistentes = ids(servicio.getAsistentes(clase));
+        List<UUID> enEspera = new ArrayList<>(ids(servicio.getListaEspera(clase)));
+
+        // Sin cerrar: el próximo arranque reproduce el diario, como después de una caída
+        GimnasioService reabierto = new GimnasioService(ModoAlmacen.MEMORIA, directorio.toString());
+        try {
+            ClaseGrupal recuperada = reabierto.getClases().get(0);
+            assertEquals(asistentes, ids(reabierto.getAsistentes(recuperada)));
+            assertEquals(enEspera, new ArrayList<>(ids(reabierto.getListaEspera(recuperada))));
+            for (Socio socio : reabierto.getListaEspera(recuperada)) {
+                assertFalse(asistentes.contains(socio.getId()), "Reservado y en espera: " + socio.getCedula());
+            }
+        } finally {
+            reabierto.cerrar();
+        }
+    }
+
+    // En el orden de la lista
+    private static Set<UUID> ids(List<Socio> socios) {
+        Set<UUID> ids = new LinkedHashSet<>();
+        socios.forEach(socio -> ids.add(socio.getId()));
+        return ids;
+    }
+}
\ No newline at end of file